@@ -0,0 +1,87 @@
+/*
+ * BatchBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.batch.BatchResult;
+import com.github.fracpete.processoutput4j.batch.BatchRunner;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the throughput of the {@link BatchRunner} scales with the
+ * number of concurrent processes.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BatchBenchmark {
+
+  /** the maximum number of concurrent processes. */
+  @Param({"1", "2", "4", "8"})
+  public int concurrency;
+
+  /** the number of processes in the batch. */
+  @Param({"32"})
+  public int processes;
+
+  /** the generator. */
+  protected ChildGenerator m_Generator;
+
+  /** the builders. */
+  protected List<ProcessBuilder> m_Builders;
+
+  /**
+   * Sets up the builders.
+   */
+  @Setup
+  public void setUp() {
+    int		i;
+
+    m_Generator = new ChildGenerator(10000, 80, 0.1, 0);
+    m_Builders  = new ArrayList<>();
+    for (i = 0; i < processes; i++)
+      m_Builders.add(m_Generator.builder());
+  }
+
+  /**
+   * Runs the batch.
+   *
+   * @param counters	for recording MB and lines
+   * @throws Exception	if a process fails
+   */
+  @Benchmark
+  public void batch(Counters counters) throws Exception {
+    BatchRunner<CollectingProcessOutput>	runner;
+
+    runner = new BatchRunner<>(CollectingProcessOutput::new);
+    runner.setMaxConcurrency(concurrency);
+    runner.setFailFast(true);
+    for (BatchResult<CollectingProcessOutput> result: runner.run(m_Builders)) {
+      if (!result.isSuccess())
+	throw new IllegalStateException("Process failed: " + result);
+      counters.add(m_Generator);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * BenchmarkRunner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC (allocation rate) and thread profilers
+ * enabled. Accepts the same options as the JMH command-line, e.g., a regular
+ * expression for selecting the benchmarks to run.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args	the JMH options
+   * @throws Exception	if running fails
+   */
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions	options;
+
+    options = new CommandLineOptions(args);
+    new Runner(new OptionsBuilder()
+      .parent(options)
+      .addProfiler(GCProfiler.class)
+      .addProfiler(ThreadProfiler.class)
+      .build()).run();
+  }
+}
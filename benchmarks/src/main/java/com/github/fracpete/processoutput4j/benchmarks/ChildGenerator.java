@@ -0,0 +1,200 @@
+/*
+ * ChildGenerator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiny, deterministic child process for the benchmarks. Outputs the
+ * configured number of lines with the configured length, distributed
+ * between stdout and stderr according to the specified ratio, optionally
+ * throttled to the specified byte rate.
+ * <br>
+ * Options:
+ * <ul>
+ *   <li>-lines &lt;int&gt; - the number of lines to output (default: 10000)</li>
+ *   <li>-length &lt;int&gt; - the length of the lines excl line break (default: 80)</li>
+ *   <li>-stderr &lt;double&gt; - the fraction of lines to output on stderr (default: 0.0)</li>
+ *   <li>-rate &lt;long&gt; - the maximum bytes per second, unthrottled if &lt;= 0 (default: 0)</li>
+ * </ul>
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ChildGenerator {
+
+  /** the number of lines to output. */
+  protected int m_Lines;
+
+  /** the length of the lines. */
+  protected int m_Length;
+
+  /** the fraction of lines to output on stderr. */
+  protected double m_StdErrRatio;
+
+  /** the maximum bytes per second. */
+  protected long m_Rate;
+
+  /**
+   * Initializes the generator.
+   *
+   * @param lines	the number of lines
+   * @param length	the length of the lines (excl line break)
+   * @param stderrRatio	the fraction of lines to output on stderr
+   * @param rate	the maximum bytes per second, unthrottled if &lt;= 0
+   */
+  public ChildGenerator(int lines, int length, double stderrRatio, long rate) {
+    m_Lines       = lines;
+    m_Length      = length;
+    m_StdErrRatio = stderrRatio;
+    m_Rate        = rate;
+  }
+
+  /**
+   * Returns the total number of bytes that get output (incl line breaks).
+   *
+   * @return		the number of bytes
+   */
+  public long getNumBytes() {
+    return (long) m_Lines * (m_Length + 1);
+  }
+
+  /**
+   * Returns the number of lines that get output.
+   *
+   * @return		the number of lines
+   */
+  public int getNumLines() {
+    return m_Lines;
+  }
+
+  /**
+   * Creates a process builder that runs the generator in a separate JVM,
+   * using the classpath of the current JVM.
+   *
+   * @return		the builder
+   */
+  public ProcessBuilder builder() {
+    List<String>	cmd;
+
+    cmd = new ArrayList<>();
+    cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    // reduce the startup time of the child
+    cmd.add("-Xshare:auto");
+    cmd.add("-XX:TieredStopAtLevel=1");
+    cmd.add("-cp");
+    cmd.add(System.getProperty("java.class.path"));
+    cmd.add(ChildGenerator.class.getName());
+    cmd.add("-lines");
+    cmd.add("" + m_Lines);
+    cmd.add("-length");
+    cmd.add("" + m_Length);
+    cmd.add("-stderr");
+    cmd.add("" + m_StdErrRatio);
+    cmd.add("-rate");
+    cmd.add("" + m_Rate);
+
+    return new ProcessBuilder(cmd);
+  }
+
+  /**
+   * Outputs the lines.
+   *
+   * @param stdout	the stream for stdout
+   * @param stderr	the stream for stderr
+   * @throws Exception	if writing fails
+   */
+  public void generate(OutputStream stdout, OutputStream stderr) throws Exception {
+    byte[]	line;
+    int		i;
+    int		n;
+    double	acc;
+    long	start;
+    long	written;
+    long	due;
+
+    line    = new byte[m_Length + 1];
+    acc     = 0.0;
+    written = 0;
+    start   = System.nanoTime();
+    for (i = 0; i < m_Lines; i++) {
+      for (n = 0; n < m_Length; n++)
+	line[n] = (byte) ('a' + ((i + n) % 26));
+      line[m_Length] = '\n';
+
+      acc += m_StdErrRatio;
+      if (acc >= 1.0) {
+	acc -= 1.0;
+	stderr.write(line);
+      }
+      else {
+	stdout.write(line);
+      }
+
+      if (m_Rate > 0) {
+	written += line.length;
+	due = start + TimeUnit.SECONDS.toNanos(1) * written / m_Rate;
+	if (due > System.nanoTime()) {
+	  stdout.flush();
+	  stderr.flush();
+	  TimeUnit.NANOSECONDS.sleep(due - System.nanoTime());
+	}
+      }
+    }
+    stdout.flush();
+    stderr.flush();
+  }
+
+  /**
+   * Runs the generator.
+   *
+   * @param args	the options, see class description
+   * @throws Exception	if writing fails
+   */
+  public static void main(String[] args) throws Exception {
+    int			lines;
+    int			length;
+    double		ratio;
+    long		rate;
+    int			i;
+    ChildGenerator	generator;
+
+    lines  = 10000;
+    length = 80;
+    ratio  = 0.0;
+    rate   = 0;
+    for (i = 0; i < args.length - 1; i += 2) {
+      switch (args[i]) {
+	case "-lines":
+	  lines = Integer.parseInt(args[i + 1]);
+	  break;
+	case "-length":
+	  length = Integer.parseInt(args[i + 1]);
+	  break;
+	case "-stderr":
+	  ratio = Double.parseDouble(args[i + 1]);
+	  break;
+	case "-rate":
+	  rate = Long.parseLong(args[i + 1]);
+	  break;
+	default:
+	  System.err.println("Unknown option: " + args[i]);
+	  System.exit(1);
+      }
+    }
+
+    generator = new ChildGenerator(lines, length, ratio, rate);
+    generator.generate(
+      new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 65536),
+      new BufferedOutputStream(new FileOutputStream(FileDescriptor.err), 65536));
+  }
+}
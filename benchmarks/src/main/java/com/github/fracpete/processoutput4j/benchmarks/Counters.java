@@ -0,0 +1,48 @@
+/*
+ * Counters.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Auxiliary counters for reporting the throughput in MB/s and lines/s
+ * (in throughput mode, the counters get normalized to seconds).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Counters {
+
+  /** the megabytes (10^6 bytes) that were processed. */
+  public double megabytes;
+
+  /** the lines that were processed. */
+  public long lines;
+
+  /**
+   * Resets the counters.
+   */
+  @Setup(Level.Iteration)
+  public void reset() {
+    megabytes = 0;
+    lines     = 0;
+  }
+
+  /**
+   * Adds the output of the generator to the counters.
+   *
+   * @param generator	the generator that was run
+   */
+  public void add(ChildGenerator generator) {
+    megabytes += generator.getNumBytes() / 1000000.0;
+    lines     += generator.getNumLines();
+  }
+}
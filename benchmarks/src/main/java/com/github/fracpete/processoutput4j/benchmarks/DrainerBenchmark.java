@@ -0,0 +1,86 @@
+/*
+ * DrainerBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import com.github.fracpete.processoutput4j.reader.PipeDrainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reader threads of the executor with the {@link PipeDrainer}
+ * for many concurrent, slowly outputting processes. Use together with the
+ * {@link ThreadProfiler} to see the difference in threads.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DrainerBenchmark {
+
+  /** how to read the pipes. */
+  @Param({"executor", "drainer"})
+  public String mode;
+
+  /** the number of concurrent processes. */
+  @Param({"16"})
+  public int processes;
+
+  /** the generator. */
+  protected ChildGenerator m_Generator;
+
+  /**
+   * Sets up the generator: 1000 lines throttled to roughly one second.
+   */
+  @Setup
+  public void setUp() {
+    m_Generator = new ChildGenerator(1000, 80, 0.1, 81000);
+  }
+
+  /**
+   * Runs the processes concurrently and waits for all of them to finish.
+   *
+   * @param counters	for recording MB and lines
+   * @throws Exception	if a process fails
+   */
+  @Benchmark
+  public void drain(Counters counters) throws Exception {
+    CompletableFuture<?>[]	futures;
+    CollectingProcessOutput	output;
+    int				i;
+
+    futures = new CompletableFuture[processes];
+    for (i = 0; i < processes; i++) {
+      output = new CollectingProcessOutput();
+      if (mode.equals("drainer"))
+	output.setPipeDrainer(PipeDrainer.getDefault());
+      futures[i] = output.monitorAsync(m_Generator.builder());
+    }
+    CompletableFuture.allOf(futures).get();
+    for (i = 0; i < processes; i++) {
+      if (!((AbstractProcessOutput) futures[i].get()).hasSucceeded())
+	throw new IllegalStateException("Generator #" + i + " failed");
+      counters.add(m_Generator);
+    }
+  }
+}
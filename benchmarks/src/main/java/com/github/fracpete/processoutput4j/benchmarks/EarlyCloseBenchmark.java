@@ -0,0 +1,213 @@
+/*
+ * EarlyCloseBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
+import com.github.fracpete.processoutput4j.reader.PipeDrainer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU time that the JVM uses while monitoring a process that
+ * closes stdout and stderr right away and then keeps running for a second,
+ * like a daemon. The readers should be idle once they reached EOF, i.e.,
+ * the "cpu" counter (in milliseconds, summed over the single-shot
+ * iterations) should stay far below the runtime of the processes.
+ * <br>
+ * Each invocation also checks that both readers got finished within
+ * {@link #MAX_FINISH_LAG} milliseconds of the output appearing (i.e., at
+ * EOF rather than once the process exits) and that no line got processed
+ * after a reader got finished. A violation fails the benchmark.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EarlyCloseBenchmark {
+
+  /** the maximum time in milliseconds between output and finished readers. */
+  public final static int MAX_FINISH_LAG = 250;
+
+  /**
+   * Reader that records when it processed its first line and when it got
+   * finished, as well as lines that got processed after it got finished.
+   */
+  public static class RecordingReader
+    extends AbstractProcessReader {
+
+    /** the time of the first line in nanoseconds, 0 if none. */
+    protected volatile long m_FirstLine;
+
+    /** the time the reader got finished in nanoseconds, 0 if not yet. */
+    protected volatile long m_Finish;
+
+    /** the number of lines processed after finishing. */
+    protected volatile int m_LateLines;
+
+    /**
+     * Initializes the reader.
+     *
+     * @param stdout	whether to read stdout or stderr
+     */
+    public RecordingReader(boolean stdout) {
+      super(stdout);
+    }
+
+    /**
+     * Records the line.
+     *
+     * @param line	the output line
+     */
+    @Override
+    protected void process(String line) {
+      if (isFinished())
+	m_LateLines++;
+      if (m_FirstLine == 0)
+	m_FirstLine = System.nanoTime();
+    }
+
+    /**
+     * Finishes the reader and records the time.
+     */
+    @Override
+    public void finish() {
+      super.finish();
+      if (m_Finish == 0)
+	m_Finish = System.nanoTime();
+    }
+  }
+
+  /**
+   * Output that uses {@link RecordingReader} instances.
+   */
+  public static class RecordingOutput
+    extends AbstractProcessOutput {
+
+    private static final long serialVersionUID = 5391426104273315620L;
+
+    /** the reader for stdout. */
+    protected transient RecordingReader m_StdOut;
+
+    /** the reader for stderr. */
+    protected transient RecordingReader m_StdErr;
+
+    /**
+     * Configures the reader for stderr.
+     *
+     * @return		the reader
+     */
+    @Override
+    protected AbstractProcessReader configureStdErr() {
+      m_StdErr = new RecordingReader(false);
+      return m_StdErr;
+    }
+
+    /**
+     * Configures the reader for stdout.
+     *
+     * @return		the reader
+     */
+    @Override
+    protected AbstractProcessReader configureStdOut() {
+      m_StdOut = new RecordingReader(true);
+      return m_StdOut;
+    }
+
+    /**
+     * Checks that the readers got finished promptly after the output
+     * appeared and that no lines got processed after finishing.
+     *
+     * @throws IllegalStateException	if a check fails
+     */
+    public void check() {
+      long	lag;
+
+      if (m_StdOut.m_FirstLine == 0)
+	throw new IllegalStateException("Missing output");
+      if ((m_StdOut.m_Finish == 0) || (m_StdErr.m_Finish == 0))
+	throw new IllegalStateException("Readers not finished");
+      lag = (Math.max(m_StdOut.m_Finish, m_StdErr.m_Finish) - m_StdOut.m_FirstLine) / 1000000;
+      if (lag > MAX_FINISH_LAG)
+	throw new IllegalStateException("Readers finished " + lag + "ms after the output, limit: " + MAX_FINISH_LAG + "ms");
+      if (m_StdOut.m_LateLines + m_StdErr.m_LateLines > 0)
+	throw new IllegalStateException("Lines processed after finishing: " + (m_StdOut.m_LateLines + m_StdErr.m_LateLines));
+    }
+  }
+
+  /**
+   * The CPU time used by the JVM while monitoring.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class CpuCounters {
+
+    /** the CPU time in milliseconds. */
+    public double cpu;
+
+    /**
+     * Resets the counter.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      cpu = 0;
+    }
+  }
+
+  /** how to read the output. */
+  @Param({"threads", "drainer"})
+  public String scheme;
+
+  /**
+   * Returns the CPU time used by the JVM so far.
+   *
+   * @return		the time in nanoseconds
+   */
+  protected static long cpuTime() {
+    return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+  }
+
+  /**
+   * Monitors the process until it exits and checks the readers.
+   *
+   * @param counters	for recording the CPU time
+   * @return		the output
+   * @throws Exception	if the process fails or the readers misbehave
+   */
+  @Benchmark
+  public RecordingOutput earlyClose(CpuCounters counters) throws Exception {
+    RecordingOutput	result;
+    long		start;
+
+    result = new RecordingOutput();
+    if (scheme.equals("drainer"))
+      result.setPipeDrainer(PipeDrainer.getDefault());
+    start = cpuTime();
+    result.monitor(new ProcessBuilder("sh", "-c", "echo ready; exec 1>&- 2>&-; sleep 1"));
+    counters.cpu += (cpuTime() - start) / 1000000.0;
+    result.check();
+
+    return result;
+  }
+}
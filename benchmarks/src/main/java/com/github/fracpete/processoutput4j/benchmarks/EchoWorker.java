@@ -0,0 +1,74 @@
+/*
+ * EchoWorker.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.pool.DelimiterFraming;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker process for the pool benchmarks: answers each line read from stdin
+ * with the same line, followed by the delimiter of {@link DelimiterFraming}.
+ * With option "-once", only a single request is answered before exiting
+ * (i.e., a process per request).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class EchoWorker {
+
+  /**
+   * Creates a process builder that runs the worker in a separate JVM,
+   * using the classpath of the current JVM.
+   *
+   * @param once	whether to exit after the first request
+   * @return		the builder
+   */
+  public static ProcessBuilder builder(boolean once) {
+    List<String>	cmd;
+
+    cmd = new ArrayList<>();
+    cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    // reduce the startup time of the child
+    cmd.add("-Xshare:auto");
+    cmd.add("-XX:TieredStopAtLevel=1");
+    cmd.add("-cp");
+    cmd.add(System.getProperty("java.class.path"));
+    cmd.add(EchoWorker.class.getName());
+    if (once)
+      cmd.add("-once");
+
+    return new ProcessBuilder(cmd);
+  }
+
+  /**
+   * Answers the requests read from stdin.
+   *
+   * @param args	the options
+   * @throws Exception	if reading/writing fails
+   */
+  public static void main(String[] args) throws Exception {
+    BufferedReader	reader;
+    PrintStream		out;
+    String		line;
+    boolean		once;
+
+    once   = (args.length > 0) && args[0].equals("-once");
+    reader = new BufferedReader(new InputStreamReader(System.in));
+    out    = new PrintStream(System.out, false);
+    while ((line = reader.readLine()) != null) {
+      out.println(line);
+      out.println(DelimiterFraming.DEFAULT_DELIMITER);
+      out.flush();
+      if (once)
+	break;
+    }
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * JsonLinesBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.core.JsonLineParser;
+import com.github.fracpete.processoutput4j.core.JsonRecord;
+import com.github.fracpete.processoutput4j.core.LineView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares extracting three fields from lines of "rg --json"-like output by
+ * creating a string per line and parsing it into a tree of maps and lists
+ * ("tree") against projecting the fields straight from the reader's buffer
+ * with the {@link JsonLineParser} ("projection"). Run with "-prof gc" to
+ * compare the garbage per record.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JsonLinesBenchmark {
+
+  /** the number of lines per invocation. */
+  public final static int NUM_LINES = 1000;
+
+  /**
+   * Minimal parser that turns a JSON string into a tree of maps, lists,
+   * strings, doubles, booleans and nulls.
+   */
+  public static class TreeParser {
+
+    /** the text. */
+    protected String m_Text;
+
+    /** the position. */
+    protected int m_Pos;
+
+    /**
+     * Parses the text.
+     *
+     * @param text	the JSON text
+     * @return		the tree
+     */
+    public Object parse(String text) {
+      m_Text = text;
+      m_Pos  = 0;
+      return value();
+    }
+
+    /**
+     * Skips whitespace.
+     */
+    protected void whitespace() {
+      while ((m_Pos < m_Text.length()) && Character.isWhitespace(m_Text.charAt(m_Pos)))
+	m_Pos++;
+    }
+
+    /**
+     * Parses the value at the current position.
+     *
+     * @return		the value
+     */
+    protected Object value() {
+      Map<String,Object>	map;
+      List<Object>		list;
+      String			key;
+      int			start;
+      char			c;
+
+      whitespace();
+      c = m_Text.charAt(m_Pos);
+      switch (c) {
+	case '{':
+	  map = new HashMap<>();
+	  m_Pos++;
+	  whitespace();
+	  if (m_Text.charAt(m_Pos) == '}') {
+	    m_Pos++;
+	    return map;
+	  }
+	  while (true) {
+	    whitespace();
+	    key = string();
+	    whitespace();
+	    m_Pos++;
+	    map.put(key, value());
+	    whitespace();
+	    if (m_Text.charAt(m_Pos++) == '}')
+	      return map;
+	  }
+	case '[':
+	  list = new ArrayList<>();
+	  m_Pos++;
+	  whitespace();
+	  if (m_Text.charAt(m_Pos) == ']') {
+	    m_Pos++;
+	    return list;
+	  }
+	  while (true) {
+	    list.add(value());
+	    whitespace();
+	    if (m_Text.charAt(m_Pos++) == ']')
+	      return list;
+	  }
+	case '"':
+	  return string();
+	case 't':
+	  m_Pos += 4;
+	  return Boolean.TRUE;
+	case 'f':
+	  m_Pos += 5;
+	  return Boolean.FALSE;
+	case 'n':
+	  m_Pos += 4;
+	  return null;
+	default:
+	  start = m_Pos;
+	  while ((m_Pos < m_Text.length()) && ("+-.eE0123456789".indexOf(m_Text.charAt(m_Pos)) > -1))
+	    m_Pos++;
+	  return Double.parseDouble(m_Text.substring(start, m_Pos));
+      }
+    }
+
+    /**
+     * Parses the string at the current position.
+     *
+     * @return		the string
+     */
+    protected String string() {
+      StringBuilder	result;
+      char		c;
+
+      result = new StringBuilder();
+      m_Pos++;
+      while ((c = m_Text.charAt(m_Pos++)) != '"') {
+	if (c == '\\') {
+	  c = m_Text.charAt(m_Pos++);
+	  switch (c) {
+	    case 'n':
+	      result.append('\n');
+	      break;
+	    case 't':
+	      result.append('\t');
+	      break;
+	    case 'u':
+	      result.append((char) Integer.parseInt(m_Text.substring(m_Pos, m_Pos + 4), 16));
+	      m_Pos += 4;
+	      break;
+	    default:
+	      result.append(c);
+	      break;
+	  }
+	}
+	else {
+	  result.append(c);
+	}
+      }
+      return result.toString();
+    }
+  }
+
+  /** how to extract the fields. */
+  @Param({"tree", "projection"})
+  public String scheme;
+
+  /** the lines, back to back in a buffer. */
+  protected char[] m_Buffer;
+
+  /** the offsets of the lines. */
+  protected int[] m_Offsets;
+
+  /** the view on the lines. */
+  protected LineView m_View;
+
+  /** the projecting parser. */
+  protected JsonLineParser m_Parser;
+
+  /** the tree parser. */
+  protected TreeParser m_TreeParser;
+
+  /** the sum of the line numbers. */
+  protected long m_Sum;
+
+  /**
+   * Generates the lines.
+   */
+  @Setup
+  public void setUp() {
+    StringBuilder	all;
+    Random		rnd;
+    int			i;
+
+    rnd       = new Random(42);
+    all       = new StringBuilder();
+    m_Offsets = new int[NUM_LINES + 1];
+    for (i = 0; i < NUM_LINES; i++) {
+      m_Offsets[i] = all.length();
+      all.append("{\"type\":\"match\",\"data\":{\"path\":{\"text\":\"src/main/java/org/example/module")
+	.append(rnd.nextInt(100)).append("/Service").append(i).append(".java\"},")
+	.append("\"lines\":{\"text\":\"    private static final Logger LOGGER = LoggerFactory.getLogger(Service")
+	.append(i).append(".class);\\n\"},\"line_number\":").append(rnd.nextInt(5000))
+	.append(",\"absolute_offset\":").append(rnd.nextInt(1000000))
+	.append(",\"submatches\":[{\"match\":{\"text\":\"Logger\"},\"start\":19,\"end\":25},")
+	.append("{\"match\":{\"text\":\"Logger\"},\"start\":42,\"end\":48}]}}");
+    }
+    m_Offsets[NUM_LINES] = all.length();
+    m_Buffer     = all.toString().toCharArray();
+    m_View       = new LineView();
+    m_Parser     = new JsonLineParser("type", "data.path.text", "data.line_number");
+    m_TreeParser = new TreeParser();
+  }
+
+  /**
+   * Extracts the fields from the lines.
+   *
+   * @return		the sum of the line numbers so far
+   */
+  @Benchmark
+  @OperationsPerInvocation(NUM_LINES)
+  @SuppressWarnings("unchecked")
+  public long extract() {
+    JsonRecord		record;
+    Map<String,Object>	tree;
+    Map<String,Object>	data;
+    int			i;
+
+    for (i = 0; i < NUM_LINES; i++) {
+      m_View.set(m_Buffer, m_Offsets[i], m_Offsets[i + 1] - m_Offsets[i]);
+      if (scheme.equals("projection")) {
+	record = m_Parser.parse(m_View);
+	if (record.contentEquals(0, "match"))
+	  m_Sum += record.getLong(2, 0) + record.getString(1).length();
+      }
+      else {
+	tree = (Map<String,Object>) m_TreeParser.parse(m_View.toString());
+	if (tree.get("type").equals("match")) {
+	  data = (Map<String,Object>) tree.get("data");
+	  m_Sum += ((Double) data.get("line_number")).longValue() + ((String) ((Map<String,Object>) data.get("path")).get("text")).length();
+	}
+      }
+    }
+
+    return m_Sum;
+  }
+}
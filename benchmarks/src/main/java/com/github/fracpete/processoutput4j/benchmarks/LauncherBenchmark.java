@@ -0,0 +1,101 @@
+/*
+ * LauncherBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.launcher.Launcher;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency (p50/p99) of spawning a trivial process directly
+ * from this JVM against spawning it via a {@link Launcher}. The JVM's heap
+ * can be filled with ballast, to simulate a JVM with a large heap.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class LauncherBenchmark {
+
+  /** how to launch the process. */
+  @Param({"direct", "launcher"})
+  public String scheme;
+
+  /** the ballast to allocate in MB. */
+  @Param({"0", "1024"})
+  public int ballast;
+
+  /** the launcher. */
+  protected Launcher m_Launcher;
+
+  /** the ballast. */
+  protected byte[][] m_Ballast;
+
+  /**
+   * Allocates the ballast and starts the launcher.
+   *
+   * @throws Exception	if starting the launcher fails
+   */
+  @Setup
+  public void setUp() throws Exception {
+    int		i;
+
+    m_Ballast = new byte[ballast][];
+    for (i = 0; i < ballast; i++) {
+      m_Ballast[i] = new byte[1024 * 1024];
+      // touch the pages
+      m_Ballast[i][i % m_Ballast[i].length] = 1;
+    }
+    if (scheme.equals("launcher"))
+      m_Launcher = new Launcher();
+  }
+
+  /**
+   * Terminates the launcher and releases the ballast.
+   */
+  @TearDown
+  public void tearDown() {
+    if (m_Launcher != null)
+      m_Launcher.close();
+    m_Ballast = null;
+  }
+
+  /**
+   * Spawns the process and waits for it to finish.
+   *
+   * @return		the output
+   * @throws Exception	if the process fails
+   */
+  @Benchmark
+  public CollectingProcessOutput spawnToExit() throws Exception {
+    CollectingProcessOutput	result;
+
+    result = new CollectingProcessOutput();
+    result.setLauncher(m_Launcher);
+    result.monitor(SpawnBenchmark.trivial());
+    if (!result.hasSucceeded())
+      throw new IllegalStateException("Process failed with exit code " + result.getExitCode());
+
+    return result;
+  }
+}
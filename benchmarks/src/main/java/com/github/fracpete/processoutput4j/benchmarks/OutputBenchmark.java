@@ -0,0 +1,166 @@
+/*
+ * OutputBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+import com.github.fracpete.processoutput4j.core.impl.LineCountingCharSequenceOwner;
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+import com.github.fracpete.processoutput4j.output.CharSequenceProcessOutput;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import com.github.fracpete.processoutput4j.output.CompressedCollectingProcessOutput;
+import com.github.fracpete.processoutput4j.output.ConsoleOutputProcessOutput;
+import com.github.fracpete.processoutput4j.output.StreamingProcessOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the output schemes, using a child process
+ * that outputs a fixed amount of data as fast as possible.
+ * <br>
+ * The "streaming" scheme uses an owner that merely counts the lines and
+ * characters, just like the "charsequence" scheme. Comparing the two with
+ * "-prof gc" shows the allocation rate saved by the reusable line views.
+ * The "compressed" scheme shows the CPU cost of compressing the output
+ * compared to "collecting".
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OutputBenchmark {
+
+  /** the output scheme. */
+  @Param({"collecting", "compressed", "streaming", "console", "charsequence"})
+  public String scheme;
+
+  /** the number of lines. */
+  @Param({"200000"})
+  public int lines;
+
+  /** the length of the lines. */
+  @Param({"80", "1000"})
+  public int length;
+
+  /** the fraction of lines on stderr. */
+  @Param({"0.0", "0.5"})
+  public double stderr;
+
+  /** the generator. */
+  protected ChildGenerator m_Generator;
+
+  /** the original stdout. */
+  protected PrintStream m_StdOut;
+
+  /** the original stderr. */
+  protected PrintStream m_StdErr;
+
+  /**
+   * Simple owner that only counts the lines and characters.
+   */
+  public static class CountingOwner
+    implements StreamingProcessOwner {
+
+    /** the number of lines. */
+    public long lines;
+
+    /** the number of characters. */
+    public long chars;
+
+    @Override
+    public StreamingProcessOutputType getOutputType() {
+      return StreamingProcessOutputType.BOTH;
+    }
+
+    @Override
+    public void processOutput(String line, boolean stdout) {
+      lines++;
+      chars += line.length();
+    }
+  }
+
+  /**
+   * Sets up the generator and silences stdout/stderr for the console output.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    m_Generator = new ChildGenerator(lines, length, stderr, 0);
+    m_StdOut    = System.out;
+    m_StdErr    = System.err;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+  }
+
+  /**
+   * Restores stdout/stderr.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.setOut(m_StdOut);
+    System.setErr(m_StdErr);
+  }
+
+  /**
+   * Creates the output for the current scheme.
+   *
+   * @return		the output
+   */
+  protected AbstractProcessOutput newOutput() {
+    switch (scheme) {
+      case "collecting":
+	return new CollectingProcessOutput();
+      case "compressed":
+	return new CompressedCollectingProcessOutput();
+      case "streaming":
+	return new StreamingProcessOutput(new CountingOwner());
+      case "console":
+	return new ConsoleOutputProcessOutput();
+      case "charsequence":
+	return new CharSequenceProcessOutput(new LineCountingCharSequenceOwner());
+      default:
+	throw new IllegalStateException("Unknown scheme: " + scheme);
+    }
+  }
+
+  /**
+   * Runs the generator and captures its output.
+   *
+   * @param counters	for recording MB and lines
+   * @return		the output
+   * @throws Exception	if the process fails
+   */
+  @Benchmark
+  public AbstractProcessOutput capture(Counters counters) throws Exception {
+    AbstractProcessOutput	result;
+
+    result = newOutput();
+    result.monitor(m_Generator.builder());
+    if (!result.hasSucceeded())
+      throw new IllegalStateException("Generator failed with exit code " + result.getExitCode());
+    counters.add(m_Generator);
+
+    return result;
+  }
+}
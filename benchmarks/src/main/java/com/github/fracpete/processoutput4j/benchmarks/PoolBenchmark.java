@@ -0,0 +1,91 @@
+/*
+ * PoolBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import com.github.fracpete.processoutput4j.pool.DelimiterFraming;
+import com.github.fracpete.processoutput4j.pool.WorkerPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a single request answered by a JVM child process
+ * ({@link EchoWorker}), either by a warm worker of a {@link WorkerPool}
+ * ("pool") or by launching a process per request ("spawn").
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PoolBenchmark {
+
+  /** the request. */
+  public final static String REQUEST = "hello world";
+
+  /** how to answer the request. */
+  @Param({"pool", "spawn"})
+  public String scheme;
+
+  /** the pool. */
+  protected WorkerPool m_Pool;
+
+  /**
+   * Starts the pool.
+   */
+  @Setup
+  public void setUp() {
+    if (scheme.equals("pool")) {
+      m_Pool = new WorkerPool(EchoWorker.builder(false), 1, new DelimiterFraming());
+      m_Pool.start();
+    }
+  }
+
+  /**
+   * Closes the pool.
+   */
+  @TearDown
+  public void tearDown() {
+    if (m_Pool != null)
+      m_Pool.close();
+  }
+
+  /**
+   * Sends the request and waits for the response.
+   *
+   * @return		the response
+   * @throws Exception	if the request fails
+   */
+  @Benchmark
+  public String request() throws Exception {
+    CollectingProcessOutput	output;
+
+    if (m_Pool != null)
+      return m_Pool.submit(REQUEST).get();
+
+    output = new CollectingProcessOutput();
+    output.monitor(REQUEST + "\n", EchoWorker.builder(true));
+    if (!output.hasSucceeded())
+      throw new IllegalStateException("Process failed with exit code " + output.getExitCode());
+
+    return output.getStdOut();
+  }
+}
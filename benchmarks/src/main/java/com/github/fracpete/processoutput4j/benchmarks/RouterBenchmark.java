@@ -0,0 +1,136 @@
+/*
+ * RouterBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.core.impl.RoutingStreamingProcessOwner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares classifying lines of build output by evaluating each regular
+ * expression one after the other ("naive") against the
+ * {@link RoutingStreamingProcessOwner} ("router"), for increasing numbers
+ * of patterns.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RouterBenchmark {
+
+  /** the number of lines per invocation. */
+  public final static int NUM_LINES = 1000;
+
+  /** how to match the patterns. */
+  @Param({"naive", "router"})
+  public String scheme;
+
+  /** the number of patterns. */
+  @Param({"10", "80"})
+  public int patterns;
+
+  /** the regular expressions. */
+  protected Pattern[] m_Patterns;
+
+  /** the router. */
+  protected RoutingStreamingProcessOwner m_Router;
+
+  /** the lines. */
+  protected String[] m_Lines;
+
+  /** the number of matches. */
+  protected long m_Matches;
+
+  /**
+   * Generates the patterns and lines.
+   */
+  @Setup
+  public void setUp() {
+    Random	rnd;
+    int		i;
+
+    m_Patterns = new Pattern[patterns];
+    m_Router   = new RoutingStreamingProcessOwner();
+    for (i = 0; i < patterns; i++) {
+      switch (i % 4) {
+	case 0:
+	  m_Patterns[i] = Pattern.compile("\\[ERROR\\] module" + i + ": (.*)");
+	  break;
+	case 1:
+	  m_Patterns[i] = Pattern.compile("warning W" + i + "\\d*: .*deprecated");
+	  break;
+	case 2:
+	  m_Patterns[i] = Pattern.compile("Tests run: \\d+, Failures: [1-9]\\d*.*in Test" + i);
+	  break;
+	default:
+	  m_Patterns[i] = Pattern.compile("FAILED test_case_" + i + "\\b");
+	  break;
+      }
+      m_Router.addRegex(m_Patterns[i], (line, stdout) -> m_Matches++);
+    }
+
+    rnd     = new Random(42);
+    m_Lines = new String[NUM_LINES];
+    for (i = 0; i < NUM_LINES; i++) {
+      switch (rnd.nextInt(20)) {
+	case 0:
+	  m_Lines[i] = "[ERROR] module" + (rnd.nextInt(patterns / 4 + 1) * 4) + ": compilation failed at line " + i;
+	  break;
+	case 1:
+	  m_Lines[i] = "warning W" + (rnd.nextInt(patterns / 4 + 1) * 4 + 1) + ": method foo() is deprecated";
+	  break;
+	default:
+	  m_Lines[i] = "[INFO] Compiling " + rnd.nextInt(1000) + " source files to /home/build/project/module" + i + "/target/classes";
+	  break;
+      }
+    }
+  }
+
+  /**
+   * Classifies the lines.
+   *
+   * @return		the number of matches so far
+   */
+  @Benchmark
+  @OperationsPerInvocation(NUM_LINES)
+  public long classify() {
+    int		i;
+    int		n;
+
+    if (scheme.equals("router")) {
+      for (i = 0; i < m_Lines.length; i++)
+	m_Router.processOutput(m_Lines[i], true);
+    }
+    else {
+      for (i = 0; i < m_Lines.length; i++) {
+	for (n = 0; n < m_Patterns.length; n++) {
+	  if (m_Patterns[n].matcher(m_Lines[i]).find())
+	    m_Matches++;
+	}
+      }
+    }
+
+    return m_Matches;
+  }
+}
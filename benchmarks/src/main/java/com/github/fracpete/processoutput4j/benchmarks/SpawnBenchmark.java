@@ -0,0 +1,157 @@
+/*
+ * SpawnBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency from spawning a trivial process until
+ * {@link CollectingProcessOutput#monitor(ProcessBuilder)} returns, without
+ * and with a timeout (to determine the overhead of the timeout handling).
+ * The readers either get a new thread per process ("threads", like before
+ * the executors were introduced), pooled threads ("pool") or virtual threads
+ * ("virtual", pooled threads if not supported by the runtime). The "threads"
+ * counter reports the peak number of live platform threads per iteration.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SpawnBenchmark {
+
+  /**
+   * The peak number of live platform threads.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ThreadCounters {
+
+    /** the peak thread count. */
+    public int threads;
+
+    /**
+     * Resets the counter and the peak of the JVM.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      threads = 0;
+      ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    /**
+     * Records the current peak of the JVM.
+     */
+    public void update() {
+      ThreadMXBean	bean;
+
+      bean    = ManagementFactory.getThreadMXBean();
+      threads = Math.max(threads, bean.getPeakThreadCount());
+    }
+  }
+
+  /** the timeout in seconds, none if &lt; 1. */
+  @Param({"-1", "60"})
+  public int timeout;
+
+  /** the threads to run the readers in. */
+  @Param({"threads", "pool", "virtual"})
+  public String executor;
+
+  /** the executor for the readers. */
+  protected ExecutorService m_Executor;
+
+  /**
+   * Creates the executor.
+   */
+  @Setup
+  public void setUp() {
+    switch (executor) {
+      case "threads":
+	// no idle time, i.e., every reader gets a thread of its own
+	m_Executor = new ThreadPoolExecutor(
+	  0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+	  ExecutorUtils.newThreadFactory(ExecutorUtils.THREAD_PREFIX + "spawn-"));
+	break;
+      case "pool":
+	m_Executor = ExecutorUtils.newExecutor(0);
+	break;
+      case "virtual":
+	m_Executor = ExecutorUtils.newVirtualThreadExecutor();
+	break;
+      default:
+	throw new IllegalStateException("Unknown executor: " + executor);
+    }
+  }
+
+  /**
+   * Shuts down the executor.
+   */
+  @TearDown
+  public void tearDown() {
+    m_Executor.shutdownNow();
+  }
+
+  /**
+   * Returns the builder for a process that exits immediately.
+   *
+   * @return		the builder
+   */
+  public static ProcessBuilder trivial() {
+    if (System.getProperty("os.name").toLowerCase().startsWith("windows"))
+      return new ProcessBuilder("cmd.exe", "/c", "exit", "0");
+    else
+      return new ProcessBuilder("true");
+  }
+
+  /**
+   * Spawns the process and waits for it to finish.
+   *
+   * @param counters	for recording the thread count
+   * @return		the output
+   * @throws Exception	if the process fails
+   */
+  @Benchmark
+  public CollectingProcessOutput spawnToExit(ThreadCounters counters) throws Exception {
+    CollectingProcessOutput	result;
+
+    result = new CollectingProcessOutput();
+    result.setExecutor(m_Executor);
+    if (timeout > 0)
+      result.setTimeOut(timeout);
+    result.monitor(trivial());
+    counters.update();
+    if (!result.hasSucceeded())
+      throw new IllegalStateException("Process failed with exit code " + result.getExitCode());
+
+    return result;
+  }
+}
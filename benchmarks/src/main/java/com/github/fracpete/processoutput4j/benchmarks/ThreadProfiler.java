@@ -0,0 +1,70 @@
+/*
+ * ThreadProfiler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reports the peak number of threads during each iteration and the number
+ * of threads that are still alive at the end of it.
+ * <br>
+ * Usage: -prof com.github.fracpete.processoutput4j.benchmarks.ThreadProfiler
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ThreadProfiler
+  implements InternalProfiler {
+
+  /**
+   * Returns a short description of the profiler.
+   *
+   * @return		the description
+   */
+  @Override
+  public String getDescription() {
+    return "Peak and live thread count";
+  }
+
+  /**
+   * Resets the peak thread count.
+   *
+   * @param benchmarkParams	the benchmark parameters
+   * @param iterationParams	the iteration parameters
+   */
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+  }
+
+  /**
+   * Reports the thread counts.
+   *
+   * @param benchmarkParams	the benchmark parameters
+   * @param iterationParams	the iteration parameters
+   * @param result		the iteration result
+   * @return			the thread counts
+   */
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+    ThreadMXBean	bean;
+
+    bean = ManagementFactory.getThreadMXBean();
+    return Arrays.asList(
+      new ScalarResult("threads.peak", bean.getPeakThreadCount(), "threads", AggregationPolicy.MAX),
+      new ScalarResult("threads.live", bean.getThreadCount(), "threads", AggregationPolicy.AVG));
+  }
+}
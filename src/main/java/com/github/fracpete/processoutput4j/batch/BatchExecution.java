@@ -0,0 +1,324 @@
+/*
+ * BatchExecution.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.batch;
+
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A running batch of processes, as started by {@link BatchRunner}. At most
+ * the specified number of processes are running at any time; a new process
+ * gets launched as soon as a running one finishes (no thread waits for the
+ * processes). The results can be retrieved as they become available via
+ * {@link #take()} or all at once via {@link #await()}.
+ *
+ * @param <T>	the type of output
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BatchExecution<T extends AbstractProcessOutput> {
+
+  /** the builders of the processes. */
+  protected final List<ProcessBuilder> m_Builders;
+
+  /** for creating the outputs. */
+  protected final Supplier<T> m_OutputFactory;
+
+  /** the maximum number of concurrent processes. */
+  protected final int m_MaxConcurrency;
+
+  /** the order of the results. */
+  protected final BatchOrder m_Order;
+
+  /** whether to stop at the first failure. */
+  protected final boolean m_FailFast;
+
+  /** the futures of the launched processes. */
+  protected final List<CompletableFuture<?>> m_Futures;
+
+  /** the completed results that haven't been made available yet (submission order). */
+  protected final List<BatchResult<T>> m_Completed;
+
+  /** the results that are available. */
+  protected final BlockingQueue<BatchResult<T>> m_Results;
+
+  /** the marker for the end of the results. */
+  protected final BatchResult<T> m_End;
+
+  /** the index of the next process to launch. */
+  protected int m_Next;
+
+  /** the index of the next result to make available (submission order). */
+  protected int m_NextResult;
+
+  /** the number of running processes. */
+  protected int m_Running;
+
+  /** whether processes are currently being launched. */
+  protected boolean m_Launching;
+
+  /** whether the execution got stopped. */
+  protected boolean m_Stopped;
+
+  /** whether all processes have finished. */
+  protected boolean m_Finished;
+
+  /** the first failure (fail-fast only). */
+  protected BatchResult<T> m_Failure;
+
+  /**
+   * Initializes the execution.
+   *
+   * @param builders		the builders of the processes
+   * @param outputFactory	for creating the outputs
+   * @param maxConcurrency	the maximum number of concurrent processes
+   * @param order		the order of the results
+   * @param failFast		whether to stop at the first failure
+   */
+  protected BatchExecution(List<ProcessBuilder> builders, Supplier<T> outputFactory, int maxConcurrency, BatchOrder order, boolean failFast) {
+    m_Builders       = new ArrayList<>(builders);
+    m_OutputFactory  = outputFactory;
+    m_MaxConcurrency = maxConcurrency;
+    m_Order          = order;
+    m_FailFast       = failFast;
+    m_Futures        = new ArrayList<>(Collections.nCopies(m_Builders.size(), null));
+    m_Completed      = new ArrayList<>(Collections.nCopies(m_Builders.size(), null));
+    m_Results        = new LinkedBlockingQueue<>();
+    m_End            = new BatchResult<>(-1, null, null, null);
+  }
+
+  /**
+   * Launches processes until the maximum concurrency has been reached.
+   * Re-entrant calls (e.g., when a process fails to launch) are merged into
+   * the loop of the outer call.
+   */
+  protected void launch() {
+    int		index;
+
+    synchronized (this) {
+      if (m_Launching)
+	return;
+      m_Launching = true;
+    }
+
+    while (true) {
+      synchronized (this) {
+	if (m_Stopped || (m_Running >= m_MaxConcurrency) || (m_Next >= m_Builders.size())) {
+	  m_Launching = false;
+	  checkFinished();
+	  return;
+	}
+	index = m_Next++;
+	m_Running++;
+      }
+      launch(index);
+    }
+  }
+
+  /**
+   * Launches the specified process.
+   *
+   * @param index	the index of the process
+   */
+  protected void launch(final int index) {
+    final T					output;
+    CompletableFuture<AbstractProcessOutput>	future;
+
+    try {
+      output = m_OutputFactory.get();
+    }
+    catch (Throwable t) {
+      completed(index, null, t);
+      return;
+    }
+    future = output.monitorAsync(m_Builders.get(index));
+    synchronized (this) {
+      m_Futures.set(index, future);
+      if (m_Stopped)
+	future.cancel(true);
+    }
+    future.whenComplete((r, t) -> completed(index, output, t));
+  }
+
+  /**
+   * Gets called when a process has finished.
+   *
+   * @param index	the index of the process
+   * @param output	the output, null if it couldn't be created
+   * @param t		the exception, null if none occurred
+   */
+  protected void completed(int index, T output, Throwable t) {
+    BatchResult<T>	result;
+    boolean		stop;
+
+    if ((t instanceof CompletionException) && (t.getCause() != null))
+      t = t.getCause();
+    result = new BatchResult<>(index, m_Builders.get(index), output, t);
+    stop   = false;
+
+    synchronized (this) {
+      m_Running--;
+      if (m_FailFast && !m_Stopped && !result.isSuccess()) {
+	m_Failure = result;
+	m_Stopped = true;
+	stop      = true;
+      }
+      if (m_Order == BatchOrder.SUBMISSION) {
+	m_Completed.set(index, result);
+	while ((m_NextResult < m_Completed.size()) && (m_Completed.get(m_NextResult) != null))
+	  m_Results.add(m_Completed.get(m_NextResult++));
+      }
+      else {
+	m_Results.add(result);
+      }
+    }
+
+    if (stop)
+      cancelRunning();
+    launch();
+  }
+
+  /**
+   * Makes the remaining results available and marks the end of the results,
+   * once no more processes are running or about to get launched.
+   * Must be called while holding the lock.
+   */
+  protected void checkFinished() {
+    if (m_Finished || (m_Running > 0))
+      return;
+    if (!m_Stopped && (m_Next < m_Builders.size()))
+      return;
+
+    // skip the processes that never got launched
+    if (m_Order == BatchOrder.SUBMISSION) {
+      for (; m_NextResult < m_Completed.size(); m_NextResult++) {
+	if (m_Completed.get(m_NextResult) != null)
+	  m_Results.add(m_Completed.get(m_NextResult));
+      }
+    }
+    m_Finished = true;
+    m_Results.add(m_End);
+    notifyAll();
+  }
+
+  /**
+   * Cancels all the running processes.
+   */
+  protected void cancelRunning() {
+    List<CompletableFuture<?>>	running;
+
+    running = new ArrayList<>();
+    synchronized (this) {
+      for (CompletableFuture<?> future: m_Futures) {
+	if ((future != null) && !future.isDone())
+	  running.add(future);
+      }
+    }
+    for (CompletableFuture<?> future: running)
+      future.cancel(true);
+  }
+
+  /**
+   * Stops the execution: no further processes get launched and the running
+   * ones get destroyed.
+   */
+  public void cancel() {
+    synchronized (this) {
+      m_Stopped = true;
+    }
+    cancelRunning();
+    launch();
+  }
+
+  /**
+   * Returns the next available result, waiting for one if necessary.
+   *
+   * @return		the result, null if there are no more results
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  public BatchResult<T> take() throws InterruptedException {
+    BatchResult<T>	result;
+
+    result = m_Results.take();
+    if (result == m_End) {
+      // for subsequent calls
+      m_Results.add(m_End);
+      return null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Waits for all the remaining results.
+   *
+   * @return		the results that haven't been taken yet, in the configured order
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  public List<BatchResult<T>> await() throws InterruptedException {
+    List<BatchResult<T>>	result;
+    BatchResult<T>		item;
+
+    result = new ArrayList<>();
+    while ((item = take()) != null)
+      result.add(item);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of processes in the batch.
+   *
+   * @return		the number of processes
+   */
+  public int size() {
+    return m_Builders.size();
+  }
+
+  /**
+   * Returns the number of processes that are currently running.
+   *
+   * @return		the number of processes
+   */
+  public synchronized int getNumRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Returns whether all processes have finished (or were skipped).
+   *
+   * @return		true if finished
+   */
+  public synchronized boolean isFinished() {
+    return m_Finished;
+  }
+
+  /**
+   * Returns whether the execution got stopped, either by cancelling or
+   * due to a failure (fail-fast).
+   *
+   * @return		true if stopped
+   */
+  public synchronized boolean isStopped() {
+    return m_Stopped;
+  }
+
+  /**
+   * Returns the failure that stopped the execution (fail-fast only).
+   *
+   * @return		the failure, null if none
+   */
+  public synchronized BatchResult<T> getFailure() {
+    return m_Failure;
+  }
+}
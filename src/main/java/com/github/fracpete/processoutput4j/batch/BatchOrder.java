@@ -0,0 +1,18 @@
+/*
+ * BatchOrder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.batch;
+
+/**
+ * The order in which the results of a batch are made available.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public enum BatchOrder {
+  /** as soon as a process finishes. */
+  COMPLETION,
+  /** in the order the processes were submitted. */
+  SUBMISSION
+}
@@ -0,0 +1,102 @@
+/*
+ * BatchResult.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.batch;
+
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+
+/**
+ * The result of a single process of a batch.
+ *
+ * @param <T>	the type of output
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BatchResult<T extends AbstractProcessOutput> {
+
+  /** the index of the process in the batch. */
+  protected final int m_Index;
+
+  /** the builder that was used. */
+  protected final ProcessBuilder m_Builder;
+
+  /** the output. */
+  protected final T m_Output;
+
+  /** the exception, null if none occurred. */
+  protected final Throwable m_Exception;
+
+  /**
+   * Initializes the result.
+   *
+   * @param index	the index of the process in the batch
+   * @param builder	the builder that was used
+   * @param output	the output
+   * @param exception	the exception, null if none occurred
+   */
+  public BatchResult(int index, ProcessBuilder builder, T output, Throwable exception) {
+    m_Index     = index;
+    m_Builder   = builder;
+    m_Output    = output;
+    m_Exception = exception;
+  }
+
+  /**
+   * Returns the index of the process in the batch.
+   *
+   * @return		the index
+   */
+  public int getIndex() {
+    return m_Index;
+  }
+
+  /**
+   * Returns the builder that was used for launching the process.
+   *
+   * @return		the builder
+   */
+  public ProcessBuilder getBuilder() {
+    return m_Builder;
+  }
+
+  /**
+   * Returns the output of the process.
+   *
+   * @return		the output
+   */
+  public T getOutput() {
+    return m_Output;
+  }
+
+  /**
+   * Returns the exception that occurred, e.g., when launching the process
+   * failed or the process got cancelled.
+   *
+   * @return		the exception, null if none occurred
+   */
+  public Throwable getException() {
+    return m_Exception;
+  }
+
+  /**
+   * Returns whether the process was successful, i.e., no exception occurred,
+   * it didn't time out and its exit code was 0.
+   *
+   * @return		true if successful
+   */
+  public boolean isSuccess() {
+    return (m_Exception == null) && m_Output.hasSucceeded();
+  }
+
+  /**
+   * Returns a short description of the result.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "#" + m_Index + " " + m_Builder.command() + ": "
+      + ((m_Exception != null) ? m_Exception.toString() : m_Output.toString());
+  }
+}
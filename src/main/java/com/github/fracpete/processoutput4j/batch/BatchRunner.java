@@ -0,0 +1,210 @@
+/*
+ * BatchRunner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.batch;
+
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+import com.github.fracpete.processoutput4j.output.CollectingProcessOutput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs a batch of processes with a bounded number of concurrent processes.
+ * For each process, a new output object is obtained from the factory
+ * (which can also configure timeout, executor, etc).
+ * <br>
+ * Example for running a tool over many files:
+ * <pre>
+ * BatchRunner&lt;CollectingProcessOutput&gt; runner = new BatchRunner&lt;&gt;(CollectingProcessOutput::new);
+ * BatchExecution&lt;CollectingProcessOutput&gt; exec = runner.submit(
+ *   BatchRunner.builders(Arrays.asList("gzip", "-t", "{}"), files));
+ * BatchResult&lt;CollectingProcessOutput&gt; result;
+ * while ((result = exec.take()) != null)
+ *   System.out.println(result);
+ * </pre>
+ *
+ * @param <T>	the type of output
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class BatchRunner<T extends AbstractProcessOutput> {
+
+  /** the placeholder in command templates. */
+  public final static String PLACEHOLDER = "{}";
+
+  /** for creating the outputs. */
+  protected Supplier<T> m_OutputFactory;
+
+  /** the maximum number of concurrent processes. */
+  protected int m_MaxConcurrency;
+
+  /** the order of the results. */
+  protected BatchOrder m_Order;
+
+  /** whether to stop at the first failure. */
+  protected boolean m_FailFast;
+
+  /**
+   * Initializes the runner, using as many concurrent processes as there
+   * are cores, completion order and collecting all results.
+   *
+   * @param outputFactory	for creating the outputs
+   */
+  public BatchRunner(Supplier<T> outputFactory) {
+    m_OutputFactory  = outputFactory;
+    m_MaxConcurrency = Runtime.getRuntime().availableProcessors();
+    m_Order          = BatchOrder.COMPLETION;
+    m_FailFast       = false;
+  }
+
+  /**
+   * Sets the maximum number of concurrent processes.
+   *
+   * @param value	the maximum, number of cores if less than 1
+   */
+  public void setMaxConcurrency(int value) {
+    if (value < 1)
+      value = Runtime.getRuntime().availableProcessors();
+    m_MaxConcurrency = value;
+  }
+
+  /**
+   * Returns the maximum number of concurrent processes.
+   *
+   * @return		the maximum
+   */
+  public int getMaxConcurrency() {
+    return m_MaxConcurrency;
+  }
+
+  /**
+   * Sets the order in which the results are made available.
+   *
+   * @param value	the order
+   */
+  public void setOrder(BatchOrder value) {
+    m_Order = value;
+  }
+
+  /**
+   * Returns the order in which the results are made available.
+   *
+   * @return		the order
+   */
+  public BatchOrder getOrder() {
+    return m_Order;
+  }
+
+  /**
+   * Sets whether to stop at the first failure (launch failure, timeout or
+   * exit code other than 0), destroying the running processes and not
+   * launching any further ones.
+   *
+   * @param value	true for fail-fast, false to collect all results
+   */
+  public void setFailFast(boolean value) {
+    m_FailFast = value;
+  }
+
+  /**
+   * Returns whether to stop at the first failure.
+   *
+   * @return		true for fail-fast, false to collect all results
+   */
+  public boolean getFailFast() {
+    return m_FailFast;
+  }
+
+  /**
+   * Starts the processes.
+   *
+   * @param builders	the builders of the processes
+   * @return		the running batch
+   */
+  public BatchExecution<T> submit(Collection<ProcessBuilder> builders) {
+    BatchExecution<T>	result;
+
+    result = new BatchExecution<>(new ArrayList<>(builders), m_OutputFactory, m_MaxConcurrency, m_Order, m_FailFast);
+    result.launch();
+
+    return result;
+  }
+
+  /**
+   * Runs the processes and waits for all of them to finish.
+   *
+   * @param builders	the builders of the processes
+   * @return		the results, in the configured order
+   * @throws InterruptedException	if interrupted while waiting, the
+   * 					processes get destroyed
+   */
+  public List<BatchResult<T>> run(Collection<ProcessBuilder> builders) throws InterruptedException {
+    BatchExecution<T>	exec;
+
+    exec = submit(builders);
+    try {
+      return exec.await();
+    }
+    catch (InterruptedException e) {
+      exec.cancel();
+      throw e;
+    }
+  }
+
+  /**
+   * Generates process builders from the command template, replacing
+   * {@link #PLACEHOLDER} in each element of the template with the argument.
+   *
+   * @param template	the command template
+   * @param args	the arguments, one process per argument
+   * @return		the builders
+   */
+  public static List<ProcessBuilder> builders(List<String> template, Collection<String> args) {
+    List<ProcessBuilder>	result;
+    List<String>		cmd;
+
+    result = new ArrayList<>();
+    for (String arg: args) {
+      cmd = new ArrayList<>();
+      for (String part: template)
+	cmd.add(part.replace(PLACEHOLDER, arg));
+      result.add(new ProcessBuilder(cmd));
+    }
+
+    return result;
+  }
+
+  /**
+   * Runs the command template for each of the arguments. The first argument
+   * is the maximum number of concurrent processes, followed by the template,
+   * "--" and the arguments, e.g.: 4 echo {} -- a b c
+   *
+   * @param args	the concurrency, the template and the arguments
+   * @throws Exception	if execution fails
+   */
+  public static void main(String[] args) throws Exception {
+    BatchRunner<CollectingProcessOutput>	runner;
+    List<String>				list;
+    int						sep;
+
+    list = Arrays.asList(args);
+    sep  = list.indexOf("--");
+    if ((args.length < 2) || (sep < 2)) {
+      System.err.println("Usage: <concurrency> <template incl " + PLACEHOLDER + "> -- <arg1> [<arg2> ...]");
+      System.exit(1);
+    }
+
+    runner = new BatchRunner<>(CollectingProcessOutput::new);
+    runner.setMaxConcurrency(Integer.parseInt(args[0]));
+    for (BatchResult<CollectingProcessOutput> result: runner.run(builders(list.subList(1, sep), list.subList(sep + 1, list.size())))) {
+      System.out.println(result);
+      if (result.getOutput() != null)
+	System.out.print(result.getOutput().getStdOut());
+    }
+  }
+}
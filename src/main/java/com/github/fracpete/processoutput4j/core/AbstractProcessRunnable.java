@@ -35,7 +35,7 @@ public abstract class AbstractProcessRunnable
   protected boolean m_Running;
 
   /** whether the reader got stopped. */
-  protected boolean m_Stopped;
+  protected volatile boolean m_Stopped;
 
   /**
    * Initializes the runnable.
@@ -0,0 +1,34 @@
+/*
+ * ByteChunkOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import com.github.fracpete.processoutput4j.output.ByteChunkProcessOutput;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for classes that make use of {@link ByteChunkProcessOutput}.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface ByteChunkOwner {
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type
+   */
+  public StreamingProcessOutputType getOutputType();
+
+  /**
+   * Processes the incoming chunk of raw bytes. The buffer gets reused,
+   * i.e., it is only valid for the duration of the call.
+   *
+   * @param chunk	the chunk to process (from position to limit)
+   * @param stdout	whether stdout or stderr
+   */
+  public void processChunk(ByteBuffer chunk, boolean stdout);
+}
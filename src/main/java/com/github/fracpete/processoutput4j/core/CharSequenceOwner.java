@@ -0,0 +1,33 @@
+/*
+ * CharSequenceOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import com.github.fracpete.processoutput4j.output.CharSequenceProcessOutput;
+
+/**
+ * Interface for classes that make use of {@link CharSequenceProcessOutput}.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface CharSequenceOwner {
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type
+   */
+  public StreamingProcessOutputType getOutputType();
+
+  /**
+   * Processes the incoming line. The view gets reused, i.e., it is only valid
+   * for the duration of the call. Use {@link LineView#toString()} to obtain
+   * a copy of the line.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  public void processLine(LineView line, boolean stdout);
+}
@@ -0,0 +1,477 @@
+/*
+ * CompressedContent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores text UTF-8 encoded in Deflater-compressed blocks. Lines get encoded
+ * into a pending block, which gets compressed once full. Blocks are
+ * compressed independently, i.e., the content can be decompressed block by
+ * block when reading it. {@link #finish()} compresses the partially filled
+ * block and releases the compressor, only leaving the compressed blocks.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CompressedContent
+  implements Serializable {
+
+  private static final long serialVersionUID = 2384790113485271606L;
+
+  /**
+   * Stream that decompresses the blocks one at a time.
+   */
+  protected static class BlockInputStream
+    extends InputStream {
+
+    /** the compressed blocks. */
+    protected byte[][] m_Blocks;
+
+    /** the uncompressed sizes of the blocks. */
+    protected int[] m_Lengths;
+
+    /** the uncompressed pending block. */
+    protected byte[] m_Pending;
+
+    /** the size of the blocks. */
+    protected int m_BlockSize;
+
+    /** the index of the current block. */
+    protected int m_Index;
+
+    /** the current block, decompressed. */
+    protected byte[] m_Buffer;
+
+    /** the position in the current block. */
+    protected int m_Pos;
+
+    /** the length of the current block. */
+    protected int m_Len;
+
+    /**
+     * Initializes the stream.
+     *
+     * @param blocks	the compressed blocks
+     * @param lengths	the uncompressed sizes of the blocks
+     * @param pending	the uncompressed pending block
+     * @param blockSize	the size of the blocks
+     */
+    public BlockInputStream(byte[][] blocks, int[] lengths, byte[] pending, int blockSize) {
+      m_Blocks    = blocks;
+      m_Lengths   = lengths;
+      m_Pending   = pending;
+      m_BlockSize = blockSize;
+      m_Index     = -1;
+      m_Buffer    = new byte[0];
+    }
+
+    /**
+     * Moves on to the next block if the current one has been read.
+     *
+     * @return		true if data available, false if EOF
+     * @throws IOException	if a block is corrupt
+     */
+    protected boolean next() throws IOException {
+      while (m_Pos == m_Len) {
+	m_Index++;
+	if (m_Index > m_Blocks.length)
+	  return false;
+	if (m_Index == m_Blocks.length) {
+	  m_Buffer = m_Pending;
+	  m_Len    = m_Pending.length;
+	}
+	else {
+	  if (m_Buffer.length < m_BlockSize)
+	    m_Buffer = new byte[m_BlockSize];
+	  m_Len = inflate(m_Blocks[m_Index], m_Buffer, 0, m_Lengths[m_Index]);
+	}
+	m_Pos = 0;
+      }
+      return true;
+    }
+
+    /**
+     * Reads a single byte.
+     *
+     * @return		the byte, -1 if EOF
+     * @throws IOException	if a block is corrupt
+     */
+    @Override
+    public int read() throws IOException {
+      if (!next())
+	return -1;
+      return m_Buffer[m_Pos++] & 0xFF;
+    }
+
+    /**
+     * Reads up to the specified number of bytes from the current block.
+     *
+     * @param b		the buffer to read into
+     * @param off	the offset in the buffer
+     * @param len	the maximum number of bytes to read
+     * @return		the number of bytes read, -1 if EOF
+     * @throws IOException	if a block is corrupt
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int	n;
+
+      if (len == 0)
+	return 0;
+      if (!next())
+	return -1;
+      n = Math.min(len, m_Len - m_Pos);
+      System.arraycopy(m_Buffer, m_Pos, b, off, n);
+      m_Pos += n;
+      return n;
+    }
+  }
+
+  /** the default size of the blocks (uncompressed) in bytes. */
+  public final static int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  /** the default compression level (favoring speed, as logs compress well regardless). */
+  public final static int DEFAULT_LEVEL = Deflater.BEST_SPEED;
+
+  /** the size of the blocks (uncompressed). */
+  protected int m_BlockSize;
+
+  /** the compression level. */
+  protected int m_Level;
+
+  /** the compressed blocks. */
+  protected List<byte[]> m_Blocks;
+
+  /** the uncompressed sizes of the blocks. */
+  protected int[] m_BlockLengths;
+
+  /** the block that is being filled (null if none). */
+  protected byte[] m_Pending;
+
+  /** the number of bytes in the pending block. */
+  protected int m_PendingLength;
+
+  /** the total number of characters. */
+  protected long m_Length;
+
+  /** the total number of uncompressed bytes. */
+  protected long m_UncompressedSize;
+
+  /** the total number of compressed bytes. */
+  protected long m_CompressedSize;
+
+  /** the time spent compressing in nanoseconds. */
+  protected long m_CompressionTime;
+
+  /** the compressor (null if released). */
+  protected transient Deflater m_Deflater;
+
+  /** the buffer for the compressed data (null if released). */
+  protected transient byte[] m_Output;
+
+  /**
+   * Initializes the content with the default block size and compression
+   * level.
+   *
+   * @see		#DEFAULT_BLOCK_SIZE
+   * @see		#DEFAULT_LEVEL
+   */
+  public CompressedContent() {
+    this(DEFAULT_BLOCK_SIZE, DEFAULT_LEVEL);
+  }
+
+  /**
+   * Initializes the content.
+   *
+   * @param blockSize	the size of the blocks (uncompressed) in bytes, at least 16
+   * @param level	the compression level (0-9, -1 for default)
+   */
+  public CompressedContent(int blockSize, int level) {
+    if (blockSize < 16)
+      throw new IllegalArgumentException("Block size must be at least 16, provided: " + blockSize);
+    if ((level < -1) || (level > 9))
+      throw new IllegalArgumentException("Compression level must be within -1 and 9, provided: " + level);
+    m_BlockSize    = blockSize;
+    m_Level        = level;
+    m_Blocks       = new ArrayList<>();
+    m_BlockLengths = new int[0];
+  }
+
+  /**
+   * Returns the size of the blocks.
+   *
+   * @return		the size in bytes (uncompressed)
+   */
+  public int getBlockSize() {
+    return m_BlockSize;
+  }
+
+  /**
+   * Returns the compression level.
+   *
+   * @return		the level
+   */
+  public int getLevel() {
+    return m_Level;
+  }
+
+  /**
+   * Appends the line, followed by a line feed.
+   *
+   * @param line	the line to append
+   */
+  public synchronized void appendLine(CharSequence line) {
+    int		len;
+    int		i;
+    int		code;
+    char	c;
+
+    if (m_Pending == null)
+      m_Pending = new byte[m_BlockSize];
+
+    len = line.length();
+    for (i = 0; i <= len; i++) {
+      // ensure that characters do not get split across blocks
+      if (m_BlockSize - m_PendingLength < 4)
+	compress();
+      c = (i < len) ? line.charAt(i) : '\n';
+      if (c < 0x80) {
+	m_Pending[m_PendingLength++] = (byte) c;
+      }
+      else if (c < 0x800) {
+	m_Pending[m_PendingLength++] = (byte) (0xC0 | (c >> 6));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | (c & 0x3F));
+      }
+      else if (Character.isHighSurrogate(c) && (i + 1 < len) && Character.isLowSurrogate(line.charAt(i + 1))) {
+	code = Character.toCodePoint(c, line.charAt(++i));
+	m_Pending[m_PendingLength++] = (byte) (0xF0 | (code >> 18));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | (code & 0x3F));
+      }
+      else if (Character.isSurrogate(c)) {
+	m_Pending[m_PendingLength++] = (byte) '?';
+      }
+      else {
+	m_Pending[m_PendingLength++] = (byte) (0xE0 | (c >> 12));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+	m_Pending[m_PendingLength++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    m_Length += len + 1;
+  }
+
+  /**
+   * Compresses the pending block.
+   */
+  protected void compress() {
+    long	start;
+    int		len;
+
+    if (m_PendingLength == 0)
+      return;
+
+    start = System.nanoTime();
+    if (m_Deflater == null) {
+      m_Deflater = new Deflater(m_Level);
+      m_Output   = new byte[m_BlockSize + m_BlockSize / 8 + 64];
+    }
+    else {
+      m_Deflater.reset();
+    }
+    m_Deflater.setInput(m_Pending, 0, m_PendingLength);
+    m_Deflater.finish();
+    len = 0;
+    while (!m_Deflater.finished()) {
+      if (len == m_Output.length)
+	m_Output = Arrays.copyOf(m_Output, m_Output.length * 2);
+      len += m_Deflater.deflate(m_Output, len, m_Output.length - len);
+    }
+    m_Blocks.add(Arrays.copyOf(m_Output, len));
+    if (m_BlockLengths.length < m_Blocks.size())
+      m_BlockLengths = Arrays.copyOf(m_BlockLengths, Math.max(8, m_BlockLengths.length * 2));
+    m_BlockLengths[m_Blocks.size() - 1] = m_PendingLength;
+    m_UncompressedSize += m_PendingLength;
+    m_CompressedSize   += len;
+    m_PendingLength     = 0;
+    m_CompressionTime  += System.nanoTime() - start;
+  }
+
+  /**
+   * Compresses the partially filled block and releases the compressor and
+   * the buffers. Further lines can still be appended.
+   */
+  public synchronized void finish() {
+    compress();
+    m_Pending = null;
+    m_Output  = null;
+    if (m_Deflater != null) {
+      m_Deflater.end();
+      m_Deflater = null;
+    }
+  }
+
+  /**
+   * Returns the total number of characters.
+   *
+   * @return		the number of characters
+   */
+  public synchronized long length() {
+    return m_Length;
+  }
+
+  /**
+   * Returns the number of compressed blocks.
+   *
+   * @return		the number of blocks
+   */
+  public synchronized int getNumBlocks() {
+    return m_Blocks.size();
+  }
+
+  /**
+   * Returns the number of UTF-8 bytes, including the pending block.
+   *
+   * @return		the number of bytes
+   */
+  public synchronized long getUncompressedSize() {
+    return m_UncompressedSize + m_PendingLength;
+  }
+
+  /**
+   * Returns the number of bytes of the compressed blocks.
+   *
+   * @return		the number of bytes
+   */
+  public synchronized long getCompressedSize() {
+    return m_CompressedSize;
+  }
+
+  /**
+   * Returns the ratio between the uncompressed and compressed size of the
+   * compressed blocks.
+   *
+   * @return		the ratio, NaN if nothing compressed yet
+   */
+  public synchronized double getCompressionRatio() {
+    if (m_CompressedSize == 0)
+      return Double.NaN;
+    return (double) m_UncompressedSize / m_CompressedSize;
+  }
+
+  /**
+   * Returns the time spent compressing blocks, i.e., the CPU cost on the
+   * thread that appended the lines.
+   *
+   * @return		the time in nanoseconds
+   */
+  public synchronized long getCompressionTime() {
+    return m_CompressionTime;
+  }
+
+  /**
+   * Returns a stream of the UTF-8 encoded content, decompressing one block
+   * at a time. The stream reflects the content at the time of the call.
+   *
+   * @return		the stream
+   */
+  public synchronized InputStream getInputStream() {
+    byte[][]	blocks;
+    int[]	lengths;
+    byte[]	pending;
+
+    blocks  = m_Blocks.toArray(new byte[0][]);
+    lengths = Arrays.copyOf(m_BlockLengths, blocks.length);
+    pending = (m_Pending == null) ? new byte[0] : Arrays.copyOf(m_Pending, m_PendingLength);
+
+    return new BlockInputStream(blocks, lengths, pending, m_BlockSize);
+  }
+
+  /**
+   * Returns a reader for the content, decompressing one block at a time.
+   *
+   * @return		the reader
+   * @see		#getInputStream()
+   */
+  public Reader getReader() {
+    return new InputStreamReader(getInputStream(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decompresses a block.
+   *
+   * @param block	the compressed block
+   * @param buffer	the buffer to decompress into
+   * @param offset	the offset in the buffer
+   * @param length	the uncompressed length of the block
+   * @return		the number of bytes
+   * @throws IOException	if the block is corrupt
+   */
+  protected static int inflate(byte[] block, byte[] buffer, int offset, int length) throws IOException {
+    Inflater	inflater;
+    int		result;
+
+    inflater = new Inflater();
+    try {
+      inflater.setInput(block);
+      result = 0;
+      while ((result < length) && !inflater.finished()) {
+	result += inflater.inflate(buffer, offset + result, length - result);
+	if (inflater.needsInput() && !inflater.finished())
+	  break;
+      }
+      if (result != length)
+	throw new IOException("Corrupt block, expected " + length + " bytes but got " + result);
+      return result;
+    }
+    catch (DataFormatException e) {
+      throw new IOException("Corrupt block", e);
+    }
+    finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Decompresses the complete content.
+   *
+   * @return		the content
+   */
+  @Override
+  public synchronized String toString() {
+    byte[]	bytes;
+    int		offset;
+    int		i;
+
+    if (getUncompressedSize() > Integer.MAX_VALUE - 8)
+      throw new IllegalStateException("Content too large for a string: " + getUncompressedSize() + " bytes");
+
+    bytes  = new byte[(int) getUncompressedSize()];
+    offset = 0;
+    try {
+      for (i = 0; i < m_Blocks.size(); i++)
+	offset += inflate(m_Blocks.get(i), bytes, offset, m_BlockLengths[i]);
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Failed to decompress content", e);
+    }
+    if (m_PendingLength > 0)
+      System.arraycopy(m_Pending, 0, bytes, offset, m_PendingLength);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
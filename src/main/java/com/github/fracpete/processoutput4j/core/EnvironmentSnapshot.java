@@ -0,0 +1,323 @@
+/*
+ * EnvironmentSnapshot.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of environment variables, which can be applied to
+ * any number of process builders. The key=value array and the map
+ * representation are only computed when requested and only once.
+ * <br>
+ * {@link #of(Map)} and {@link #of(String[])} return the previously created
+ * snapshot if the environment hasn't changed, i.e., launching processes
+ * with the same environment over and over again does not create any new
+ * snapshots.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class EnvironmentSnapshot
+  implements Serializable {
+
+  private static final long serialVersionUID = -3790925184870497734L;
+
+  /** the snapshot of the JVM's environment. */
+  protected static EnvironmentSnapshot m_Current;
+
+  /** the most recently created snapshot. */
+  protected static volatile EnvironmentSnapshot m_Last;
+
+  /** the variables (computed lazily if created from an array). */
+  protected volatile Map<String,String> m_Map;
+
+  /** the key=value strings (computed lazily if created from a map). */
+  protected volatile String[] m_Array;
+
+  /**
+   * Initializes the snapshot. Either the map or the array must be provided,
+   * they are not copied.
+   *
+   * @param map		the unmodifiable variables, can be null
+   * @param array	the key=value strings, can be null
+   */
+  protected EnvironmentSnapshot(Map<String,String> map, String[] array) {
+    m_Map   = map;
+    m_Array = array;
+  }
+
+  /**
+   * Returns the variables.
+   *
+   * @return		the unmodifiable map
+   */
+  public Map<String,String> toMap() {
+    Map<String,String>	result;
+
+    result = m_Map;
+    if (result == null) {
+      result = Collections.unmodifiableMap(EnvironmentUtils.envArrayToMap(m_Array));
+      m_Map  = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the shared key=value strings, must not be modified.
+   *
+   * @return		the strings
+   */
+  protected String[] array() {
+    String[]	result;
+    int		i;
+
+    result = m_Array;
+    if (result == null) {
+      result = new String[m_Map.size()];
+      i      = 0;
+      for (Map.Entry<String,String> entry: m_Map.entrySet())
+	result[i++] = entry.getKey() + "=" + entry.getValue();
+      m_Array = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the variables as key=value strings.
+   *
+   * @return		a copy of the strings
+   */
+  public String[] toArray() {
+    return array().clone();
+  }
+
+  /**
+   * Returns the number of variables.
+   *
+   * @return		the number
+   */
+  public int size() {
+    return toMap().size();
+  }
+
+  /**
+   * Returns the value of the variable.
+   *
+   * @param key		the name of the variable
+   * @return		the value, null if not present
+   */
+  public String get(String key) {
+    return toMap().get(key);
+  }
+
+  /**
+   * Replaces the environment of the builder with this snapshot. Does not
+   * modify the builder if it already uses the same environment.
+   *
+   * @param builder	the builder to update
+   * @return		the builder
+   */
+  public ProcessBuilder apply(ProcessBuilder builder) {
+    Map<String,String>	env;
+
+    env = builder.environment();
+    if (!env.equals(toMap())) {
+      env.clear();
+      env.putAll(toMap());
+    }
+
+    return builder;
+  }
+
+  /**
+   * Returns a snapshot with the variable set to the specified value.
+   *
+   * @param key		the name of the variable
+   * @param value	the value of the variable
+   * @return		the new snapshot, or this one if unchanged
+   */
+  public EnvironmentSnapshot with(String key, String value) {
+    return overlay(Collections.singletonMap(key, value));
+  }
+
+  /**
+   * Returns a snapshot without the specified variables.
+   *
+   * @param keys	the names of the variables to remove
+   * @return		the new snapshot, or this one if unchanged
+   */
+  public EnvironmentSnapshot without(String... keys) {
+    Map<String,String>	overrides;
+
+    overrides = new HashMap<>();
+    for (String key: keys)
+      overrides.put(key, null);
+
+    return overlay(overrides);
+  }
+
+  /**
+   * Returns a snapshot with the overrides applied. A null value removes the
+   * variable.
+   *
+   * @param overrides	the variables to set/remove
+   * @return		the new snapshot, or this one if unchanged
+   * @see		#diff(EnvironmentSnapshot)
+   */
+  public EnvironmentSnapshot overlay(Map<String,String> overrides) {
+    Map<String,String>	current;
+    Map<String,String>	map;
+    boolean		changed;
+
+    current = toMap();
+    changed = false;
+    for (Map.Entry<String,String> entry: overrides.entrySet()) {
+      if (entry.getValue() == null)
+	changed = current.containsKey(entry.getKey());
+      else
+	changed = !entry.getValue().equals(current.get(entry.getKey()));
+      if (changed)
+	break;
+    }
+    if (!changed)
+      return this;
+
+    map = new HashMap<>(current);
+    for (Map.Entry<String,String> entry: overrides.entrySet()) {
+      if (entry.getValue() == null)
+	map.remove(entry.getKey());
+      else
+	map.put(entry.getKey(), entry.getValue());
+    }
+
+    return new EnvironmentSnapshot(Collections.unmodifiableMap(map), null);
+  }
+
+  /**
+   * Determines the overrides that turn this snapshot into the other one.
+   *
+   * @param other	the snapshot to compare against
+   * @return		the variables that were added/changed, removed ones
+   * 			have a null value
+   * @see		#overlay(Map)
+   */
+  public Map<String,String> diff(EnvironmentSnapshot other) {
+    Map<String,String>	result;
+    Map<String,String>	current;
+    Map<String,String>	target;
+
+    result = new HashMap<>();
+    if (other == this)
+      return result;
+
+    current = toMap();
+    target  = other.toMap();
+    for (Map.Entry<String,String> entry: target.entrySet()) {
+      if (!entry.getValue().equals(current.get(entry.getKey())))
+	result.put(entry.getKey(), entry.getValue());
+    }
+    for (String key: current.keySet()) {
+      if (!target.containsKey(key))
+	result.put(key, null);
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether the object is a snapshot with the same variables.
+   *
+   * @param obj		the object to compare with
+   * @return		true if the same variables
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this)
+      return true;
+    if (!(obj instanceof EnvironmentSnapshot))
+      return false;
+    return toMap().equals(((EnvironmentSnapshot) obj).toMap());
+  }
+
+  /**
+   * Returns the hashcode of the variables.
+   *
+   * @return		the hashcode
+   */
+  @Override
+  public int hashCode() {
+    return toMap().hashCode();
+  }
+
+  /**
+   * Returns the variables as key=value strings.
+   *
+   * @return		the variables
+   */
+  @Override
+  public String toString() {
+    return Arrays.toString(array());
+  }
+
+  /**
+   * Returns the snapshot of the variables, reusing the most recently
+   * created snapshot if it has the same variables.
+   *
+   * @param env		the variables
+   * @return		the snapshot
+   */
+  public static EnvironmentSnapshot of(Map<String,String> env) {
+    EnvironmentSnapshot	result;
+
+    result = m_Last;
+    if ((result != null) && result.toMap().equals(env))
+      return result;
+
+    result = new EnvironmentSnapshot(Collections.unmodifiableMap(new HashMap<>(env)), null);
+    m_Last = result;
+
+    return result;
+  }
+
+  /**
+   * Returns the snapshot of the key=value strings, reusing the most recently
+   * created snapshot if it has the same variables.
+   *
+   * @param env		the variables, can be null
+   * @return		the snapshot, null if no variables provided
+   */
+  public static EnvironmentSnapshot of(String[] env) {
+    EnvironmentSnapshot	result;
+
+    if (env == null)
+      return null;
+
+    result = m_Last;
+    if ((result != null) && (Arrays.equals(result.m_Array, env) || result.toMap().equals(EnvironmentUtils.envArrayToMap(env))))
+      return result;
+
+    result = new EnvironmentSnapshot(null, env.clone());
+    m_Last = result;
+
+    return result;
+  }
+
+  /**
+   * Returns the snapshot of the environment of the JVM.
+   *
+   * @return		the snapshot
+   */
+  public static synchronized EnvironmentSnapshot current() {
+    if (m_Current == null)
+      m_Current = of(System.getenv());
+    return m_Current;
+  }
+}
@@ -5,9 +5,7 @@
 
 package com.github.fracpete.processoutput4j.core;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,18 +20,21 @@ public class EnvironmentUtils {
    *
    * @param env		the environment to convert
    * @return		the key=value strings
+   * @see		EnvironmentSnapshot
    */
   public static String[] envMapToArray(Map<String,String> env) {
-    List<String> 	result;
+    String[]	result;
+    int		i;
 
-    result = new ArrayList<>();
+    if (env == null)
+      return new String[0];
 
-    if (env != null) {
-      for (String key : env.keySet())
-	result.add(key + "=" + env.get(key));
-    }
+    result = new String[env.size()];
+    i      = 0;
+    for (Map.Entry<String,String> entry: env.entrySet())
+      result[i++] = entry.getKey() + "=" + entry.getValue();
 
-    return result.toArray(new String[0]);
+    return result;
   }
 
   /**
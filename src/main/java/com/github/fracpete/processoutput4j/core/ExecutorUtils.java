@@ -0,0 +1,140 @@
+/*
+ * ExecutorUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helper class for managing the executors that run the readers.
+ * <br>
+ * Note: every monitored process occupies two threads (stdout/stderr) for
+ * its whole lifetime. When using a bounded executor, the bound must therefore
+ * be at least twice the number of processes that are expected to run
+ * concurrently, otherwise readers get queued and processes with a full pipe
+ * will stall.
+ * <br>
+ * The default executor uses platform threads, also on Java 21+. Virtual
+ * threads are opt-in, either via {@link #newVirtualThreadExecutor()} or the
+ * system property {@link #PROPERTY_VIRTUAL_THREADS}, as reading from a pipe
+ * pins the carrier thread of a virtual thread.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ExecutorUtils {
+
+  /** the prefix for the thread names. */
+  public final static String THREAD_PREFIX = "processoutput4j-";
+
+  /** the time in seconds that idle threads are kept alive. */
+  public final static int KEEP_ALIVE = 60;
+
+  /** the system property for enabling virtual threads for the default executor (opt-in, default is false). */
+  public final static String PROPERTY_VIRTUAL_THREADS = "processoutput4j.virtualthreads";
+
+  /** the library-wide default executor. */
+  protected static ExecutorService m_DefaultExecutor;
+
+  /**
+   * Creates a thread factory that generates daemon threads.
+   *
+   * @param prefix	the prefix for the thread names
+   * @return		the factory
+   */
+  public static ThreadFactory newThreadFactory(final String prefix) {
+    return new ThreadFactory() {
+      protected AtomicInteger m_Count = new AtomicInteger();
+      @Override
+      public Thread newThread(Runnable r) {
+	Thread result = new Thread(r, prefix + m_Count.incrementAndGet());
+	result.setDaemon(true);
+	return result;
+      }
+    };
+  }
+
+  /**
+   * Creates a new executor with pooled daemon threads.
+   *
+   * @param maxThreads	the maximum number of threads, unbounded if less than 1
+   * @return		the executor
+   */
+  public static ExecutorService newExecutor(int maxThreads) {
+    ThreadPoolExecutor	result;
+
+    if (maxThreads < 1) {
+      result = new ThreadPoolExecutor(
+	0, Integer.MAX_VALUE, KEEP_ALIVE, TimeUnit.SECONDS,
+	new SynchronousQueue<>(), newThreadFactory(THREAD_PREFIX));
+    }
+    else {
+      result = new ThreadPoolExecutor(
+	maxThreads, maxThreads, KEEP_ALIVE, TimeUnit.SECONDS,
+	new LinkedBlockingQueue<>(), newThreadFactory(THREAD_PREFIX));
+      result.allowCoreThreadTimeOut(true);
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates a new executor that runs each task in a virtual thread, if the
+   * runtime supports them (Java 21+). Otherwise, falls back to an unbounded
+   * executor with pooled platform threads.
+   * <br>
+   * Note: reading from a process pipe is blocking file I/O, which pins the
+   * carrier thread of the virtual thread. The JVM compensates for this by
+   * temporarily adding carrier threads, but only up to
+   * {@code jdk.virtualThreadScheduler.maxPoolSize} (default 256). When
+   * monitoring a larger number of processes concurrently, that limit needs
+   * to be raised accordingly.
+   *
+   * @return		the executor
+   * @see		VirtualThreads#isSupported()
+   */
+  public static ExecutorService newVirtualThreadExecutor() {
+    if (VirtualThreads.isSupported())
+      return VirtualThreads.newExecutor(THREAD_PREFIX);
+    else
+      return newExecutor(-1);
+  }
+
+  /**
+   * Sets the library-wide default executor.
+   *
+   * @param value	the executor, null to revert to the built-in default
+   */
+  public static synchronized void setDefaultExecutor(ExecutorService value) {
+    m_DefaultExecutor = value;
+  }
+
+  /**
+   * Returns the library-wide default executor. Unless set explicitly,
+   * this is an unbounded executor with platform threads that reuses idle
+   * threads, regardless of the Java version. Only if the system property
+   * {@link #PROPERTY_VIRTUAL_THREADS} is set to true, an executor using
+   * virtual threads is used instead (when supported by the runtime).
+   *
+   * @return		the executor
+   * @see		#setDefaultExecutor(ExecutorService)
+   * @see		#newVirtualThreadExecutor()
+   */
+  public static synchronized ExecutorService getDefaultExecutor() {
+    if (m_DefaultExecutor == null) {
+      if (Boolean.getBoolean(PROPERTY_VIRTUAL_THREADS))
+	m_DefaultExecutor = newVirtualThreadExecutor();
+      else
+	m_DefaultExecutor = newExecutor(-1);
+    }
+
+    return m_DefaultExecutor;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Histogram.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Simple, thread-safe histogram for non-negative values, using buckets with
+ * exponentially growing (power of two) upper bounds. Bucket i holds the
+ * values in the range [2^(i-1), 2^i - 1], bucket 0 holds zero. Negative
+ * values are ignored.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Histogram
+  implements Serializable {
+
+  private static final long serialVersionUID = -1730911957604263855L;
+
+  /** the number of buckets. */
+  public final static int NUM_BUCKETS = 64;
+
+  /** the buckets. */
+  protected long[] m_Buckets;
+
+  /** the number of values. */
+  protected long m_Count;
+
+  /** the sum of the values. */
+  protected long m_Sum;
+
+  /** the minimum value. */
+  protected long m_Min;
+
+  /** the maximum value. */
+  protected long m_Max;
+
+  /**
+   * Initializes the histogram.
+   */
+  public Histogram() {
+    m_Buckets = new long[NUM_BUCKETS];
+    reset();
+  }
+
+  /**
+   * Removes all values.
+   */
+  public synchronized void reset() {
+    Arrays.fill(m_Buckets, 0);
+    m_Count = 0;
+    m_Sum   = 0;
+    m_Min   = Long.MAX_VALUE;
+    m_Max   = Long.MIN_VALUE;
+  }
+
+  /**
+   * Returns the bucket for the value.
+   *
+   * @param value	the value
+   * @return		the bucket index
+   */
+  public static int bucketFor(long value) {
+    return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+  }
+
+  /**
+   * Returns the (inclusive) upper bound of the bucket.
+   *
+   * @param index	the bucket index
+   * @return		the upper bound
+   */
+  public static long upperBound(int index) {
+    if (index >= NUM_BUCKETS - 1)
+      return Long.MAX_VALUE;
+    return (1L << index) - 1;
+  }
+
+  /**
+   * Adds the value.
+   *
+   * @param value	the value to add, ignored if negative
+   */
+  public synchronized void add(long value) {
+    if (value < 0)
+      return;
+    m_Buckets[bucketFor(value)]++;
+    m_Count++;
+    m_Sum += value;
+    if (value < m_Min)
+      m_Min = value;
+    if (value > m_Max)
+      m_Max = value;
+  }
+
+  /**
+   * Returns the number of values.
+   *
+   * @return		the number of values
+   */
+  public synchronized long getCount() {
+    return m_Count;
+  }
+
+  /**
+   * Returns the sum of the values.
+   *
+   * @return		the sum
+   */
+  public synchronized long getSum() {
+    return m_Sum;
+  }
+
+  /**
+   * Returns the smallest value.
+   *
+   * @return		the minimum, -1 if no values
+   */
+  public synchronized long getMin() {
+    return (m_Count == 0) ? -1 : m_Min;
+  }
+
+  /**
+   * Returns the largest value.
+   *
+   * @return		the maximum, -1 if no values
+   */
+  public synchronized long getMax() {
+    return (m_Count == 0) ? -1 : m_Max;
+  }
+
+  /**
+   * Returns the mean of the values.
+   *
+   * @return		the mean, NaN if no values
+   */
+  public synchronized double getMean() {
+    return (m_Count == 0) ? Double.NaN : (double) m_Sum / m_Count;
+  }
+
+  /**
+   * Returns an estimate of the percentile, i.e., the upper bound of the
+   * bucket that contains it (capped at the maximum value).
+   *
+   * @param p		the percentile (0-100)
+   * @return		the estimate, -1 if no values
+   */
+  public synchronized long getPercentile(double p) {
+    long	rank;
+    long	seen;
+    int		i;
+
+    if (m_Count == 0)
+      return -1;
+    rank = Math.max(1, (long) Math.ceil(p / 100.0 * m_Count));
+    seen = 0;
+    for (i = 0; i < NUM_BUCKETS; i++) {
+      seen += m_Buckets[i];
+      if (seen >= rank)
+	return Math.min(upperBound(i), m_Max);
+    }
+    return m_Max;
+  }
+
+  /**
+   * Returns a copy of the bucket counts.
+   *
+   * @return		the counts
+   * @see		#upperBound(int)
+   */
+  public synchronized long[] getBuckets() {
+    return m_Buckets.clone();
+  }
+
+  /**
+   * Returns a short description of the histogram.
+   *
+   * @return		the description
+   */
+  @Override
+  public synchronized String toString() {
+    return "count=" + m_Count + ", min=" + getMin() + ", mean=" + getMean()
+      + ", p50=" + getPercentile(50) + ", p99=" + getPercentile(99) + ", max=" + getMax();
+  }
+}
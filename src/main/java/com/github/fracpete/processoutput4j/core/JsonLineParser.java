@@ -0,0 +1,574 @@
+/*
+ * JsonLineParser.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.Arrays;
+
+/**
+ * Parser for lines of JSON (JSON lines/NDJSON) that only locates the values
+ * of the projected paths, rather than building a tree of the whole line.
+ * Paths consist of object keys and array indices separated by dots, e.g.,
+ * "data.submatches.0.match.text" (keys containing dots cannot be projected).
+ * Values not on a projected path get skipped by only matching brackets and
+ * quotes, i.e., they are not fully validated. Parsing a line does not
+ * allocate any objects, unless keys contain escape sequences.
+ * <br>
+ * Not thread-safe, each thread needs to use its own parser.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class JsonLineParser {
+
+  /**
+   * Node in the tree of projected paths.
+   */
+  protected static class Node {
+
+    /** the keys of the children. */
+    public String[] keys = new String[0];
+
+    /** the keys of the children as array indices (-1 if not numeric). */
+    public int[] indices = new int[0];
+
+    /** the children. */
+    public Node[] children = new Node[0];
+
+    /** the index of the path that ends here, -1 if none. */
+    public int field = -1;
+
+    /**
+     * Returns the child with the specified key, adding it if necessary.
+     *
+     * @param key	the key
+     * @return		the child
+     */
+    public Node child(String key) {
+      int	i;
+      int	n;
+
+      for (i = 0; i < keys.length; i++) {
+	if (keys[i].equals(key))
+	  return children[i];
+      }
+
+      n        = keys.length;
+      keys     = Arrays.copyOf(keys, n + 1);
+      indices  = Arrays.copyOf(indices, n + 1);
+      children = Arrays.copyOf(children, n + 1);
+      keys[n]     = key;
+      indices[n]  = key.matches("0|[1-9][0-9]{0,8}") ? Integer.parseInt(key) : -1;
+      children[n] = new Node();
+      return children[n];
+    }
+  }
+
+  /** the root of the projected paths. */
+  protected Node m_Root;
+
+  /** the record that gets reused. */
+  protected JsonRecord m_Record;
+
+  /** the line being parsed. */
+  protected CharSequence m_Line;
+
+  /** the length of the line. */
+  protected int m_End;
+
+  /** for decoding keys with escape sequences. */
+  protected StringBuilder m_Key;
+
+  /**
+   * Initializes the parser.
+   *
+   * @param paths	the dot-separated paths of the values to project
+   */
+  public JsonLineParser(String... paths) {
+    Node	node;
+    int		i;
+
+    m_Root = new Node();
+    for (i = 0; i < paths.length; i++) {
+      if (paths[i].isEmpty())
+	throw new IllegalArgumentException("Path #" + (i+1) + " is empty!");
+      node = m_Root;
+      for (String key: paths[i].split("\\.", -1)) {
+	if (key.isEmpty())
+	  throw new IllegalArgumentException("Path #" + (i+1) + " contains an empty key: " + paths[i]);
+	node = node.child(key);
+      }
+      if (node.field > -1)
+	throw new IllegalArgumentException("Path #" + (i+1) + " is a duplicate: " + paths[i]);
+      node.field = i;
+    }
+
+    m_Record = new JsonRecord(paths);
+    m_Key    = new StringBuilder();
+  }
+
+  /**
+   * Returns the projected paths.
+   *
+   * @return		the paths
+   */
+  public String[] getPaths() {
+    String[]	result;
+    int		i;
+
+    result = new String[m_Record.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = m_Record.getPath(i);
+
+    return result;
+  }
+
+  /**
+   * Parses the line. The returned record gets reused with the next line.
+   *
+   * @param line	the line to parse
+   * @return		the record, null if the line is blank or not valid JSON
+   */
+  public JsonRecord parse(CharSequence line) {
+    int		pos;
+
+    m_Line = line;
+    m_End  = line.length();
+    m_Record.reset(line);
+
+    pos = skipWhitespace(0);
+    if (pos == m_End)
+      return null;
+    pos = parseValue(pos, m_Root);
+    if ((pos == -1) || (skipWhitespace(pos) != m_End))
+      return null;
+
+    return m_Record;
+  }
+
+  /**
+   * Skips any whitespace.
+   *
+   * @param pos		the current position
+   * @return		the position of the next non-whitespace character
+   */
+  protected int skipWhitespace(int pos) {
+    char	c;
+
+    while (pos < m_End) {
+      c = m_Line.charAt(pos);
+      if ((c != ' ') && (c != '\t') && (c != '\r') && (c != '\n'))
+	break;
+      pos++;
+    }
+
+    return pos;
+  }
+
+  /**
+   * Parses the value at the position, recording it if the node ends a path.
+   *
+   * @param pos		the position of the value
+   * @param node	the node for the value, null if not on a projected path
+   * @return		the position after the value, -1 if invalid
+   */
+  protected int parseValue(int pos, Node node) {
+    JsonType	type;
+    int		end;
+    boolean	descend;
+
+    if (pos >= m_End)
+      return -1;
+
+    descend = (node != null) && (node.keys.length > 0);
+    switch (m_Line.charAt(pos)) {
+      case '{':
+	type = JsonType.OBJECT;
+	end  = descend ? parseObject(pos, node) : skipContainer(pos);
+	break;
+      case '[':
+	type = JsonType.ARRAY;
+	end  = descend ? parseArray(pos, node) : skipContainer(pos);
+	break;
+      case '"':
+	type = JsonType.STRING;
+	end  = skipString(pos);
+	break;
+      case 't':
+	type = JsonType.BOOLEAN;
+	end  = skipLiteral(pos, "true");
+	break;
+      case 'f':
+	type = JsonType.BOOLEAN;
+	end  = skipLiteral(pos, "false");
+	break;
+      case 'n':
+	type = JsonType.NULL;
+	end  = skipLiteral(pos, "null");
+	break;
+      default:
+	type = JsonType.NUMBER;
+	end  = skipNumber(pos);
+	break;
+    }
+
+    if ((end != -1) && (node != null) && (node.field > -1))
+      m_Record.set(node.field, type, pos, end);
+
+    return end;
+  }
+
+  /**
+   * Parses the object, descending into the values of projected keys.
+   *
+   * @param pos		the position of the opening brace
+   * @param node	the node of the object
+   * @return		the position after the object, -1 if invalid
+   */
+  protected int parseObject(int pos, Node node) {
+    Node	child;
+    int		start;
+    char	c;
+
+    pos = skipWhitespace(pos + 1);
+    if ((pos < m_End) && (m_Line.charAt(pos) == '}'))
+      return pos + 1;
+
+    while (true) {
+      if ((pos >= m_End) || (m_Line.charAt(pos) != '"'))
+	return -1;
+      start = pos + 1;
+      pos   = skipString(pos);
+      if (pos == -1)
+	return -1;
+      child = findChild(node, start, pos - 1);
+      pos   = skipWhitespace(pos);
+      if ((pos >= m_End) || (m_Line.charAt(pos) != ':'))
+	return -1;
+      pos = parseValue(skipWhitespace(pos + 1), child);
+      if (pos == -1)
+	return -1;
+      pos = skipWhitespace(pos);
+      if (pos >= m_End)
+	return -1;
+      c = m_Line.charAt(pos);
+      if (c == '}')
+	return pos + 1;
+      if (c != ',')
+	return -1;
+      pos = skipWhitespace(pos + 1);
+    }
+  }
+
+  /**
+   * Parses the array, descending into the elements of projected indices.
+   *
+   * @param pos		the position of the opening bracket
+   * @param node	the node of the array
+   * @return		the position after the array, -1 if invalid
+   */
+  protected int parseArray(int pos, Node node) {
+    Node	child;
+    int		index;
+    int		i;
+    char	c;
+
+    pos = skipWhitespace(pos + 1);
+    if ((pos < m_End) && (m_Line.charAt(pos) == ']'))
+      return pos + 1;
+
+    index = 0;
+    while (true) {
+      child = null;
+      for (i = 0; i < node.indices.length; i++) {
+	if (node.indices[i] == index) {
+	  child = node.children[i];
+	  break;
+	}
+      }
+      pos = parseValue(pos, child);
+      if (pos == -1)
+	return -1;
+      pos = skipWhitespace(pos);
+      if (pos >= m_End)
+	return -1;
+      c = m_Line.charAt(pos);
+      if (c == ']')
+	return pos + 1;
+      if (c != ',')
+	return -1;
+      pos = skipWhitespace(pos + 1);
+      index++;
+    }
+  }
+
+  /**
+   * Returns the child node for the key.
+   *
+   * @param node	the node of the object
+   * @param start	the start of the key (excl quote)
+   * @param end		the end of the key (excl quote)
+   * @return		the child, null if the key is not on a projected path
+   */
+  protected Node findChild(Node node, int start, int end) {
+    int		i;
+
+    for (i = start; i < end; i++) {
+      if (m_Line.charAt(i) == '\\') {
+	m_Key.setLength(0);
+	unescape(m_Line, start, end, m_Key);
+	for (i = 0; i < node.keys.length; i++) {
+	  if (contentEquals(m_Key, 0, m_Key.length(), node.keys[i]))
+	    return node.children[i];
+	}
+	return null;
+      }
+    }
+
+    for (i = 0; i < node.keys.length; i++) {
+      if (contentEquals(m_Line, start, end, node.keys[i]))
+	return node.children[i];
+    }
+
+    return null;
+  }
+
+  /**
+   * Skips the string.
+   *
+   * @param pos		the position of the opening quote
+   * @return		the position after the closing quote, -1 if unterminated
+   */
+  protected int skipString(int pos) {
+    char	c;
+
+    pos++;
+    while (pos < m_End) {
+      c = m_Line.charAt(pos);
+      if (c == '"')
+	return pos + 1;
+      pos += (c == '\\') ? 2 : 1;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Skips the object or array by matching brackets.
+   *
+   * @param pos		the position of the opening bracket
+   * @return		the position after the closing bracket, -1 if unbalanced
+   */
+  protected int skipContainer(int pos) {
+    int		depth;
+    char	c;
+
+    depth = 0;
+    while (pos < m_End) {
+      c = m_Line.charAt(pos);
+      if (c == '"') {
+	pos = skipString(pos);
+	if (pos == -1)
+	  return -1;
+	continue;
+      }
+      if ((c == '{') || (c == '[')) {
+	depth++;
+      }
+      else if ((c == '}') || (c == ']')) {
+	depth--;
+	if (depth == 0)
+	  return pos + 1;
+      }
+      pos++;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Skips the literal.
+   *
+   * @param pos		the position of the literal
+   * @param literal	the expected literal
+   * @return		the position after the literal, -1 if not matching
+   */
+  protected int skipLiteral(int pos, String literal) {
+    int		end;
+
+    end = pos + literal.length();
+    if ((end > m_End) || !contentEquals(m_Line, pos, end, literal))
+      return -1;
+    return end;
+  }
+
+  /**
+   * Skips the number, following the JSON grammar: an optional minus, the
+   * integer part (no leading zeros), an optional fraction and an optional
+   * exponent.
+   *
+   * @param pos		the position of the number
+   * @return		the position after the number, -1 if not a number
+   */
+  protected int skipNumber(int pos) {
+    char	c;
+
+    if ((pos < m_End) && (m_Line.charAt(pos) == '-'))
+      pos++;
+    if (pos >= m_End)
+      return -1;
+
+    // integer part
+    if (m_Line.charAt(pos) == '0')
+      pos++;
+    else if ((pos = skipDigits(pos)) == -1)
+      return -1;
+
+    // fraction
+    if ((pos < m_End) && (m_Line.charAt(pos) == '.')) {
+      pos = skipDigits(pos + 1);
+      if (pos == -1)
+	return -1;
+    }
+
+    // exponent
+    if (pos < m_End) {
+      c = m_Line.charAt(pos);
+      if ((c == 'e') || (c == 'E')) {
+	pos++;
+	if (pos < m_End) {
+	  c = m_Line.charAt(pos);
+	  if ((c == '+') || (c == '-'))
+	    pos++;
+	}
+	pos = skipDigits(pos);
+      }
+    }
+
+    return pos;
+  }
+
+  /**
+   * Skips a non-empty run of digits.
+   *
+   * @param pos		the position of the first digit
+   * @return		the position after the digits, -1 if no digit
+   */
+  protected int skipDigits(int pos) {
+    int		start;
+    char	c;
+
+    start = pos;
+    while (pos < m_End) {
+      c = m_Line.charAt(pos);
+      if ((c < '0') || (c > '9'))
+	break;
+      pos++;
+    }
+
+    return (pos == start) ? -1 : pos;
+  }
+
+  /**
+   * Compares the region of the sequence with the value.
+   *
+   * @param seq		the sequence
+   * @param start	the start of the region
+   * @param end		the end of the region (excl)
+   * @param value	the value to compare with
+   * @return		true if the same characters
+   */
+  public static boolean contentEquals(CharSequence seq, int start, int end, CharSequence value) {
+    int		i;
+
+    if (end - start != value.length())
+      return false;
+    for (i = start; i < end; i++) {
+      if (seq.charAt(i) != value.charAt(i - start))
+	return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Decodes the escape sequences in the content of a JSON string. Invalid
+   * escape sequences are kept as is.
+   *
+   * @param seq		the sequence containing the string
+   * @param start	the start of the content (excl quote)
+   * @param end		the end of the content (excl quote)
+   * @param out		for appending the decoded content
+   */
+  public static void unescape(CharSequence seq, int start, int end, StringBuilder out) {
+    int		i;
+    int		code;
+    char	c;
+
+    i = start;
+    while (i < end) {
+      c = seq.charAt(i);
+      if ((c != '\\') || (i + 1 >= end)) {
+	out.append(c);
+	i++;
+	continue;
+      }
+      c = seq.charAt(i + 1);
+      switch (c) {
+	case 'b':
+	  out.append('\b');
+	  break;
+	case 'f':
+	  out.append('\f');
+	  break;
+	case 'n':
+	  out.append('\n');
+	  break;
+	case 'r':
+	  out.append('\r');
+	  break;
+	case 't':
+	  out.append('\t');
+	  break;
+	case 'u':
+	  code = (i + 6 <= end) ? parseHex(seq, i + 2) : -1;
+	  if (code == -1) {
+	    out.append('\\').append(c);
+	  }
+	  else {
+	    out.append((char) code);
+	    i += 4;
+	  }
+	  break;
+	default:
+	  out.append(c);
+	  break;
+      }
+      i += 2;
+    }
+  }
+
+  /**
+   * Parses four hex digits.
+   *
+   * @param seq		the sequence
+   * @param start	the position of the first digit
+   * @return		the value, -1 if not four hex digits
+   */
+  protected static int parseHex(CharSequence seq, int start) {
+    int		result;
+    int		digit;
+    int		i;
+
+    result = 0;
+    for (i = start; i < start + 4; i++) {
+      digit = Character.digit(seq.charAt(i), 16);
+      if (digit == -1)
+	return -1;
+      result = result * 16 + digit;
+    }
+
+    return result;
+  }
+}
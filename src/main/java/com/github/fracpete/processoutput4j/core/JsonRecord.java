@@ -0,0 +1,378 @@
+/*
+ * JsonRecord.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The projected fields of a JSON line, as located by the
+ * {@link JsonLineParser}. The record only stores the positions of the values
+ * in the line, they only get materialized when requested via the getters.
+ * <br>
+ * The record gets reused for the next line, i.e., it is only valid for the
+ * duration of the callback that it was handed to. Use {@link #toMap()} to
+ * retain the values.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class JsonRecord {
+
+  /** the projected paths. */
+  protected String[] m_Paths;
+
+  /** the index of the paths. */
+  protected Map<String,Integer> m_Index;
+
+  /** the current line. */
+  protected CharSequence m_Line;
+
+  /** the types of the values (null if absent). */
+  protected JsonType[] m_Types;
+
+  /** the start positions of the values in the line. */
+  protected int[] m_Start;
+
+  /** the end positions (excl) of the values in the line. */
+  protected int[] m_End;
+
+  /** for decoding strings. */
+  protected StringBuilder m_Buffer;
+
+  /**
+   * Initializes the record.
+   *
+   * @param paths	the projected paths
+   */
+  public JsonRecord(String[] paths) {
+    int		i;
+
+    m_Paths = paths.clone();
+    m_Index = new HashMap<>();
+    for (i = 0; i < m_Paths.length; i++)
+      m_Index.put(m_Paths[i], i);
+    m_Types  = new JsonType[m_Paths.length];
+    m_Start  = new int[m_Paths.length];
+    m_End    = new int[m_Paths.length];
+    m_Buffer = new StringBuilder();
+  }
+
+  /**
+   * Resets the record for the next line.
+   *
+   * @param line	the line
+   */
+  protected void reset(CharSequence line) {
+    m_Line = line;
+    Arrays.fill(m_Types, null);
+  }
+
+  /**
+   * Records the location of a value.
+   *
+   * @param index	the index of the path
+   * @param type	the type of the value
+   * @param start	the start position in the line
+   * @param end		the end position (excl) in the line
+   */
+  protected void set(int index, JsonType type, int start, int end) {
+    m_Types[index] = type;
+    m_Start[index] = start;
+    m_End[index]   = end;
+  }
+
+  /**
+   * Returns the line the record was parsed from.
+   *
+   * @return		the line, only valid for the duration of the callback
+   */
+  public CharSequence getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Returns the number of projected paths.
+   *
+   * @return		the number of paths
+   */
+  public int size() {
+    return m_Paths.length;
+  }
+
+  /**
+   * Returns the projected path.
+   *
+   * @param index	the index of the path
+   * @return		the path
+   */
+  public String getPath(int index) {
+    return m_Paths[index];
+  }
+
+  /**
+   * Returns the index of the projected path.
+   *
+   * @param path	the path
+   * @return		the index, -1 if not projected
+   */
+  public int indexOf(String path) {
+    Integer	result;
+
+    result = m_Index.get(path);
+    return (result == null) ? -1 : result;
+  }
+
+  /**
+   * Returns whether the line contained a value for the path (which can be
+   * null).
+   *
+   * @param index	the index of the path
+   * @return		true if present
+   */
+  public boolean has(int index) {
+    return (m_Types[index] != null);
+  }
+
+  /**
+   * Returns the type of the value.
+   *
+   * @param index	the index of the path
+   * @return		the type, null if absent
+   */
+  public JsonType getType(int index) {
+    return m_Types[index];
+  }
+
+  /**
+   * Returns whether the value is absent or null.
+   *
+   * @param index	the index of the path
+   * @return		true if absent or null
+   */
+  public boolean isNull(int index) {
+    return (m_Types[index] == null) || (m_Types[index] == JsonType.NULL);
+  }
+
+  /**
+   * Returns the JSON text of the value, e.g., for objects and arrays.
+   *
+   * @param index	the index of the path
+   * @return		the text, null if absent
+   */
+  public String getRaw(int index) {
+    if (m_Types[index] == null)
+      return null;
+    return m_Line.subSequence(m_Start[index], m_End[index]).toString();
+  }
+
+  /**
+   * Returns the value as string. Strings get unescaped, for all other types
+   * the JSON text is returned.
+   *
+   * @param index	the index of the path
+   * @return		the string, null if absent or null
+   */
+  public String getString(int index) {
+    if (isNull(index))
+      return null;
+    if (m_Types[index] != JsonType.STRING)
+      return getRaw(index);
+    m_Buffer.setLength(0);
+    JsonLineParser.unescape(m_Line, m_Start[index] + 1, m_End[index] - 1, m_Buffer);
+    return m_Buffer.toString();
+  }
+
+  /**
+   * Returns the value as string.
+   *
+   * @param path	the path
+   * @return		the string, null if absent, null or not projected
+   * @see		#getString(int)
+   */
+  public String getString(String path) {
+    int		index;
+
+    index = indexOf(path);
+    return (index == -1) ? null : getString(index);
+  }
+
+  /**
+   * Checks whether the value is a string with the specified content, without
+   * materializing the string.
+   *
+   * @param index	the index of the path
+   * @param value	the content to compare with
+   * @return		true if a string with the same content
+   */
+  public boolean contentEquals(int index, CharSequence value) {
+    int		start;
+    int		len;
+    int		i;
+
+    if (m_Types[index] != JsonType.STRING)
+      return false;
+
+    start = m_Start[index] + 1;
+    len   = m_End[index] - 1 - start;
+    for (i = 0; i < len; i++) {
+      if (m_Line.charAt(start + i) == '\\') {
+	m_Buffer.setLength(0);
+	JsonLineParser.unescape(m_Line, start, start + len, m_Buffer);
+	return JsonLineParser.contentEquals(m_Buffer, 0, m_Buffer.length(), value);
+      }
+    }
+
+    return JsonLineParser.contentEquals(m_Line, start, start + len, value);
+  }
+
+  /**
+   * Checks whether the value is a number without fraction and exponent.
+   *
+   * @param index	the index of the path
+   * @return		true if integral
+   */
+  public boolean isIntegral(int index) {
+    int		i;
+    char	c;
+
+    if (m_Types[index] != JsonType.NUMBER)
+      return false;
+    for (i = m_Start[index]; i < m_End[index]; i++) {
+      c = m_Line.charAt(i);
+      if ((c == '.') || (c == 'e') || (c == 'E'))
+	return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the value as long, without materializing a string for integral
+   * numbers of up to 18 digits.
+   *
+   * @param index	the index of the path
+   * @param defValue	the value to return if absent or not a number
+   * @return		the value
+   */
+  public long getLong(int index, long defValue) {
+    long	result;
+    boolean	negative;
+    int		i;
+    char	c;
+
+    if (m_Types[index] != JsonType.NUMBER)
+      return defValue;
+
+    i        = m_Start[index];
+    negative = (m_Line.charAt(i) == '-');
+    if (negative)
+      i++;
+    if (isIntegral(index) && (m_End[index] - i <= 18)) {
+      result = 0;
+      for (; i < m_End[index]; i++) {
+	c = m_Line.charAt(i);
+	if ((c < '0') || (c > '9'))
+	  return defValue;
+	result = result * 10 + (c - '0');
+      }
+      return negative ? -result : result;
+    }
+
+    try {
+      return Long.parseLong(getRaw(index));
+    }
+    catch (NumberFormatException e) {
+      return (long) getDouble(index, defValue);
+    }
+  }
+
+  /**
+   * Returns the value as double.
+   *
+   * @param index	the index of the path
+   * @param defValue	the value to return if absent or not a number
+   * @return		the value
+   */
+  public double getDouble(int index, double defValue) {
+    if (m_Types[index] != JsonType.NUMBER)
+      return defValue;
+    if (isIntegral(index) && (m_End[index] - m_Start[index] <= 18))
+      return getLong(index, 0);
+    try {
+      return Double.parseDouble(getRaw(index));
+    }
+    catch (NumberFormatException e) {
+      return defValue;
+    }
+  }
+
+  /**
+   * Returns the value as boolean.
+   *
+   * @param index	the index of the path
+   * @param defValue	the value to return if absent or not a boolean
+   * @return		the value
+   */
+  public boolean getBoolean(int index, boolean defValue) {
+    if (m_Types[index] != JsonType.BOOLEAN)
+      return defValue;
+    return (m_Line.charAt(m_Start[index]) == 't');
+  }
+
+  /**
+   * Materializes the values that are present. Strings, booleans and null
+   * get turned into their Java counterparts, integral numbers of up to 18
+   * characters into Long (Double otherwise), objects and arrays into their
+   * JSON text.
+   *
+   * @return		the values, indexed by path
+   */
+  public Map<String,Object> toMap() {
+    Map<String,Object>	result;
+    int			i;
+
+    result = new LinkedHashMap<>();
+    for (i = 0; i < m_Paths.length; i++) {
+      if (m_Types[i] == null)
+	continue;
+      switch (m_Types[i]) {
+	case NULL:
+	  result.put(m_Paths[i], null);
+	  break;
+	case BOOLEAN:
+	  result.put(m_Paths[i], getBoolean(i, false));
+	  break;
+	case NUMBER:
+	  if (isIntegral(i) && (m_End[i] - m_Start[i] <= 18))
+	    result.put(m_Paths[i], getLong(i, 0));
+	  else
+	    result.put(m_Paths[i], getDouble(i, Double.NaN));
+	  break;
+	case STRING:
+	  result.put(m_Paths[i], getString(i));
+	  break;
+	default:
+	  result.put(m_Paths[i], getRaw(i));
+	  break;
+      }
+    }
+
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Returns the materialized values as string.
+   *
+   * @return		the values
+   * @see		#toMap()
+   */
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+}
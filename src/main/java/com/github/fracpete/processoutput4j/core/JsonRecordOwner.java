@@ -0,0 +1,43 @@
+/*
+ * JsonRecordOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import com.github.fracpete.processoutput4j.output.JsonLinesProcessOutput;
+
+/**
+ * Interface for classes that make use of {@link JsonLinesProcessOutput}.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface JsonRecordOwner {
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type
+   */
+  public StreamingProcessOutputType getOutputType();
+
+  /**
+   * Processes the record parsed from a line. The record gets reused, i.e., it
+   * is only valid for the duration of the call. Use {@link JsonRecord#toMap()}
+   * to retain the values.
+   *
+   * @param record	the record to process
+   * @param stdout	whether stdout or stderr
+   */
+  public void processRecord(JsonRecord record, boolean stdout);
+
+  /**
+   * Processes a line that is not valid JSON, e.g., interleaved log output.
+   * Blank lines are skipped. The view gets reused, i.e., it is only valid
+   * for the duration of the call.
+   *
+   * @param line	the line
+   * @param stdout	whether stdout or stderr
+   */
+  public void processInvalid(LineView line, boolean stdout);
+}
@@ -0,0 +1,20 @@
+/*
+ * JsonType.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * The types of JSON values.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public enum JsonType {
+  NULL,
+  BOOLEAN,
+  NUMBER,
+  STRING,
+  OBJECT,
+  ARRAY,
+}
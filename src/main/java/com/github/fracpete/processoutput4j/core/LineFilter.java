@@ -0,0 +1,24 @@
+/*
+ * LineFilter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * Gets to inspect the lines read from the process before they are passed
+ * on to the reader, e.g., for detecting {@link Trigger}s.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface LineFilter {
+
+  /**
+   * Inspects the line.
+   *
+   * @param line	the line, only valid for the duration of the call
+   * @param stdout	whether stdout or stderr
+   * @return		true if to pass on the line, false to discard it
+   */
+  public boolean accept(CharSequence line, boolean stdout);
+}
@@ -0,0 +1,190 @@
+/*
+ * LineRingBuffer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer that only keeps the most recent lines, limited by the number
+ * of lines and/or the number of characters (including the line breaks).
+ * Keeps track of how much got discarded.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LineRingBuffer
+  implements Serializable {
+
+  private static final long serialVersionUID = -2046165829165893311L;
+
+  /** the maximum number of lines (less than 1 for unlimited). */
+  protected int m_MaxLines;
+
+  /** the maximum number of characters (less than 1 for unlimited). */
+  protected long m_MaxChars;
+
+  /** the lines. */
+  protected ArrayDeque<String> m_Lines;
+
+  /** the number of characters currently stored. */
+  protected long m_NumChars;
+
+  /** the number of discarded lines. */
+  protected long m_DiscardedLines;
+
+  /** the number of discarded characters. */
+  protected long m_DiscardedChars;
+
+  /**
+   * Initializes the buffer.
+   *
+   * @param maxLines	the maximum number of lines to keep, less than 1 for unlimited
+   * @param maxChars	the maximum number of characters to keep (including
+   * 			line breaks), less than 1 for unlimited
+   */
+  public LineRingBuffer(int maxLines, long maxChars) {
+    m_MaxLines = (maxLines < 1) ? -1 : maxLines;
+    m_MaxChars = (maxChars < 1) ? -1 : maxChars;
+    m_Lines    = new ArrayDeque<>();
+    clear();
+  }
+
+  /**
+   * Returns the maximum number of lines to keep.
+   *
+   * @return		the maximum, -1 if unlimited
+   */
+  public int getMaxLines() {
+    return m_MaxLines;
+  }
+
+  /**
+   * Returns the maximum number of characters to keep.
+   *
+   * @return		the maximum, -1 if unlimited
+   */
+  public long getMaxChars() {
+    return m_MaxChars;
+  }
+
+  /**
+   * Removes all lines and resets the counters.
+   */
+  public synchronized void clear() {
+    m_Lines.clear();
+    m_NumChars       = 0;
+    m_DiscardedLines = 0;
+    m_DiscardedChars = 0;
+  }
+
+  /**
+   * Adds the line, discarding the oldest lines if necessary. A line that
+   * exceeds the character limit on its own gets truncated at the start.
+   *
+   * @param line	the line to add
+   */
+  public void add(String line) {
+    add(line, 0);
+  }
+
+  /**
+   * Adds the line, discarding the oldest lines if necessary. A line that
+   * exceeds the character limit on its own gets truncated at the start,
+   * before it gets turned into a string.
+   *
+   * @param line	the line to add
+   * @param truncated	the number of characters that already got discarded
+   * 			from the start of the line
+   */
+  public synchronized void add(CharSequence line, long truncated) {
+    String	str;
+    String	removed;
+    int		excess;
+
+    excess = 0;
+    if ((m_MaxChars > 0) && (line.length() + 1 > m_MaxChars))
+      excess = (int) (line.length() + 1 - m_MaxChars);
+    str = line.subSequence(excess, line.length()).toString();
+    m_DiscardedChars += excess + truncated;
+
+    m_Lines.addLast(str);
+    m_NumChars += str.length() + 1;
+
+    while (((m_MaxLines > 0) && (m_Lines.size() > m_MaxLines))
+	     || ((m_MaxChars > 0) && (m_NumChars > m_MaxChars))) {
+      removed = m_Lines.removeFirst();
+      m_NumChars -= removed.length() + 1;
+      m_DiscardedLines++;
+      m_DiscardedChars += removed.length() + 1;
+    }
+  }
+
+  /**
+   * Returns the number of lines currently stored.
+   *
+   * @return		the number of lines
+   */
+  public synchronized int getNumLines() {
+    return m_Lines.size();
+  }
+
+  /**
+   * Returns the number of characters currently stored (including line breaks).
+   *
+   * @return		the number of characters
+   */
+  public synchronized long getNumChars() {
+    return m_NumChars;
+  }
+
+  /**
+   * Returns the number of lines that got discarded.
+   *
+   * @return		the number of lines
+   */
+  public synchronized long getDiscardedLines() {
+    return m_DiscardedLines;
+  }
+
+  /**
+   * Returns the number of characters that got discarded (including line breaks).
+   *
+   * @return		the number of characters
+   */
+  public synchronized long getDiscardedChars() {
+    return m_DiscardedChars;
+  }
+
+  /**
+   * Returns the lines currently stored.
+   *
+   * @return		a copy of the lines, oldest first
+   */
+  public synchronized List<String> getLines() {
+    return new ArrayList<>(m_Lines);
+  }
+
+  /**
+   * Returns the lines currently stored as string, each line followed by a
+   * line break.
+   *
+   * @return		the lines
+   */
+  @Override
+  public synchronized String toString() {
+    StringBuilder	result;
+
+    result = new StringBuilder((int) m_NumChars);
+    for (String line: m_Lines) {
+      result.append(line);
+      result.append('\n');
+    }
+
+    return result.toString();
+  }
+}
@@ -0,0 +1,23 @@
+/*
+ * LineSink.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * Receives lines output by a process, e.g., the lines that matched a
+ * pattern.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface LineSink {
+
+  /**
+   * Processes the line.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  public void accept(String line, boolean stdout);
+}
@@ -0,0 +1,135 @@
+/*
+ * LineView.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * Reusable view on a line stored in a character buffer, avoiding the creation
+ * of a string object per line. The view is only valid for the duration of the
+ * callback that it was handed to, use {@link #toString()} to obtain a copy
+ * if the line needs to be retained.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LineView
+  implements CharSequence {
+
+  /** the underlying buffer. */
+  protected char[] m_Buffer;
+
+  /** the offset of the line in the buffer. */
+  protected int m_Offset;
+
+  /** the length of the line. */
+  protected int m_Length;
+
+  /**
+   * Initializes an empty view.
+   */
+  public LineView() {
+    set(new char[0], 0, 0);
+  }
+
+  /**
+   * Points the view at the specified part of the buffer.
+   *
+   * @param buffer	the buffer
+   * @param offset	the offset of the line
+   * @param length	the length of the line
+   */
+  public void set(char[] buffer, int offset, int length) {
+    m_Buffer = buffer;
+    m_Offset = offset;
+    m_Length = length;
+  }
+
+  /**
+   * Returns the length of the line.
+   *
+   * @return		the number of characters
+   */
+  @Override
+  public int length() {
+    return m_Length;
+  }
+
+  /**
+   * Returns the character at the specified position.
+   *
+   * @param index	the position
+   * @return		the character
+   */
+  @Override
+  public char charAt(int index) {
+    if ((index < 0) || (index >= m_Length))
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + m_Length);
+    return m_Buffer[m_Offset + index];
+  }
+
+  /**
+   * Returns a copy of the specified subsequence.
+   *
+   * @param start	the start index (incl)
+   * @param end		the end index (excl)
+   * @return		the copy
+   */
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if ((start < 0) || (end > m_Length) || (start > end))
+      throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + m_Length);
+    return new String(m_Buffer, m_Offset + start, end - start);
+  }
+
+  /**
+   * Checks whether the line starts with the specified prefix.
+   *
+   * @param prefix	the prefix to check
+   * @return		true if the line starts with the prefix
+   */
+  public boolean startsWith(CharSequence prefix) {
+    int		i;
+
+    if (prefix.length() > m_Length)
+      return false;
+    for (i = 0; i < prefix.length(); i++) {
+      if (m_Buffer[m_Offset + i] != prefix.charAt(i))
+	return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the position of the first occurrence of the specified string.
+   *
+   * @param str		the string to look for
+   * @return		the position, -1 if not found
+   */
+  public int indexOf(CharSequence str) {
+    int		i;
+    int		n;
+    int		len;
+
+    len = str.length();
+    for (i = 0; i <= m_Length - len; i++) {
+      for (n = 0; n < len; n++) {
+	if (m_Buffer[m_Offset + i + n] != str.charAt(n))
+	  break;
+      }
+      if (n == len)
+	return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a copy of the line.
+   *
+   * @return		the line
+   */
+  @Override
+  public String toString() {
+    return new String(m_Buffer, m_Offset, m_Length);
+  }
+}
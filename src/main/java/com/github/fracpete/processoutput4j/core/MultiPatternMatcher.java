@@ -0,0 +1,603 @@
+/*
+ * MultiPatternMatcher.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a set of literal and regular expression patterns against a line
+ * in a single pass. All literals get compiled into an Aho-Corasick
+ * automaton. For each regular expression, a literal that any match must
+ * contain gets determined (if possible), which is added to the automaton as
+ * well; the regular expression only gets evaluated if that literal occurs in
+ * the line. Hence, the cost of matching depends on the length of the line
+ * and the number of candidate regular expressions rather than on the
+ * number of patterns.
+ * <br>
+ * Patterns get added via {@link #add(String)} and {@link #add(Pattern)},
+ * followed by {@link #compile()}. Once compiled, the matcher is immutable
+ * and can be used by multiple threads.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class MultiPatternMatcher {
+
+  /**
+   * Per-thread state for matching.
+   */
+  protected static class Scratch {
+
+    /** the candidate/matched patterns. */
+    public long[] bits;
+
+    /** the reusable regex matchers. */
+    public Matcher[] matchers;
+  }
+
+  /** the patterns (String for literals, Pattern for regular expressions). */
+  protected List<Object> m_Patterns;
+
+  /** the literal that the regular expression requires (null if literal or none). */
+  protected String[] m_Required;
+
+  /** the regular expressions that always need evaluating. */
+  protected int[] m_Unfiltered;
+
+  /** the class of each character below 256. */
+  protected int[] m_LowClasses;
+
+  /** the characters from 256 upwards (sorted). */
+  protected char[] m_HighChars;
+
+  /** the classes of the characters from 256 upwards. */
+  protected int[] m_HighClasses;
+
+  /** the number of character classes (incl class 0 for all other characters). */
+  protected int m_NumClasses;
+
+  /** the transitions of the automaton (state * number of classes + class). */
+  protected int[] m_Delta;
+
+  /** the patterns whose keyword ends in a state (null if none). */
+  protected int[][] m_Outputs;
+
+  /** the per-thread state. */
+  protected ThreadLocal<Scratch> m_Scratch;
+
+  /** whether compiled. */
+  protected boolean m_Compiled;
+
+  /**
+   * Initializes the matcher.
+   */
+  public MultiPatternMatcher() {
+    m_Patterns = new ArrayList<>();
+  }
+
+  /**
+   * Adds the literal.
+   *
+   * @param literal	the literal to look for
+   * @return		the ID of the pattern
+   * @throws IllegalStateException	if already compiled
+   * @throws IllegalArgumentException	if the literal is empty
+   */
+  public int add(String literal) {
+    if (m_Compiled)
+      throw new IllegalStateException("Matcher has already been compiled!");
+    if (literal.isEmpty())
+      throw new IllegalArgumentException("Literal cannot be empty!");
+    m_Patterns.add(literal);
+    return m_Patterns.size() - 1;
+  }
+
+  /**
+   * Adds the regular expression.
+   *
+   * @param regex	the regular expression to find in the line
+   * @return		the ID of the pattern
+   * @throws IllegalStateException	if already compiled
+   */
+  public int add(Pattern regex) {
+    if (m_Compiled)
+      throw new IllegalStateException("Matcher has already been compiled!");
+    m_Patterns.add(regex);
+    return m_Patterns.size() - 1;
+  }
+
+  /**
+   * Returns the number of patterns.
+   *
+   * @return		the number of patterns
+   */
+  public int size() {
+    return m_Patterns.size();
+  }
+
+  /**
+   * Returns whether the pattern is a literal.
+   *
+   * @param id		the ID of the pattern
+   * @return		true if literal, false if regular expression
+   */
+  public boolean isLiteral(int id) {
+    return (m_Patterns.get(id) instanceof String);
+  }
+
+  /**
+   * Returns the literal that matches of the regular expression must contain
+   * and that is used for filtering the lines.
+   *
+   * @param id		the ID of the pattern
+   * @return		the literal, null if a literal pattern or none determined
+   */
+  public String getRequiredLiteral(int id) {
+    if (!m_Compiled)
+      throw new IllegalStateException("Matcher has not been compiled yet!");
+    return m_Required[id];
+  }
+
+  /**
+   * Returns the class of the character.
+   *
+   * @param c		the character
+   * @return		the class, 0 if not part of any keyword
+   */
+  protected int classOf(char c) {
+    int		index;
+
+    if (c < 256)
+      return m_LowClasses[c];
+    index = Arrays.binarySearch(m_HighChars, c);
+    return (index < 0) ? 0 : m_HighClasses[index];
+  }
+
+  /**
+   * Compiles the patterns.
+   *
+   * @return		itself
+   */
+  public MultiPatternMatcher compile() {
+    List<String>	keywords;
+    List<Integer>	owners;
+    List<Integer>	unfiltered;
+    TreeSet<Character>	chars;
+    List<int[]>		trie;
+    List<List<Integer>>	outputs;
+    Deque<Integer>	queue;
+    int[]		fail;
+    int[]		row;
+    String		keyword;
+    int			state;
+    int			next;
+    int			i;
+    int			n;
+    int			c;
+
+    if (m_Compiled)
+      return this;
+
+    // keywords
+    keywords   = new ArrayList<>();
+    owners     = new ArrayList<>();
+    unfiltered = new ArrayList<>();
+    m_Required = new String[m_Patterns.size()];
+    for (i = 0; i < m_Patterns.size(); i++) {
+      if (m_Patterns.get(i) instanceof String) {
+	keywords.add((String) m_Patterns.get(i));
+	owners.add(i);
+      }
+      else {
+	m_Required[i] = requiredLiteral((Pattern) m_Patterns.get(i));
+	if (m_Required[i] == null) {
+	  unfiltered.add(i);
+	}
+	else {
+	  keywords.add(m_Required[i]);
+	  owners.add(i);
+	}
+      }
+    }
+    m_Unfiltered = new int[unfiltered.size()];
+    for (i = 0; i < m_Unfiltered.length; i++)
+      m_Unfiltered[i] = unfiltered.get(i);
+
+    // alphabet
+    chars = new TreeSet<>();
+    for (String k: keywords) {
+      for (i = 0; i < k.length(); i++)
+	chars.add(k.charAt(i));
+    }
+    m_LowClasses  = new int[256];
+    m_HighChars   = new char[chars.tailSet((char) 256).size()];
+    m_HighClasses = new int[m_HighChars.length];
+    m_NumClasses  = 1;
+    n             = 0;
+    for (char ch: chars) {
+      if (ch < 256) {
+	m_LowClasses[ch] = m_NumClasses;
+      }
+      else {
+	m_HighChars[n]   = ch;
+	m_HighClasses[n] = m_NumClasses;
+	n++;
+      }
+      m_NumClasses++;
+    }
+
+    // trie
+    trie    = new ArrayList<>();
+    outputs = new ArrayList<>();
+    trie.add(newRow());
+    outputs.add(new ArrayList<>());
+    for (i = 0; i < keywords.size(); i++) {
+      keyword = keywords.get(i);
+      state   = 0;
+      for (n = 0; n < keyword.length(); n++) {
+	c    = classOf(keyword.charAt(n));
+	next = trie.get(state)[c];
+	if (next == -1) {
+	  next = trie.size();
+	  trie.get(state)[c] = next;
+	  trie.add(newRow());
+	  outputs.add(new ArrayList<>());
+	}
+	state = next;
+      }
+      if (!outputs.get(state).contains(owners.get(i)))
+	outputs.get(state).add(owners.get(i));
+    }
+
+    // failure links, turning the trie into a DFA
+    fail  = new int[trie.size()];
+    queue = new ArrayDeque<>();
+    row   = trie.get(0);
+    for (c = 0; c < m_NumClasses; c++) {
+      if (row[c] == -1) {
+	row[c] = 0;
+      }
+      else {
+	fail[row[c]] = 0;
+	queue.add(row[c]);
+      }
+    }
+    while (!queue.isEmpty()) {
+      state = queue.poll();
+      row   = trie.get(state);
+      for (c = 0; c < m_NumClasses; c++) {
+	next = row[c];
+	if (next == -1) {
+	  row[c] = trie.get(fail[state])[c];
+	}
+	else {
+	  fail[next] = trie.get(fail[state])[c];
+	  for (Integer owner: outputs.get(fail[next])) {
+	    if (!outputs.get(next).contains(owner))
+	      outputs.get(next).add(owner);
+	  }
+	  queue.add(next);
+	}
+      }
+    }
+
+    // flatten
+    m_Delta   = new int[trie.size() * m_NumClasses];
+    m_Outputs = new int[trie.size()][];
+    for (state = 0; state < trie.size(); state++) {
+      System.arraycopy(trie.get(state), 0, m_Delta, state * m_NumClasses, m_NumClasses);
+      if (!outputs.get(state).isEmpty()) {
+	m_Outputs[state] = new int[outputs.get(state).size()];
+	for (i = 0; i < m_Outputs[state].length; i++)
+	  m_Outputs[state][i] = outputs.get(state).get(i);
+      }
+    }
+
+    m_Scratch  = ThreadLocal.withInitial(this::newScratch);
+    m_Compiled = true;
+
+    return this;
+  }
+
+  /**
+   * Creates a new row of transitions for the trie.
+   *
+   * @return		the row, all transitions -1
+   */
+  protected int[] newRow() {
+    int[]	result;
+
+    result = new int[m_NumClasses];
+    Arrays.fill(result, -1);
+
+    return result;
+  }
+
+  /**
+   * Creates the per-thread state.
+   *
+   * @return		the state
+   */
+  protected Scratch newScratch() {
+    Scratch	result;
+    int		i;
+
+    result          = new Scratch();
+    result.bits     = new long[(m_Patterns.size() + 63) / 64];
+    result.matchers = new Matcher[m_Patterns.size()];
+    for (i = 0; i < m_Patterns.size(); i++) {
+      if (m_Patterns.get(i) instanceof Pattern)
+	result.matchers[i] = ((Pattern) m_Patterns.get(i)).matcher("");
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines the IDs of the patterns that match the line.
+   *
+   * @param line	the line to match
+   * @param matches	for storing the IDs of the matching patterns (in
+   * 			ascending order), must be able to hold all patterns
+   * @return		the number of matching patterns
+   * @throws IllegalStateException	if not compiled yet
+   */
+  public int match(CharSequence line, int[] matches) {
+    Scratch	scratch;
+    long[]	bits;
+    int[]	outs;
+    int		state;
+    int		len;
+    int		result;
+    int		i;
+    int		n;
+    long	word;
+
+    if (!m_Compiled)
+      throw new IllegalStateException("Matcher has not been compiled yet!");
+
+    scratch = m_Scratch.get();
+    bits    = scratch.bits;
+
+    // single pass over the line
+    state = 0;
+    len   = line.length();
+    for (i = 0; i < len; i++) {
+      state = m_Delta[state * m_NumClasses + classOf(line.charAt(i))];
+      outs  = m_Outputs[state];
+      if (outs != null) {
+	for (n = 0; n < outs.length; n++)
+	  bits[outs[n] >> 6] |= 1L << outs[n];
+      }
+    }
+    for (n = 0; n < m_Unfiltered.length; n++)
+      bits[m_Unfiltered[n] >> 6] |= 1L << m_Unfiltered[n];
+
+    // collect, evaluating candidate regular expressions
+    result = 0;
+    for (i = 0; i < bits.length; i++) {
+      word    = bits[i];
+      bits[i] = 0;
+      while (word != 0) {
+	n    = (i << 6) + Long.numberOfTrailingZeros(word);
+	word &= word - 1;
+	if ((scratch.matchers[n] == null) || scratch.matchers[n].reset(line).find())
+	  matches[result++] = n;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determines a literal that any match of the regular expression must
+   * contain, by taking the longest run of mandatory literal characters
+   * outside groups and character classes. The analysis is conservative,
+   * i.e., no literal gets returned for alternations at the top level or
+   * case-insensitive matching.
+   *
+   * @param regex	the regular expression to analyze
+   * @return		the literal, null if none determined
+   */
+  public static String requiredLiteral(Pattern regex) {
+    StringBuilder	run;
+    String		best;
+    String		expr;
+    int			depth;
+    int			i;
+    int			end;
+    char		c;
+
+    if ((regex.flags() & (Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.CANON_EQ)) != 0)
+      return null;
+    if ((regex.flags() & Pattern.LITERAL) != 0)
+      return regex.pattern().isEmpty() ? null : regex.pattern();
+
+    expr  = regex.pattern();
+    run   = new StringBuilder();
+    best  = "";
+    depth = 0;
+    i     = 0;
+    while (i < expr.length()) {
+      c = expr.charAt(i);
+
+      // escapes
+      if (c == '\\') {
+	if (i + 1 >= expr.length())
+	  return null;
+	c = expr.charAt(i + 1);
+	if (c == 'Q') {
+	  end = expr.indexOf("\\E", i + 2);
+	  if (end == -1)
+	    end = expr.length();
+	  if (depth == 0)
+	    run.append(expr, i + 2, end);
+	  i = end + 2;
+	}
+	else if (Character.isLetterOrDigit(c)) {
+	  best = longer(best, run);
+	  i    = skipEscape(expr, i + 1);
+	}
+	else {
+	  if (depth == 0)
+	    run.append(c);
+	  i += 2;
+	}
+	continue;
+      }
+
+      switch (c) {
+	case '[':
+	  best = longer(best, run);
+	  i    = skipClass(expr, i);
+	  continue;
+	case '(':
+	  // inline flags can change case sensitivity
+	  if ((i + 2 < expr.length()) && (expr.charAt(i + 1) == '?') && ("idmsuxU-".indexOf(expr.charAt(i + 2)) > -1))
+	    return null;
+	  best = longer(best, run);
+	  depth++;
+	  break;
+	case ')':
+	  best = longer(best, run);
+	  depth--;
+	  break;
+	case '|':
+	  if (depth == 0)
+	    return null;
+	  break;
+	case '?':
+	case '*':
+	case '{':
+	  // previous atom is optional
+	  if ((depth == 0) && (run.length() > 0))
+	    run.setLength(run.length() - 1);
+	  best = longer(best, run);
+	  if (c == '{') {
+	    end = expr.indexOf('}', i);
+	    if (end == -1)
+	      return null;
+	    i = end;
+	  }
+	  break;
+	case '+':
+	case '.':
+	case '^':
+	case '$':
+	  best = longer(best, run);
+	  break;
+	default:
+	  if (depth == 0)
+	    run.append(c);
+      }
+      i++;
+    }
+    best = longer(best, run);
+
+    return best.isEmpty() ? null : best;
+  }
+
+  /**
+   * Returns the longer of the two, clearing the run.
+   *
+   * @param best	the best literal so far
+   * @param run		the current run of literal characters
+   * @return		the longer one
+   */
+  protected static String longer(String best, StringBuilder run) {
+    String	result;
+
+    result = best;
+    if (run.length() > best.length())
+      result = run.toString();
+    run.setLength(0);
+
+    return result;
+  }
+
+  /**
+   * Skips an escape sequence like \d, \x41, A, \p{Alpha}, \k&lt;name&gt;
+   * or a back reference.
+   *
+   * @param expr	the regular expression
+   * @param i		the position of the character after the backslash
+   * @return		the position after the escape sequence
+   */
+  protected static int skipEscape(String expr, int i) {
+    char	c;
+    int		end;
+
+    c = expr.charAt(i);
+    i++;
+    switch (c) {
+      case 'x':
+      case 'p':
+      case 'P':
+      case 'N':
+	if ((i < expr.length()) && (expr.charAt(i) == '{')) {
+	  end = expr.indexOf('}', i);
+	  return (end == -1) ? expr.length() : end + 1;
+	}
+	return Math.min(expr.length(), i + ((c == 'x') ? 2 : 1));
+      case 'u':
+	return Math.min(expr.length(), i + 4);
+      case 'c':
+	return Math.min(expr.length(), i + 1);
+      case 'k':
+	end = expr.indexOf('>', i);
+	return (end == -1) ? expr.length() : end + 1;
+      default:
+	if (Character.isDigit(c)) {
+	  while ((i < expr.length()) && Character.isDigit(expr.charAt(i)))
+	    i++;
+	}
+	return i;
+    }
+  }
+
+  /**
+   * Skips a character class, including nested classes.
+   *
+   * @param expr	the regular expression
+   * @param i		the position of the opening bracket
+   * @return		the position after the closing bracket
+   */
+  protected static int skipClass(String expr, int i) {
+    int		depth;
+    char	c;
+
+    depth = 0;
+    while (i < expr.length()) {
+      c = expr.charAt(i);
+      if (c == '\\') {
+	i += 2;
+	continue;
+      }
+      if (c == '[') {
+	depth++;
+	// a closing bracket right after the opening one (or negation) is literal
+	if ((i + 1 < expr.length()) && (expr.charAt(i + 1) == '^'))
+	  i++;
+	if ((i + 1 < expr.length()) && (expr.charAt(i + 1) == ']'))
+	  i++;
+      }
+      else if (c == ']') {
+	depth--;
+	if (depth == 0)
+	  return i + 1;
+      }
+      i++;
+    }
+
+    return i;
+  }
+}
@@ -0,0 +1,22 @@
+/*
+ * OverflowPolicy.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * What to do when a bounded queue of lines is full.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public enum OverflowPolicy {
+  /** waits until there is space again (the process stalls once its pipe is full). */
+  BLOCK,
+  /** removes the oldest line in the queue. */
+  DROP_OLDEST,
+  /** discards the new line. */
+  DROP_NEWEST,
+  /** attaches the new line to the most recently queued one (same stream only, up to a limit; blocks otherwise). */
+  COALESCE,
+}
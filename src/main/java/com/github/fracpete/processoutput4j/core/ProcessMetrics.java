@@ -0,0 +1,265 @@
+/*
+ * ProcessMetrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.Arrays;
+
+/**
+ * Metrics for a single process. All times are obtained via
+ * {@link System#nanoTime()}; durations are -1 if not (yet) available.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ProcessMetrics {
+
+  /** the command. */
+  protected final String[] m_Command;
+
+  /** the time the process got launched (or monitoring started). */
+  protected final long m_Start;
+
+  /** the duration of spawning the process, -1 if unknown. */
+  protected volatile long m_SpawnDuration;
+
+  /** the time the process exited, -1 if still running. */
+  protected volatile long m_Exit;
+
+  /** the time both readers reached EOF, -1 if not (yet) reached. */
+  protected volatile long m_EndOfFile;
+
+  /** the exit code. */
+  protected volatile int m_ExitCode;
+
+  /** whether the process timed out. */
+  protected volatile boolean m_TimedOut;
+
+  /** whether the process got destroyed. */
+  protected volatile boolean m_Destroyed;
+
+  /** the stdout metrics. */
+  protected final StreamMetrics m_StdOut;
+
+  /** the stderr metrics. */
+  protected final StreamMetrics m_StdErr;
+
+  /**
+   * Initializes the metrics.
+   *
+   * @param command	the command
+   * @param start	the time the process got launched
+   */
+  public ProcessMetrics(String[] command, long start) {
+    m_Command       = command;
+    m_Start         = start;
+    m_SpawnDuration = -1;
+    m_Exit          = -1;
+    m_EndOfFile     = -1;
+    m_StdOut        = new StreamMetrics(true);
+    m_StdErr        = new StreamMetrics(false);
+  }
+
+  /**
+   * Returns the command.
+   *
+   * @return		the command
+   */
+  public String[] getCommand() {
+    return m_Command;
+  }
+
+  /**
+   * Returns the time the process got launched (or the monitoring started,
+   * for processes that were launched elsewhere).
+   *
+   * @return		the time
+   */
+  public long getStart() {
+    return m_Start;
+  }
+
+  /**
+   * Sets the duration of spawning the process.
+   *
+   * @param value	the duration in nanoseconds
+   */
+  public void setSpawnDuration(long value) {
+    m_SpawnDuration = value;
+  }
+
+  /**
+   * Returns the duration of spawning the process.
+   *
+   * @return		the duration in nanoseconds, -1 if unknown
+   */
+  public long getSpawnDuration() {
+    return m_SpawnDuration;
+  }
+
+  /**
+   * Records the time the process exited.
+   *
+   * @param value	the time
+   */
+  public void setExit(long value) {
+    m_Exit = value;
+  }
+
+  /**
+   * Returns the time the process exited.
+   *
+   * @return		the time, -1 if still running
+   */
+  public long getExit() {
+    return m_Exit;
+  }
+
+  /**
+   * Records the time both readers reached EOF.
+   *
+   * @param value	the time
+   */
+  public void setEndOfFile(long value) {
+    m_EndOfFile = value;
+  }
+
+  /**
+   * Returns the time both readers reached EOF.
+   *
+   * @return		the time, -1 if not (yet) reached
+   */
+  public long getEndOfFile() {
+    return m_EndOfFile;
+  }
+
+  /**
+   * Sets the exit code.
+   *
+   * @param value	the exit code
+   */
+  public void setExitCode(int value) {
+    m_ExitCode = value;
+  }
+
+  /**
+   * Returns the exit code.
+   *
+   * @return		the exit code
+   */
+  public int getExitCode() {
+    return m_ExitCode;
+  }
+
+  /**
+   * Sets whether the process timed out.
+   *
+   * @param value	true if timed out
+   */
+  public void setTimedOut(boolean value) {
+    m_TimedOut = value;
+  }
+
+  /**
+   * Returns whether the process timed out.
+   *
+   * @return		true if timed out
+   */
+  public boolean isTimedOut() {
+    return m_TimedOut;
+  }
+
+  /**
+   * Sets whether the process got destroyed.
+   *
+   * @param value	true if destroyed
+   */
+  public void setDestroyed(boolean value) {
+    m_Destroyed = value;
+  }
+
+  /**
+   * Returns whether the process got destroyed.
+   *
+   * @return		true if destroyed
+   */
+  public boolean isDestroyed() {
+    return m_Destroyed;
+  }
+
+  /**
+   * Returns the metrics for stdout.
+   *
+   * @return		the metrics
+   */
+  public StreamMetrics getStdOut() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns the metrics for stderr.
+   *
+   * @return		the metrics
+   */
+  public StreamMetrics getStdErr() {
+    return m_StdErr;
+  }
+
+  /**
+   * Returns the time from launching the process until the first byte
+   * arrived on the stream.
+   *
+   * @param stdout	whether for stdout or stderr
+   * @return		the duration in nanoseconds, -1 if no data
+   */
+  public long getTimeToFirstByte(boolean stdout) {
+    long	first;
+
+    first = (stdout ? m_StdOut : m_StdErr).getFirstByte();
+    if (first == -1)
+      return -1;
+    return first - m_Start;
+  }
+
+  /**
+   * Returns the time from launching the process until it exited.
+   *
+   * @return		the duration in nanoseconds, -1 if still running
+   */
+  public long getRunTime() {
+    if (m_Exit == -1)
+      return -1;
+    return m_Exit - m_Start;
+  }
+
+  /**
+   * Returns the time between the process exiting and the readers reaching
+   * EOF, i.e., the time spent draining the remaining output.
+   *
+   * @return		the duration in nanoseconds, -1 if not available
+   */
+  public long getDrainLag() {
+    if ((m_Exit == -1) || (m_EndOfFile == -1))
+      return -1;
+    return Math.max(0, m_EndOfFile - m_Exit);
+  }
+
+  /**
+   * Returns a short description of the metrics.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "command=" + Arrays.toString(m_Command)
+      + ", exitCode=" + m_ExitCode
+      + ", spawn=" + m_SpawnDuration
+      + ", runTime=" + getRunTime()
+      + ", drainLag=" + getDrainLag()
+      + ", timedOut=" + m_TimedOut
+      + ", destroyed=" + m_Destroyed
+      + ", stdout={" + m_StdOut + ", ttfb=" + getTimeToFirstByte(true) + "}"
+      + ", stderr={" + m_StdErr + ", ttfb=" + getTimeToFirstByte(false) + "}";
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * ProcessMetricsListener.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * Interface for classes that get notified about the metrics of monitored
+ * processes. The methods can be called from different threads (reader,
+ * timeout and caller threads), i.e., implementations must be thread-safe.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface ProcessMetricsListener {
+
+  /**
+   * Gets called once the process has been launched and the readers have
+   * been started.
+   *
+   * @param metrics	the metrics of the process
+   */
+  public void processStarted(ProcessMetrics metrics);
+
+  /**
+   * Gets called when the process has reached its timeout.
+   *
+   * @param metrics	the metrics of the process
+   */
+  public void processTimedOut(ProcessMetrics metrics);
+
+  /**
+   * Gets called when the process gets destroyed.
+   *
+   * @param metrics	the metrics of the process
+   */
+  public void processDestroyed(ProcessMetrics metrics);
+
+  /**
+   * Gets called once the process has exited and the output has been read.
+   *
+   * @param metrics	the metrics of the process
+   */
+  public void processFinished(ProcessMetrics metrics);
+}
@@ -5,13 +5,24 @@
 
 package com.github.fracpete.processoutput4j.core;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Helper class for processes.
+ * Helper class for processes. Processes get terminated from within the JVM
+ * (via {@link ProcessHandle}), including their descendants, rather than
+ * launching kill/taskkill processes.
  *
  * @author fracpete (fracpete at waikato dot ac dot nz)
  */
 public class ProcessUtils {
 
+  /** a reasonable grace period in msec before forcibly destroying processes. */
+  public final static int DEFAULT_GRACE_PERIOD = 5000;
+
   /** whether the OS is Windows. */
   protected static Boolean m_IsWindows;
 
@@ -61,7 +72,30 @@ public class ProcessUtils {
   }
 
   /**
-   * Destroys the process. Does not force the exit.
+   * Returns the process and its descendants. The descendants need to be
+   * determined before terminating the process, as they get re-parented once
+   * it has exited.
+   *
+   * @param handle	the process
+   * @return		the process, followed by its descendants
+   */
+  public static List<ProcessHandle> tree(ProcessHandle handle) {
+    List<ProcessHandle>	result;
+
+    result = new ArrayList<>();
+    result.add(handle);
+    try {
+      handle.descendants().forEach(result::add);
+    }
+    catch (Exception e) {
+      // not supported or not permitted
+    }
+
+    return result;
+  }
+
+  /**
+   * Destroys the process and its descendants. Does not force the exit.
    *
    * @param process	the process to destroy
    */
@@ -70,44 +104,99 @@ public class ProcessUtils {
   }
 
   /**
-   * Destroys the process.
+   * Destroys the process and its descendants, from within the JVM.
+   * Falls back on forcibly destroying a process if normal termination is not
+   * supported.
    *
    * @param process	the process to destroy
    * @param force 	whether to force the exit without giving the process a chance to clean up
    */
   public static void destroy(Process process, boolean force) {
-    String[]	cmd;
-    Process	kill;
-    boolean	useFallback;
-    int		exitCode;
-
-    useFallback = true;
-    cmd         = null;
-    if (isLinux()) {
-      if (force)
-	cmd = new String[]{"kill", "-9", "" + process.pid()};
-      else
-	cmd = new String[]{"kill", "" + process.pid()};
+    ProcessHandle	root;
+
+    if (!process.isAlive())
+      return;
+
+    try {
+      root = process.toHandle();
     }
-    else if (isWindows()) {
+    catch (UnsupportedOperationException e) {
+      // process implementation without handle
       if (force)
-	cmd = new String[]{"taskkill", "/T", "/F", "/PID", "" + process.pid()};
+	process.destroyForcibly();
       else
-	cmd = new String[]{"taskkill", "/T", "/PID", "" + process.pid()};
+	process.destroy();
+      return;
     }
 
-    if (cmd != null) {
-      try {
-	kill        = new ProcessBuilder().command(cmd).start();
-	exitCode    = kill.waitFor();
-	useFallback = (exitCode != 0);
-      }
-      catch (Exception e) {
-	// ignored
-      }
+    for (ProcessHandle handle: tree(root)) {
+      if (force || !handle.destroy())
+	handle.destroyForcibly();
     }
+  }
 
-    if (useFallback)
+  /**
+   * Terminates the process and its descendants, without blocking. The
+   * processes get asked to terminate (SIGTERM) and are forcibly destroyed
+   * (SIGKILL) if still alive after the grace period.
+   *
+   * @param process	the process to terminate
+   * @param gracePeriod	the grace period in msec, less than 1 to destroy forcibly right away
+   * @return		gets completed once the process and all its descendants have exited
+   */
+  public static CompletableFuture<Void> terminate(Process process, long gracePeriod) {
+    ProcessHandle	handle;
+
+    if (!process.isAlive())
+      return CompletableFuture.completedFuture(null);
+
+    try {
+      handle = process.toHandle();
+    }
+    catch (UnsupportedOperationException e) {
+      // process implementation without handle
       process.destroyForcibly();
+      return process.onExit().thenApply(p -> null);
+    }
+
+    return terminate(handle, gracePeriod);
+  }
+
+  /**
+   * Terminates the process and its descendants, without blocking. The
+   * processes get asked to terminate (SIGTERM) and are forcibly destroyed
+   * (SIGKILL) if still alive after the grace period.
+   *
+   * @param handle	the process to terminate
+   * @param gracePeriod	the grace period in msec, less than 1 to destroy forcibly right away
+   * @return		gets completed once the process and all its descendants have exited
+   */
+  public static CompletableFuture<Void> terminate(ProcessHandle handle, long gracePeriod) {
+    final List<ProcessHandle>	handles;
+    CompletableFuture<?>[]	exits;
+    CompletableFuture<Void>	result;
+    final ScheduledFuture<?>	kill;
+    int				i;
+
+    handles = tree(handle);
+    exits   = new CompletableFuture<?>[handles.size()];
+    for (i = 0; i < handles.size(); i++) {
+      if ((gracePeriod < 1) || !handles.get(i).destroy())
+	handles.get(i).destroyForcibly();
+      exits[i] = handles.get(i).onExit();
+    }
+    result = CompletableFuture.allOf(exits);
+
+    if ((gracePeriod > 0) && !result.isDone()) {
+      kill = TimeOutScheduler.getDefault().schedule(gracePeriod, TimeUnit.MILLISECONDS, () -> {
+	for (ProcessHandle h: handles) {
+	  if (h.isAlive())
+	    h.destroyForcibly();
+	}
+      });
+      result.whenComplete((r, t) -> kill.cancel(false));
+    }
+
+    return result;
   }
 }
@@ -0,0 +1,230 @@
+/*
+ * SpillingContent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores text in memory up to a threshold, any additional content gets
+ * spilled to a temporary file (UTF-8 encoded). The temporary file gets
+ * removed when calling {@link #close()}.
+ * <br>
+ * Note: on Windows, a file cannot be removed while a memory-mapped buffer
+ * of it is still referenced.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpillingContent
+  implements Closeable {
+
+  /** the prefix for the temporary files. */
+  public final static String TMP_PREFIX = "processoutput4j-";
+
+  /** the threshold in characters. */
+  protected int m_Threshold;
+
+  /** the directory for the temporary file, null for system default. */
+  protected Path m_TempDir;
+
+  /** the in-memory content. */
+  protected StringBuilder m_Memory;
+
+  /** the temporary file, null if not spilled yet. */
+  protected Path m_File;
+
+  /** the writer for the temporary file. */
+  protected Writer m_Writer;
+
+  /** the total number of characters. */
+  protected long m_Length;
+
+  /**
+   * Initializes the content.
+   *
+   * @param threshold	the maximum number of characters to keep in memory
+   * @param tempDir	the directory for the temporary file, null for the system's default
+   */
+  public SpillingContent(int threshold, Path tempDir) {
+    m_Threshold = threshold;
+    m_TempDir   = tempDir;
+    m_Memory    = new StringBuilder();
+    m_File      = null;
+    m_Writer    = null;
+    m_Length    = 0;
+  }
+
+  /**
+   * Returns the builder that stores the in-memory part of the content.
+   *
+   * @return		the builder
+   */
+  public StringBuilder getMemory() {
+    return m_Memory;
+  }
+
+  /**
+   * Returns the threshold.
+   *
+   * @return		the maximum number of characters to keep in memory
+   */
+  public int getThreshold() {
+    return m_Threshold;
+  }
+
+  /**
+   * Returns whether the content got spilled to disk.
+   *
+   * @return		true if spilled
+   */
+  public synchronized boolean isSpilled() {
+    return (m_File != null);
+  }
+
+  /**
+   * Returns the temporary file.
+   *
+   * @return		the file, null if not spilled
+   */
+  public synchronized Path getFile() {
+    return m_File;
+  }
+
+  /**
+   * Returns the total number of characters.
+   *
+   * @return		the number of characters
+   */
+  public synchronized long length() {
+    return m_Length + m_Memory.length();
+  }
+
+  /**
+   * Spills the in-memory content to disk if the threshold has been exceeded.
+   */
+  public synchronized void check() {
+    if (m_Memory.length() > m_Threshold)
+      spill();
+  }
+
+  /**
+   * Writes the in-memory content to the temporary file.
+   */
+  protected void spill() {
+    try {
+      if (m_File == null) {
+	if (m_TempDir == null)
+	  m_File = Files.createTempFile(TMP_PREFIX, ".txt");
+	else
+	  m_File = Files.createTempFile(m_TempDir, TMP_PREFIX, ".txt");
+	m_Writer = Files.newBufferedWriter(m_File, StandardCharsets.UTF_8);
+      }
+      m_Writer.append(m_Memory);
+      m_Length += m_Memory.length();
+      m_Memory.setLength(0);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill content to " + m_File, e);
+    }
+  }
+
+  /**
+   * Moves any remaining in-memory content to the temporary file (if already
+   * spilled) and flushes the file.
+   */
+  public synchronized void finish() {
+    if (m_File == null)
+      return;
+    spill();
+    try {
+      m_Writer.flush();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to flush " + m_File, e);
+    }
+  }
+
+  /**
+   * Returns the content as UTF-8 encoded bytes. If spilled, the temporary
+   * file gets memory-mapped.
+   *
+   * @return		the content
+   * @throws IOException	if mapping fails
+   */
+  public synchronized ByteBuffer getBytes() throws IOException {
+    finish();
+    if (m_File == null)
+      return StandardCharsets.UTF_8.encode(m_Memory.toString());
+    try (FileChannel channel = FileChannel.open(m_File, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * Returns a reader for the content. If spilled, the content is read from
+   * the temporary file.
+   *
+   * @return		the reader
+   * @throws IOException	if opening the file fails
+   */
+  public synchronized Reader getReader() throws IOException {
+    finish();
+    if (m_File == null)
+      return new StringReader(m_Memory.toString());
+    return new InputStreamReader(Files.newInputStream(m_File), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Builds a string from the content. If spilled, the content is read from
+   * the temporary file.
+   *
+   * @return		the content
+   */
+  @Override
+  public synchronized String toString() {
+    finish();
+    if (m_File == null)
+      return m_Memory.toString();
+    try {
+      return new String(Files.readAllBytes(m_File), StandardCharsets.UTF_8);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to read " + m_File, e);
+    }
+  }
+
+  /**
+   * Removes the content and deletes the temporary file.
+   *
+   * @throws IOException	if closing/deleting the file fails
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    m_Memory.setLength(0);
+    m_Length = 0;
+    if (m_File != null) {
+      try {
+	m_Writer.close();
+      }
+      finally {
+	Files.deleteIfExists(m_File);
+	m_File   = null;
+	m_Writer = null;
+      }
+    }
+  }
+}
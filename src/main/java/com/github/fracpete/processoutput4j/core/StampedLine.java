@@ -0,0 +1,105 @@
+/*
+ * StampedLine.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Serializable;
+
+/**
+ * Container for a line of output, stamped with a global sequence number and
+ * the time of arrival (as obtained from {@link System#nanoTime()}).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StampedLine
+  implements Serializable, Comparable<StampedLine> {
+
+  private static final long serialVersionUID = 3311406127583436916L;
+
+  /** the sequence number. */
+  protected final long m_Sequence;
+
+  /** the arrival time in nanoseconds. */
+  protected final long m_Timestamp;
+
+  /** whether from stdout or stderr. */
+  protected final boolean m_Stdout;
+
+  /** the line. */
+  protected final String m_Line;
+
+  /**
+   * Initializes the container.
+   *
+   * @param sequence	the sequence number
+   * @param timestamp	the arrival time in nanoseconds
+   * @param stdout	whether from stdout or stderr
+   * @param line	the line
+   */
+  public StampedLine(long sequence, long timestamp, boolean stdout, String line) {
+    m_Sequence  = sequence;
+    m_Timestamp = timestamp;
+    m_Stdout    = stdout;
+    m_Line      = line;
+  }
+
+  /**
+   * Returns the sequence number.
+   *
+   * @return		the sequence number
+   */
+  public long getSequence() {
+    return m_Sequence;
+  }
+
+  /**
+   * Returns the time of arrival.
+   *
+   * @return		the time in nanoseconds, see {@link System#nanoTime()}
+   */
+  public long getTimestamp() {
+    return m_Timestamp;
+  }
+
+  /**
+   * Returns whether the line is from stdout or stderr.
+   *
+   * @return		true if stdout
+   */
+  public boolean isStdout() {
+    return m_Stdout;
+  }
+
+  /**
+   * Returns the line.
+   *
+   * @return		the line
+   */
+  public String getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Compares the sequence numbers.
+   *
+   * @param o		the line to compare with
+   * @return		less than, equal to or greater than zero if the sequence
+   * 			number is less than, equal to or greater than the other one
+   */
+  @Override
+  public int compareTo(StampedLine o) {
+    return Long.compare(m_Sequence, o.m_Sequence);
+  }
+
+  /**
+   * Returns a short description of the line.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Sequence + " " + (m_Stdout ? "[OUT] " : "[ERR] ") + m_Line;
+  }
+}
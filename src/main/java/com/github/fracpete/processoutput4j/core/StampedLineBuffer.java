@@ -0,0 +1,128 @@
+/*
+ * StampedLineBuffer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only buffer for stamped lines, with a single writer (the reader
+ * thread of the stream) and any number of readers. Appending does not
+ * require any locks, as the lines are published via the volatile size.
+ * Readers obtain a consistent snapshot without blocking the writer.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StampedLineBuffer
+  implements Serializable {
+
+  private static final long serialVersionUID = -6204497233904726263L;
+
+  /** the initial capacity. */
+  public final static int INITIAL_CAPACITY = 256;
+
+  /** the lines. */
+  protected volatile StampedLine[] m_Lines;
+
+  /** the number of lines published so far. */
+  protected volatile int m_Size;
+
+  /**
+   * Initializes the buffer.
+   */
+  public StampedLineBuffer() {
+    m_Lines = new StampedLine[INITIAL_CAPACITY];
+    m_Size  = 0;
+  }
+
+  /**
+   * Appends the line. Must only be called from a single thread.
+   *
+   * @param line	the line to append
+   */
+  public void append(StampedLine line) {
+    StampedLine[]	lines;
+    int			size;
+
+    size  = m_Size;
+    lines = m_Lines;
+    if (size == lines.length) {
+      lines   = Arrays.copyOf(lines, lines.length * 2);
+      m_Lines = lines;
+    }
+    lines[size] = line;
+    m_Size      = size + 1;
+  }
+
+  /**
+   * Returns the number of lines.
+   *
+   * @return		the number of lines
+   */
+  public int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the specified line.
+   *
+   * @param index	the index of the line
+   * @return		the line
+   */
+  public StampedLine get(int index) {
+    if ((index < 0) || (index >= m_Size))
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + m_Size);
+    return m_Lines[index];
+  }
+
+  /**
+   * Returns a snapshot of the lines published so far.
+   *
+   * @return		the lines
+   */
+  public StampedLine[] toArray() {
+    int		size;
+
+    // read the size before the array, the array is at least as recent
+    size = m_Size;
+    return Arrays.copyOf(m_Lines, size);
+  }
+
+  /**
+   * Merges the snapshots of the two buffers, ordered by sequence number.
+   *
+   * @param first	the first buffer
+   * @param second	the second buffer
+   * @return		the merged lines
+   */
+  public static List<StampedLine> merge(StampedLineBuffer first, StampedLineBuffer second) {
+    List<StampedLine>	result;
+    StampedLine[]	a;
+    StampedLine[]	b;
+    int			i;
+    int			n;
+
+    a      = first.toArray();
+    b      = second.toArray();
+    result = new ArrayList<>(a.length + b.length);
+    i      = 0;
+    n      = 0;
+    while ((i < a.length) && (n < b.length)) {
+      if (a[i].getSequence() < b[n].getSequence())
+	result.add(a[i++]);
+      else
+	result.add(b[n++]);
+    }
+    while (i < a.length)
+      result.add(a[i++]);
+    while (n < b.length)
+      result.add(b[n++]);
+
+    return result;
+  }
+}
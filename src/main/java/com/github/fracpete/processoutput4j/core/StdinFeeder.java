@@ -0,0 +1,27 @@
+/*
+ * StdinFeeder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interface for classes that feed data into the stdin of a process.
+ * Feeding happens in a separate task, concurrently to reading stdout/stderr.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface StdinFeeder {
+
+  /**
+   * Writes the data to the stdin of the process. The stream gets closed
+   * by the caller afterwards.
+   *
+   * @param stdin	the stdin of the process
+   * @throws IOException	if reading the data or writing to stdin fails
+   */
+  public void feed(OutputStream stdin) throws IOException;
+}
@@ -0,0 +1,144 @@
+/*
+ * StreamMetrics.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * Metrics for a single stream (stdout or stderr) of a process. Only updated
+ * by the reader of the stream, i.e., the values are only guaranteed to be
+ * up-to-date once the reader has finished.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StreamMetrics {
+
+  /** whether stdout or stderr. */
+  protected final boolean m_Stdout;
+
+  /** the time the first byte arrived ({@link System#nanoTime()}), -1 if none yet. */
+  protected long m_FirstByte;
+
+  /** the number of bytes read. */
+  protected long m_Bytes;
+
+  /** the number of lines processed. */
+  protected long m_Lines;
+
+  /** the maximum line length (in characters). */
+  protected int m_MaxLineLength;
+
+  /** the time spent in the reader's callbacks in nanoseconds. */
+  protected long m_CallbackTime;
+
+  /**
+   * Initializes the metrics.
+   *
+   * @param stdout	whether for stdout or stderr
+   */
+  public StreamMetrics(boolean stdout) {
+    m_Stdout    = stdout;
+    m_FirstByte = -1;
+  }
+
+  /**
+   * Returns whether the metrics are for stdout or stderr.
+   *
+   * @return		true if stdout
+   */
+  public boolean isStdout() {
+    return m_Stdout;
+  }
+
+  /**
+   * Records the bytes that were read from the stream.
+   *
+   * @param count	the number of bytes
+   */
+  public void bytesRead(int count) {
+    if (count <= 0)
+      return;
+    if (m_FirstByte == -1)
+      m_FirstByte = System.nanoTime();
+    m_Bytes += count;
+  }
+
+  /**
+   * Records a line that was processed.
+   *
+   * @param length	the length of the line in characters
+   * @param time	the time spent in the callback in nanoseconds
+   */
+  public void lineProcessed(int length, long time) {
+    m_Lines++;
+    if (length > m_MaxLineLength)
+      m_MaxLineLength = length;
+    m_CallbackTime += time;
+  }
+
+  /**
+   * Records a chunk of data that was processed.
+   *
+   * @param time	the time spent in the callback in nanoseconds
+   */
+  public void chunkProcessed(long time) {
+    m_CallbackTime += time;
+  }
+
+  /**
+   * Returns the time the first byte arrived.
+   *
+   * @return		the time ({@link System#nanoTime()}), -1 if no data yet
+   */
+  public long getFirstByte() {
+    return m_FirstByte;
+  }
+
+  /**
+   * Returns the number of bytes that were read.
+   *
+   * @return		the number of bytes
+   */
+  public long getBytes() {
+    return m_Bytes;
+  }
+
+  /**
+   * Returns the number of lines that were processed (0 for readers that
+   * work on raw bytes).
+   *
+   * @return		the number of lines
+   */
+  public long getLines() {
+    return m_Lines;
+  }
+
+  /**
+   * Returns the maximum line length.
+   *
+   * @return		the length in characters
+   */
+  public int getMaxLineLength() {
+    return m_MaxLineLength;
+  }
+
+  /**
+   * Returns the time spent in the reader's callbacks.
+   *
+   * @return		the time in nanoseconds
+   */
+  public long getCallbackTime() {
+    return m_CallbackTime;
+  }
+
+  /**
+   * Returns a short description of the metrics.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "bytes=" + m_Bytes + ", lines=" + m_Lines + ", maxLineLength=" + m_MaxLineLength + ", callbackTime=" + m_CallbackTime;
+  }
+}
@@ -1,12 +1,14 @@
 /*
  * StreamingProcessOwner.java
- * Copyright (C) 2017-2020 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package com.github.fracpete.processoutput4j.core;
 
 import com.github.fracpete.processoutput4j.output.StreamingProcessOutput;
 
+import java.util.List;
+
 /**
  * Interface for classes that make use of {@link StreamingProcessOutput}.
  *
@@ -28,4 +30,22 @@ public interface StreamingProcessOwner {
    * @param stdout	whether stdout or stderr
    */
   public void processOutput(String line, boolean stdout);
+
+  /**
+   * Processes a batch of incoming lines. Gets called if batching has been
+   * enabled in {@link StreamingProcessOutput}, but also by owners that wrap
+   * other owners (e.g., {@link com.github.fracpete.processoutput4j.core.impl.QueuedStreamingProcessOwner},
+   * which forwards the queued lines in batches regardless). The list gets
+   * reused, i.e., it is only valid for the duration of the call.
+   * <br>
+   * Default implementation calls {@link #processOutput(String, boolean)}
+   * for each line.
+   *
+   * @param lines	the lines to process
+   * @param stdout	whether stdout or stderr
+   */
+  public default void processOutputBatch(List<String> lines, boolean stdout) {
+    for (String line: lines)
+      processOutput(line, stdout);
+  }
 }
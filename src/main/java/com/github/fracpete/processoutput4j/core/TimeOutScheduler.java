@@ -0,0 +1,97 @@
+/*
+ * TimeOutScheduler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared scheduler for process timeouts. Rather than using a thread per
+ * process that polls the clock, a deadline gets registered for each process,
+ * which is served by a single thread. The deadline gets cancelled as soon
+ * as the process exits (via {@link Process#onExit()}).
+ * <br>
+ * The actions are executed on the scheduler's thread, i.e., they should
+ * not block for long.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TimeOutScheduler {
+
+  /** the default instance. */
+  protected static TimeOutScheduler m_Default;
+
+  /** the executor for the deadlines. */
+  protected ScheduledThreadPoolExecutor m_Executor;
+
+  /**
+   * Initializes the scheduler.
+   */
+  public TimeOutScheduler() {
+    m_Executor = new ScheduledThreadPoolExecutor(1, ExecutorUtils.newThreadFactory(ExecutorUtils.THREAD_PREFIX + "timeout-"));
+    m_Executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Registers a deadline for the process. The action gets executed exactly
+   * once if the process is still alive once the deadline is reached.
+   *
+   * @param process	the process to monitor
+   * @param timeout	the timeout
+   * @param unit	the unit of the timeout
+   * @param action	the action to execute when the deadline is reached
+   * @return		the future of the deadline, can be used for cancelling it
+   */
+  public ScheduledFuture<?> schedule(final Process process, long timeout, TimeUnit unit, final Runnable action) {
+    final ScheduledFuture<?>	result;
+
+    result = m_Executor.schedule(() -> {
+      if (process.isAlive())
+	action.run();
+    }, timeout, unit);
+    process.onExit().thenRun(() -> result.cancel(false));
+
+    return result;
+  }
+
+  /**
+   * Registers a deadline that is not tied to the lifetime of a process,
+   * e.g., for individual requests. The caller is responsible for cancelling
+   * the deadline once it is no longer needed. Unlike
+   * {@link #schedule(Process, long, TimeUnit, Runnable)}, no exit handler
+   * gets registered with a process, as {@link Process#onExit()} may occupy
+   * a thread per call until the process exits.
+   *
+   * @param timeout	the timeout
+   * @param unit	the unit of the timeout
+   * @param action	the action to execute when the deadline is reached
+   * @return		the future of the deadline, can be used for cancelling it
+   */
+  public ScheduledFuture<?> schedule(long timeout, TimeUnit unit, Runnable action) {
+    return m_Executor.schedule(action, timeout, unit);
+  }
+
+  /**
+   * Returns the number of deadlines that are currently registered.
+   *
+   * @return		the number of deadlines
+   */
+  public int getNumPending() {
+    return m_Executor.getQueue().size();
+  }
+
+  /**
+   * Returns the library-wide default scheduler.
+   *
+   * @return		the scheduler
+   */
+  public static synchronized TimeOutScheduler getDefault() {
+    if (m_Default == null)
+      m_Default = new TimeOutScheduler();
+    return m_Default;
+  }
+}
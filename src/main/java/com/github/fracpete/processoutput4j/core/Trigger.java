@@ -0,0 +1,189 @@
+/*
+ * Trigger.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Fires once a line of output matches its literal or regular expression,
+ * completing its future with the line. The future gets completed on the
+ * thread reading the output, i.e., dependent actions that are not async
+ * should be quick in order to not hold up reading.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Trigger {
+
+  /** the literal to look for (null if using a pattern). */
+  protected String m_Literal;
+
+  /** the regular expression to look for (null if using a literal). */
+  protected Pattern m_Pattern;
+
+  /** what output to inspect. */
+  protected StreamingProcessOutputType m_OutputType;
+
+  /** what to do once fired. */
+  protected TriggerAction m_Action;
+
+  /** the future that gets completed with the matching line. */
+  protected CompletableFuture<String> m_Future;
+
+  /**
+   * Initializes the trigger for a literal.
+   *
+   * @param literal	the literal that the line must contain
+   * @param type	what output to inspect
+   * @param action	what to do once fired
+   */
+  public Trigger(String literal, StreamingProcessOutputType type, TriggerAction action) {
+    this(literal, null, type, action);
+    if (literal.isEmpty())
+      throw new IllegalArgumentException("Literal cannot be empty!");
+  }
+
+  /**
+   * Initializes the trigger for a regular expression.
+   *
+   * @param pattern	the regular expression that must be found in the line
+   * @param type	what output to inspect
+   * @param action	what to do once fired
+   */
+  public Trigger(Pattern pattern, StreamingProcessOutputType type, TriggerAction action) {
+    this(null, pattern, type, action);
+  }
+
+  /**
+   * Initializes the trigger.
+   *
+   * @param literal	the literal, null if using a pattern
+   * @param pattern	the regular expression, null if using a literal
+   * @param type	what output to inspect
+   * @param action	what to do once fired
+   */
+  protected Trigger(String literal, Pattern pattern, StreamingProcessOutputType type, TriggerAction action) {
+    if ((type == null) || (action == null))
+      throw new IllegalArgumentException("Output type and action cannot be null!");
+    m_Literal    = literal;
+    m_Pattern    = pattern;
+    m_OutputType = type;
+    m_Action     = action;
+    m_Future     = new CompletableFuture<>();
+  }
+
+  /**
+   * Returns the literal.
+   *
+   * @return		the literal, null if using a regular expression
+   */
+  public String getLiteral() {
+    return m_Literal;
+  }
+
+  /**
+   * Returns the regular expression.
+   *
+   * @return		the pattern, null if using a literal
+   */
+  public Pattern getPattern() {
+    return m_Pattern;
+  }
+
+  /**
+   * Returns what output gets inspected.
+   *
+   * @return		the output type
+   */
+  public StreamingProcessOutputType getOutputType() {
+    return m_OutputType;
+  }
+
+  /**
+   * Returns what to do once fired.
+   *
+   * @return		the action
+   */
+  public TriggerAction getAction() {
+    return m_Action;
+  }
+
+  /**
+   * Returns the future that gets completed with the matching line.
+   *
+   * @return		the future
+   */
+  public CompletableFuture<String> getFuture() {
+    return m_Future;
+  }
+
+  /**
+   * Returns whether the trigger has fired, failed or been cancelled.
+   *
+   * @return		true if done
+   */
+  public boolean isDone() {
+    return m_Future.isDone();
+  }
+
+  /**
+   * Checks whether the line matches.
+   *
+   * @param line	the line to check
+   * @param stdout	whether stdout or stderr
+   * @return		true if matching
+   */
+  public boolean matches(CharSequence line, boolean stdout) {
+    switch (m_OutputType) {
+      case STDOUT:
+	if (!stdout)
+	  return false;
+	break;
+      case STDERR:
+	if (stdout)
+	  return false;
+	break;
+    }
+
+    if (m_Pattern != null)
+      return m_Pattern.matcher(line).find();
+    if (line instanceof LineView)
+      return ((LineView) line).indexOf(m_Literal) > -1;
+    return line.toString().contains(m_Literal);
+  }
+
+  /**
+   * Fires the trigger.
+   *
+   * @param line	the matching line
+   * @return		true if fired, false if already done
+   */
+  public boolean fire(CharSequence line) {
+    return m_Future.complete(line.toString());
+  }
+
+  /**
+   * Fails the trigger, e.g., when the process finished without any line
+   * matching.
+   *
+   * @param t		the reason
+   * @return		true if failed, false if already done
+   */
+  public boolean fail(Throwable t) {
+    return m_Future.completeExceptionally(t);
+  }
+
+  /**
+   * Returns a short description of the trigger.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return ((m_Pattern != null) ? "pattern=" + m_Pattern.pattern() : "literal=" + m_Literal)
+      + ", output=" + m_OutputType + ", action=" + m_Action;
+  }
+}
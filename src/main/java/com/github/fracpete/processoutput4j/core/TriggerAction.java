@@ -0,0 +1,22 @@
+/*
+ * TriggerAction.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+/**
+ * What to do once a {@link Trigger} has fired.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public enum TriggerAction {
+  /** only completes the future. */
+  NONE,
+  /** no longer forwards lines to the output, but keeps draining the pipes. */
+  STOP_CAPTURE,
+  /** stops capturing and completes the monitoring, leaving the process running. */
+  DETACH,
+  /** destroys the process. */
+  DESTROY,
+}
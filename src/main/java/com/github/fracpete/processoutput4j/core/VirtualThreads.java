@@ -0,0 +1,37 @@
+/*
+ * VirtualThreads.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Helper class for virtual threads. This is the fallback implementation for
+ * runtimes older than Java 21, the multi-release jar contains a Java 21
+ * version that makes use of virtual threads.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class VirtualThreads {
+
+  /**
+   * Returns whether virtual threads are supported by the runtime.
+   *
+   * @return		always false
+   */
+  public static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * Creates a new executor that starts a virtual thread per task.
+   *
+   * @param prefix	the prefix for the thread names
+   * @return		always null
+   */
+  public static ExecutorService newExecutor(String prefix) {
+    return null;
+  }
+}
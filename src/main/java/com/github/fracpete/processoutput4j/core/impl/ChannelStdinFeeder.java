@@ -0,0 +1,142 @@
+/*
+ * ChannelStdinFeeder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Feeds the content of a channel into stdin. The channel does not get closed.
+ * {@link FileChannel}s are transferred via {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * starting from the channel's current position (falling back to copying
+ * via a buffer if no progress is made, e.g., when the file got truncated).
+ * Channels that are in non-blocking mode get waited on with a back-off of up
+ * to {@link #MAX_BACKOFF} milliseconds when they have no data.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ChannelStdinFeeder
+  implements StdinFeeder {
+
+  /** the buffer size in bytes. */
+  public final static int BUFFER_SIZE = 65536;
+
+  /** the maximum back-off in milliseconds for non-blocking channels. */
+  public final static int MAX_BACKOFF = 50;
+
+  /** the input. */
+  protected ReadableByteChannel m_Input;
+
+  /**
+   * Initializes the feeder.
+   *
+   * @param input	the channel to feed
+   */
+  public ChannelStdinFeeder(ReadableByteChannel input) {
+    m_Input = input;
+  }
+
+  /**
+   * Transfers the remaining content of the file channel. Falls back to
+   * copying once the transfer makes no progress.
+   *
+   * @param file	the file channel to transfer
+   * @param target	the channel to transfer to
+   * @throws IOException	if transfer fails
+   */
+  protected void transfer(FileChannel file, WritableByteChannel target) throws IOException {
+    long	pos;
+    long	size;
+    long	count;
+
+    pos  = file.position();
+    size = file.size();
+    while (pos < size) {
+      count = file.transferTo(pos, size - pos, target);
+      if (count <= 0)
+	break;
+      pos += count;
+    }
+    file.position(pos);
+    if (pos < size)
+      copy(file, target);
+  }
+
+  /**
+   * Waits before retrying a channel that made no progress.
+   *
+   * @param backoff	the current back-off in milliseconds
+   * @return		the next back-off
+   * @throws IOException	if interrupted
+   */
+  protected int backoff(int backoff) throws IOException {
+    try {
+      Thread.sleep(backoff);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while feeding stdin!");
+    }
+    return Math.min(backoff * 2, MAX_BACKOFF);
+  }
+
+  /**
+   * Copies the content of the channel via a buffer.
+   *
+   * @param source	the channel to read from
+   * @param target	the channel to write to
+   * @throws IOException	if copying fails
+   */
+  protected void copy(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+    ByteBuffer	buffer;
+    int		backoff;
+
+    buffer  = ByteBuffer.allocate(BUFFER_SIZE);
+    backoff = 1;
+    while (source.read(buffer) != -1) {
+      if (buffer.position() == 0) {
+	// non-blocking channel without data
+	backoff = backoff(backoff);
+	continue;
+      }
+      backoff = 1;
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+	if (target.write(buffer) == 0)
+	  backoff = backoff(backoff);
+	else
+	  backoff = 1;
+      }
+      buffer.clear();
+    }
+  }
+
+  /**
+   * Writes the data to the stdin of the process.
+   *
+   * @param stdin	the stdin of the process
+   * @throws IOException	if reading the data or writing to stdin fails
+   */
+  @Override
+  public void feed(OutputStream stdin) throws IOException {
+    WritableByteChannel	target;
+
+    target = Channels.newChannel(stdin);
+    if (m_Input instanceof FileChannel)
+      transfer((FileChannel) m_Input, target);
+    else
+      copy(m_Input, target);
+    stdin.flush();
+  }
+}
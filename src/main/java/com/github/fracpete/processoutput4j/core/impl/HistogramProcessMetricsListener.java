@@ -0,0 +1,262 @@
+/*
+ * HistogramProcessMetricsListener.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.Histogram;
+import com.github.fracpete.processoutput4j.core.ProcessMetrics;
+import com.github.fracpete.processoutput4j.core.ProcessMetricsListener;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the metrics of all the processes it gets notified about in
+ * in-memory histograms (times in nanoseconds), which can be exported by
+ * the caller. One listener instance can be shared by many outputs.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class HistogramProcessMetricsListener
+  implements Serializable, ProcessMetricsListener {
+
+  private static final long serialVersionUID = 2830470416158386386L;
+
+  /** the number of started processes. */
+  protected AtomicLong m_Started;
+
+  /** the number of finished processes. */
+  protected AtomicLong m_Finished;
+
+  /** the number of timed out processes. */
+  protected AtomicLong m_TimedOut;
+
+  /** the number of destroyed processes. */
+  protected AtomicLong m_Destroyed;
+
+  /** the spawn durations. */
+  protected Histogram m_SpawnDuration;
+
+  /** the times until the first byte on stdout. */
+  protected Histogram m_TimeToFirstByteStdOut;
+
+  /** the times until the first byte on stderr. */
+  protected Histogram m_TimeToFirstByteStdErr;
+
+  /** the run times of the processes. */
+  protected Histogram m_RunTime;
+
+  /** the times between exit and EOF. */
+  protected Histogram m_DrainLag;
+
+  /** the time spent in the reader callbacks per process. */
+  protected Histogram m_CallbackTime;
+
+  /** the bytes per process (stdout + stderr). */
+  protected Histogram m_Bytes;
+
+  /** the lines per process (stdout + stderr). */
+  protected Histogram m_Lines;
+
+  /** the maximum line length per process. */
+  protected Histogram m_MaxLineLength;
+
+  /**
+   * Initializes the listener.
+   */
+  public HistogramProcessMetricsListener() {
+    m_Started               = new AtomicLong();
+    m_Finished              = new AtomicLong();
+    m_TimedOut              = new AtomicLong();
+    m_Destroyed             = new AtomicLong();
+    m_SpawnDuration         = new Histogram();
+    m_TimeToFirstByteStdOut = new Histogram();
+    m_TimeToFirstByteStdErr = new Histogram();
+    m_RunTime               = new Histogram();
+    m_DrainLag              = new Histogram();
+    m_CallbackTime          = new Histogram();
+    m_Bytes                 = new Histogram();
+    m_Lines                 = new Histogram();
+    m_MaxLineLength         = new Histogram();
+  }
+
+  /**
+   * Records the spawn duration.
+   *
+   * @param metrics	the metrics of the process
+   */
+  @Override
+  public void processStarted(ProcessMetrics metrics) {
+    m_Started.incrementAndGet();
+    m_SpawnDuration.add(metrics.getSpawnDuration());
+  }
+
+  /**
+   * Counts the timeout.
+   *
+   * @param metrics	the metrics of the process
+   */
+  @Override
+  public void processTimedOut(ProcessMetrics metrics) {
+    m_TimedOut.incrementAndGet();
+  }
+
+  /**
+   * Counts the destruction.
+   *
+   * @param metrics	the metrics of the process
+   */
+  @Override
+  public void processDestroyed(ProcessMetrics metrics) {
+    m_Destroyed.incrementAndGet();
+  }
+
+  /**
+   * Records the metrics of the finished process.
+   *
+   * @param metrics	the metrics of the process
+   */
+  @Override
+  public void processFinished(ProcessMetrics metrics) {
+    m_Finished.incrementAndGet();
+    m_TimeToFirstByteStdOut.add(metrics.getTimeToFirstByte(true));
+    m_TimeToFirstByteStdErr.add(metrics.getTimeToFirstByte(false));
+    m_RunTime.add(metrics.getRunTime());
+    m_DrainLag.add(metrics.getDrainLag());
+    m_CallbackTime.add(metrics.getStdOut().getCallbackTime() + metrics.getStdErr().getCallbackTime());
+    m_Bytes.add(metrics.getStdOut().getBytes() + metrics.getStdErr().getBytes());
+    m_Lines.add(metrics.getStdOut().getLines() + metrics.getStdErr().getLines());
+    m_MaxLineLength.add(Math.max(metrics.getStdOut().getMaxLineLength(), metrics.getStdErr().getMaxLineLength()));
+  }
+
+  /**
+   * Returns the number of started processes.
+   *
+   * @return		the number
+   */
+  public long getStarted() {
+    return m_Started.get();
+  }
+
+  /**
+   * Returns the number of finished processes.
+   *
+   * @return		the number
+   */
+  public long getFinished() {
+    return m_Finished.get();
+  }
+
+  /**
+   * Returns the number of processes that timed out.
+   *
+   * @return		the number
+   */
+  public long getTimedOut() {
+    return m_TimedOut.get();
+  }
+
+  /**
+   * Returns the number of processes that got destroyed.
+   *
+   * @return		the number
+   */
+  public long getDestroyed() {
+    return m_Destroyed.get();
+  }
+
+  /**
+   * Returns the histogram of spawn durations.
+   *
+   * @return		the histogram
+   */
+  public Histogram getSpawnDuration() {
+    return m_SpawnDuration;
+  }
+
+  /**
+   * Returns the histogram of times until the first byte arrived.
+   *
+   * @param stdout	whether for stdout or stderr
+   * @return		the histogram
+   */
+  public Histogram getTimeToFirstByte(boolean stdout) {
+    return stdout ? m_TimeToFirstByteStdOut : m_TimeToFirstByteStdErr;
+  }
+
+  /**
+   * Returns the histogram of run times.
+   *
+   * @return		the histogram
+   */
+  public Histogram getRunTime() {
+    return m_RunTime;
+  }
+
+  /**
+   * Returns the histogram of times between exit and EOF.
+   *
+   * @return		the histogram
+   */
+  public Histogram getDrainLag() {
+    return m_DrainLag;
+  }
+
+  /**
+   * Returns the histogram of the time spent in the reader callbacks per process.
+   *
+   * @return		the histogram
+   */
+  public Histogram getCallbackTime() {
+    return m_CallbackTime;
+  }
+
+  /**
+   * Returns the histogram of bytes per process.
+   *
+   * @return		the histogram
+   */
+  public Histogram getBytes() {
+    return m_Bytes;
+  }
+
+  /**
+   * Returns the histogram of lines per process.
+   *
+   * @return		the histogram
+   */
+  public Histogram getLines() {
+    return m_Lines;
+  }
+
+  /**
+   * Returns the histogram of maximum line lengths per process.
+   *
+   * @return		the histogram
+   */
+  public Histogram getMaxLineLength() {
+    return m_MaxLineLength;
+  }
+
+  /**
+   * Returns a summary of the metrics.
+   *
+   * @return		the summary
+   */
+  @Override
+  public String toString() {
+    return "started=" + getStarted() + ", finished=" + getFinished()
+      + ", timedOut=" + getTimedOut() + ", destroyed=" + getDestroyed() + "\n"
+      + "spawn: " + m_SpawnDuration + "\n"
+      + "ttfb stdout: " + m_TimeToFirstByteStdOut + "\n"
+      + "ttfb stderr: " + m_TimeToFirstByteStdErr + "\n"
+      + "run time: " + m_RunTime + "\n"
+      + "drain lag: " + m_DrainLag + "\n"
+      + "callback time: " + m_CallbackTime + "\n"
+      + "bytes: " + m_Bytes + "\n"
+      + "lines: " + m_Lines + "\n"
+      + "max line length: " + m_MaxLineLength;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * InputStreamStdinFeeder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Feeds the content of an input stream into stdin. The input stream does
+ * not get closed.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class InputStreamStdinFeeder
+  implements StdinFeeder {
+
+  /** the input. */
+  protected InputStream m_Input;
+
+  /**
+   * Initializes the feeder.
+   *
+   * @param input	the stream to feed
+   */
+  public InputStreamStdinFeeder(InputStream input) {
+    m_Input = input;
+  }
+
+  /**
+   * Writes the data to the stdin of the process.
+   *
+   * @param stdin	the stdin of the process
+   * @throws IOException	if reading the data or writing to stdin fails
+   */
+  @Override
+  public void feed(OutputStream stdin) throws IOException {
+    m_Input.transferTo(stdin);
+    stdin.flush();
+  }
+}
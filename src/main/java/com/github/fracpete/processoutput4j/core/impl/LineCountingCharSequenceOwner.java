@@ -0,0 +1,96 @@
+/*
+ * LineCountingCharSequenceOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.CharSequenceOwner;
+import com.github.fracpete.processoutput4j.core.LineView;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+
+/**
+ * Simply counts the lines and characters that the process outputs on
+ * stdout/stderr, without retaining any of the lines.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LineCountingCharSequenceOwner
+  implements CharSequenceOwner {
+
+  /** the number of lines on stdout. */
+  protected volatile long m_StdOutLines;
+
+  /** the number of characters on stdout (excl line breaks). */
+  protected volatile long m_StdOutChars;
+
+  /** the number of lines on stderr. */
+  protected volatile long m_StdErrLines;
+
+  /** the number of characters on stderr (excl line breaks). */
+  protected volatile long m_StdErrChars;
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		StreamingProcessOutputType#BOTH
+   */
+  @Override
+  public StreamingProcessOutputType getOutputType() {
+    return StreamingProcessOutputType.BOTH;
+  }
+
+  /**
+   * Processes the incoming line.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  @Override
+  public void processLine(LineView line, boolean stdout) {
+    if (stdout) {
+      m_StdOutLines++;
+      m_StdOutChars += line.length();
+    }
+    else {
+      m_StdErrLines++;
+      m_StdErrChars += line.length();
+    }
+  }
+
+  /**
+   * Returns the number of lines output on stdout.
+   *
+   * @return		the number of lines
+   */
+  public long getStdOutLines() {
+    return m_StdOutLines;
+  }
+
+  /**
+   * Returns the number of characters output on stdout (excl line breaks).
+   *
+   * @return		the number of characters
+   */
+  public long getStdOutChars() {
+    return m_StdOutChars;
+  }
+
+  /**
+   * Returns the number of lines output on stderr.
+   *
+   * @return		the number of lines
+   */
+  public long getStdErrLines() {
+    return m_StdErrLines;
+  }
+
+  /**
+   * Returns the number of characters output on stderr (excl line breaks).
+   *
+   * @return		the number of characters
+   */
+  public long getStdErrChars() {
+    return m_StdErrChars;
+  }
+}
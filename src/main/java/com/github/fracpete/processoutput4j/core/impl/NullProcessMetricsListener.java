@@ -0,0 +1,62 @@
+/*
+ * NullProcessMetricsListener.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.ProcessMetrics;
+import com.github.fracpete.processoutput4j.core.ProcessMetricsListener;
+
+import java.io.Serializable;
+
+/**
+ * Dummy listener that ignores all metrics. When in use, no metrics get
+ * collected at all.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class NullProcessMetricsListener
+  implements Serializable, ProcessMetricsListener {
+
+  private static final long serialVersionUID = 7342214542151813408L;
+
+  /** the singleton. */
+  public final static NullProcessMetricsListener INSTANCE = new NullProcessMetricsListener();
+
+  /**
+   * Does nothing.
+   *
+   * @param metrics	ignored
+   */
+  @Override
+  public void processStarted(ProcessMetrics metrics) {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param metrics	ignored
+   */
+  @Override
+  public void processTimedOut(ProcessMetrics metrics) {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param metrics	ignored
+   */
+  @Override
+  public void processDestroyed(ProcessMetrics metrics) {
+  }
+
+  /**
+   * Does nothing.
+   *
+   * @param metrics	ignored
+   */
+  @Override
+  public void processFinished(ProcessMetrics metrics) {
+  }
+}
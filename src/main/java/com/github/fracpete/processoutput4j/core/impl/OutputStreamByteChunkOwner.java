@@ -0,0 +1,80 @@
+/*
+ * OutputStreamByteChunkOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.ByteChunkOwner;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the raw bytes from the process' stdout/stderr to the supplied
+ * output streams (e.g., a file or this process' stdout/stderr).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class OutputStreamByteChunkOwner
+  implements ByteChunkOwner {
+
+  /** the stream for stdout. */
+  protected OutputStream m_StdOut;
+
+  /** the stream for stderr. */
+  protected OutputStream m_StdErr;
+
+  /**
+   * Forwards the bytes to this process' stdout/stderr.
+   */
+  public OutputStreamByteChunkOwner() {
+    this(System.out, System.err);
+  }
+
+  /**
+   * Forwards the bytes to the specified streams.
+   *
+   * @param stdOut	the stream for stdout, null to ignore stdout
+   * @param stdErr	the stream for stderr, null to ignore stderr
+   */
+  public OutputStreamByteChunkOwner(OutputStream stdOut, OutputStream stdErr) {
+    m_StdOut = stdOut;
+    m_StdErr = stdErr;
+  }
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type, depending on which streams were provided
+   */
+  public StreamingProcessOutputType getOutputType() {
+    if (m_StdErr == null)
+      return StreamingProcessOutputType.STDOUT;
+    else if (m_StdOut == null)
+      return StreamingProcessOutputType.STDERR;
+    else
+      return StreamingProcessOutputType.BOTH;
+  }
+
+  /**
+   * Processes the incoming chunk of raw bytes.
+   *
+   * @param chunk	the chunk to process
+   * @param stdout	whether stdout or stderr
+   */
+  public void processChunk(ByteBuffer chunk, boolean stdout) {
+    try {
+      if (stdout)
+	m_StdOut.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+      else
+	m_StdErr.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * PathStdinFeeder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Feeds the content of a file into stdin, using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ * <br>
+ * Note: the output classes do not use the feeder when launching processes
+ * directly, they redirect stdin of the process from the file instead.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PathStdinFeeder
+  implements StdinFeeder {
+
+  /** the file to feed. */
+  protected Path m_File;
+
+  /**
+   * Initializes the feeder.
+   *
+   * @param file	the file to feed
+   */
+  public PathStdinFeeder(Path file) {
+    m_File = file;
+  }
+
+  /**
+   * Returns the file to feed.
+   *
+   * @return		the file
+   */
+  public Path getFile() {
+    return m_File;
+  }
+
+  /**
+   * Writes the data to the stdin of the process.
+   *
+   * @param stdin	the stdin of the process
+   * @throws IOException	if reading the file or writing to stdin fails
+   */
+  @Override
+  public void feed(OutputStream stdin) throws IOException {
+    try (FileChannel channel = FileChannel.open(m_File, StandardOpenOption.READ)) {
+      new ChannelStdinFeeder(channel).feed(stdin);
+    }
+  }
+}
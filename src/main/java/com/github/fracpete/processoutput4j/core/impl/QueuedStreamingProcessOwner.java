@@ -0,0 +1,454 @@
+/*
+ * QueuedStreamingProcessOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.core.OverflowPolicy;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decouples the readers from a (slow) owner via a bounded queue. The lines
+ * get forwarded to the owner by a separate consumer task, which only runs
+ * while there are lines in the queue. When the queue is full, the
+ * {@link OverflowPolicy} determines what happens. With
+ * {@link OverflowPolicy#COALESCE}, the new line gets attached to the most
+ * recently queued entry (same stream only), up to a total of capacity
+ * attached lines; after that, it blocks. Attached lines get forwarded via
+ * {@link StreamingProcessOwner#processOutputBatch(List, boolean)}.
+ * <br>
+ * By default, the consumers of all instances share an unbounded executor
+ * whose idle threads get discarded after {@link ExecutorUtils#KEEP_ALIVE}
+ * seconds (see {@link #getDefaultExecutor()}). A custom executor must not
+ * be the one that runs the readers: with a bounded pool and
+ * {@link OverflowPolicy#BLOCK}, the readers could occupy all of its threads
+ * while waiting for space in the queue, with the consumer never starting.
+ * <br>
+ * {@link #flush()} waits until all queued lines have been forwarded;
+ * {@link com.github.fracpete.processoutput4j.output.StreamingProcessOutput}
+ * calls it automatically once the process has finished.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class QueuedStreamingProcessOwner
+  implements StreamingProcessOwner, Flushable {
+
+  /** the default capacity. */
+  public final static int DEFAULT_CAPACITY = 10000;
+
+  /** the shared executor for the consumers. */
+  protected static ExecutorService m_DefaultExecutor;
+
+  /** the owner to forward the lines to. */
+  protected StreamingProcessOwner m_Owner;
+
+  /** the capacity. */
+  protected int m_Capacity;
+
+  /** the overflow policy. */
+  protected OverflowPolicy m_Policy;
+
+  /** the queued lines (ring buffer). */
+  protected String[] m_Lines;
+
+  /** whether the queued lines are from stdout or stderr. */
+  protected boolean[] m_Stdout;
+
+  /** the lines attached to the queued lines when coalescing (null if none). */
+  protected List<List<String>> m_Attached;
+
+  /** the number of attached lines currently queued. */
+  protected int m_NumAttached;
+
+  /** the index of the oldest line. */
+  protected int m_Head;
+
+  /** the number of queued lines. */
+  protected int m_Size;
+
+  /** whether the consumer is active. */
+  protected boolean m_Consuming;
+
+  /** the number of dropped lines. */
+  protected long m_Dropped;
+
+  /** the number of coalesced lines. */
+  protected long m_Coalesced;
+
+  /** the maximum number of queued lines so far. */
+  protected int m_HighWaterMark;
+
+  /** the lock. */
+  protected ReentrantLock m_Lock;
+
+  /** for signaling that space is available. */
+  protected Condition m_NotFull;
+
+  /** for signaling that the queue got drained. */
+  protected Condition m_Drained;
+
+  /** the error logger. */
+  protected ErrorLogger m_ErrorLogger;
+
+  /** the executor for running the consumer. */
+  protected Executor m_Executor;
+
+  /**
+   * Initializes the owner with default capacity and blocking when full.
+   *
+   * @param owner	the owner to forward the lines to
+   * @see		#DEFAULT_CAPACITY
+   */
+  public QueuedStreamingProcessOwner(StreamingProcessOwner owner) {
+    this(owner, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+  }
+
+  /**
+   * Initializes the owner.
+   *
+   * @param owner	the owner to forward the lines to
+   * @param capacity	the maximum number of lines to queue
+   * @param policy	what to do when the queue is full
+   */
+  public QueuedStreamingProcessOwner(StreamingProcessOwner owner, int capacity, OverflowPolicy policy) {
+    this(owner, capacity, policy, getDefaultExecutor());
+  }
+
+  /**
+   * Initializes the owner.
+   *
+   * @param owner	the owner to forward the lines to
+   * @param capacity	the maximum number of lines to queue
+   * @param policy	what to do when the queue is full
+   * @param executor	the executor for running the consumer, must differ
+   * 			from the one that runs the readers
+   */
+  public QueuedStreamingProcessOwner(StreamingProcessOwner owner, int capacity, OverflowPolicy policy, Executor executor) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("Capacity must be at least 1, provided: " + capacity);
+
+    m_Owner       = owner;
+    m_Capacity    = capacity;
+    m_Policy      = policy;
+    m_Lines       = new String[capacity];
+    m_Stdout      = new boolean[capacity];
+    m_Attached    = new ArrayList<>(Collections.nCopies(capacity, null));
+    m_Lock        = new ReentrantLock();
+    m_NotFull     = m_Lock.newCondition();
+    m_Drained     = m_Lock.newCondition();
+    m_ErrorLogger = new StderrErrorLogger();
+    m_Executor    = executor;
+  }
+
+  /**
+   * Returns the executor that the consumers use by default, shared by all
+   * instances.
+   *
+   * @return		the executor
+   */
+  public static synchronized ExecutorService getDefaultExecutor() {
+    if (m_DefaultExecutor == null)
+      m_DefaultExecutor = ExecutorUtils.newExecutor(0);
+    return m_DefaultExecutor;
+  }
+
+  /**
+   * Returns the owner that the lines get forwarded to.
+   *
+   * @return		the owner
+   */
+  public StreamingProcessOwner getOwner() {
+    return m_Owner;
+  }
+
+  /**
+   * Returns the capacity of the queue.
+   *
+   * @return		the capacity
+   */
+  public int getCapacity() {
+    return m_Capacity;
+  }
+
+  /**
+   * Returns the overflow policy.
+   *
+   * @return		the policy
+   */
+  public OverflowPolicy getPolicy() {
+    return m_Policy;
+  }
+
+  /**
+   * Sets the error logger to use for exceptions thrown by the owner.
+   *
+   * @param value	the logger
+   */
+  public void setErrorLogger(ErrorLogger value) {
+    m_ErrorLogger = value;
+  }
+
+  /**
+   * Returns the number of lines that got dropped.
+   *
+   * @return		the number of lines
+   */
+  public long getDropped() {
+    m_Lock.lock();
+    try {
+      return m_Dropped;
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of lines that got coalesced with a queued line.
+   *
+   * @return		the number of lines
+   */
+  public long getCoalesced() {
+    m_Lock.lock();
+    try {
+      return m_Coalesced;
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the maximum number of lines that were queued at the same time.
+   *
+   * @return		the high-water mark
+   */
+  public int getHighWaterMark() {
+    m_Lock.lock();
+    try {
+      return m_HighWaterMark;
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of lines currently queued (incl coalesced ones).
+   *
+   * @return		the number of lines
+   */
+  public int getQueued() {
+    m_Lock.lock();
+    try {
+      return m_Size + m_NumAttached;
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type of the owner
+   */
+  @Override
+  public StreamingProcessOutputType getOutputType() {
+    return m_Owner.getOutputType();
+  }
+
+  /**
+   * Queues the incoming line.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  @Override
+  public void processOutput(String line, boolean stdout) {
+    m_Lock.lock();
+    try {
+      enqueue(line, stdout);
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Queues the incoming lines, acquiring the lock only once.
+   *
+   * @param lines	the lines to process
+   * @param stdout	whether stdout or stderr
+   */
+  @Override
+  public void processOutputBatch(List<String> lines, boolean stdout) {
+    m_Lock.lock();
+    try {
+      for (String line: lines)
+	enqueue(line, stdout);
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+
+  /**
+   * Queues the line, applying the overflow policy if necessary. Starts the
+   * consumer if not active. Lock must be held.
+   *
+   * @param line	the line to queue
+   * @param stdout	whether stdout or stderr
+   */
+  protected void enqueue(String line, boolean stdout) {
+    List<String>	attached;
+    int			tail;
+
+    while (m_Size == m_Capacity) {
+      if (m_Policy == OverflowPolicy.DROP_NEWEST) {
+	m_Dropped++;
+	return;
+      }
+      else if (m_Policy == OverflowPolicy.DROP_OLDEST) {
+	m_Dropped += remove(m_Head, null);
+	m_Head = (m_Head + 1) % m_Capacity;
+	m_Size--;
+      }
+      else if ((m_Policy == OverflowPolicy.COALESCE)
+	&& (m_NumAttached < m_Capacity)
+	&& (m_Stdout[(m_Head + m_Size - 1) % m_Capacity] == stdout)) {
+	tail     = (m_Head + m_Size - 1) % m_Capacity;
+	attached = m_Attached.get(tail);
+	if (attached == null) {
+	  attached = new ArrayList<>();
+	  m_Attached.set(tail, attached);
+	}
+	attached.add(line);
+	m_NumAttached++;
+	m_Coalesced++;
+	return;
+      }
+      else {
+	m_NotFull.awaitUninterruptibly();
+      }
+    }
+
+    tail = (m_Head + m_Size) % m_Capacity;
+    m_Lines[tail]  = line;
+    m_Stdout[tail] = stdout;
+    m_Size++;
+    if (m_Size > m_HighWaterMark)
+      m_HighWaterMark = m_Size;
+
+    if (!m_Consuming) {
+      m_Consuming = true;
+      m_Executor.execute(this::consume);
+    }
+  }
+
+  /**
+   * Removes the line and its attached lines from the slot. Does not update
+   * head and size. Lock must be held.
+   *
+   * @param index	the slot
+   * @param lines	for adding the removed lines to, can be null
+   * @return		the number of removed lines
+   */
+  protected int remove(int index, List<String> lines) {
+    List<String>	attached;
+    int			result;
+
+    result = 1;
+    if (lines != null)
+      lines.add(m_Lines[index]);
+    m_Lines[index] = null;
+
+    attached = m_Attached.get(index);
+    if (attached != null) {
+      if (lines != null)
+	lines.addAll(attached);
+      result        += attached.size();
+      m_NumAttached -= attached.size();
+      m_Attached.set(index, null);
+    }
+
+    return result;
+  }
+
+  /**
+   * Forwards the queued lines to the owner, until the queue is empty.
+   * Consecutive lines from the same stream are forwarded as a batch.
+   */
+  protected void consume() {
+    List<String>	batch;
+    boolean		stdout;
+
+    batch = new ArrayList<>();
+    while (true) {
+      m_Lock.lock();
+      try {
+	if (m_Size == 0) {
+	  m_Consuming = false;
+	  m_Drained.signalAll();
+	  return;
+	}
+	stdout = m_Stdout[m_Head];
+	while ((m_Size > 0) && (m_Stdout[m_Head] == stdout)) {
+	  remove(m_Head, batch);
+	  m_Head = (m_Head + 1) % m_Capacity;
+	  m_Size--;
+	}
+	m_NotFull.signalAll();
+      }
+      finally {
+	m_Lock.unlock();
+      }
+
+      try {
+	if (batch.size() == 1)
+	  m_Owner.processOutput(batch.get(0), stdout);
+	else
+	  m_Owner.processOutputBatch(batch, stdout);
+      }
+      catch (Exception e) {
+	m_ErrorLogger.logError("Failed to forward lines to owner!", e);
+      }
+      batch.clear();
+    }
+  }
+
+  /**
+   * Waits until all queued lines have been forwarded to the owner.
+   *
+   * @throws IOException	if interrupted while waiting
+   */
+  @Override
+  public void flush() throws IOException {
+    m_Lock.lock();
+    try {
+      while (m_Consuming)
+	m_Drained.await();
+    }
+    catch (InterruptedException e) {
+      throw new InterruptedIOException("Interrupted while waiting for queue to drain!");
+    }
+    finally {
+      m_Lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * RoutingStreamingProcessOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.LineSink;
+import com.github.fracpete.processoutput4j.core.MultiPatternMatcher;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Routes the lines to the sinks of the literal and regular expression
+ * patterns that they match, e.g., for classifying errors and warnings in
+ * the output of a build. All patterns get compiled into a single
+ * {@link MultiPatternMatcher}, i.e., each line gets scanned only once,
+ * regardless of the number of patterns. The number of matches per pattern
+ * are counted.
+ * <br>
+ * Patterns can be added at any time, the matcher gets recompiled with the
+ * next line.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class RoutingStreamingProcessOwner
+  implements StreamingProcessOwner {
+
+  /**
+   * The compiled routes.
+   */
+  protected static class Routes {
+
+    /** the matcher. */
+    public MultiPatternMatcher matcher;
+
+    /** the sinks per pattern (elements can be null). */
+    public LineSink[] sinks;
+
+    /** the counters per pattern. */
+    public LongAdder[] counts;
+  }
+
+  /** what output to forward. */
+  protected StreamingProcessOutputType m_OutputType;
+
+  /** the patterns (String for literals, Pattern for regular expressions). */
+  protected List<Object> m_Patterns;
+
+  /** the sinks. */
+  protected List<LineSink> m_Sinks;
+
+  /** the match counters. */
+  protected List<LongAdder> m_Counts;
+
+  /** the sink for lines that matched no pattern (can be null). */
+  protected LineSink m_UnmatchedSink;
+
+  /** the number of lines that matched no pattern. */
+  protected LongAdder m_Unmatched;
+
+  /** whether to only route to the first matching pattern. */
+  protected boolean m_FirstMatchOnly;
+
+  /** the compiled routes (null if they need compiling). */
+  protected volatile Routes m_Routes;
+
+  /** the buffer for the matching pattern IDs. */
+  protected ThreadLocal<int[]> m_Matches;
+
+  /**
+   * Initializes the router for stdout and stderr.
+   */
+  public RoutingStreamingProcessOwner() {
+    this(StreamingProcessOutputType.BOTH);
+  }
+
+  /**
+   * Initializes the router.
+   *
+   * @param type	what output to route
+   */
+  public RoutingStreamingProcessOwner(StreamingProcessOutputType type) {
+    m_OutputType = type;
+    m_Patterns   = new ArrayList<>();
+    m_Sinks      = new ArrayList<>();
+    m_Counts     = new ArrayList<>();
+    m_Unmatched  = new LongAdder();
+    m_Matches    = ThreadLocal.withInitial(() -> new int[0]);
+  }
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return 		the output type
+   */
+  @Override
+  public StreamingProcessOutputType getOutputType() {
+    return m_OutputType;
+  }
+
+  /**
+   * Adds the pattern.
+   *
+   * @param pattern	the literal or regular expression
+   * @param sink	the sink for the matching lines, null to only count
+   * @return		the ID of the pattern
+   */
+  protected synchronized int add(Object pattern, LineSink sink) {
+    m_Patterns.add(pattern);
+    m_Sinks.add(sink);
+    m_Counts.add(new LongAdder());
+    m_Routes = null;
+    return m_Patterns.size() - 1;
+  }
+
+  /**
+   * Adds a literal pattern, matching lines that contain the literal.
+   *
+   * @param literal	the literal to look for
+   * @param sink	the sink for the matching lines, null to only count
+   * @return		the ID of the pattern
+   */
+  public int addLiteral(String literal, LineSink sink) {
+    if (literal.isEmpty())
+      throw new IllegalArgumentException("Literal cannot be empty!");
+    return add(literal, sink);
+  }
+
+  /**
+   * Adds a regular expression, matching lines that it can be found in.
+   *
+   * @param regex	the regular expression
+   * @param sink	the sink for the matching lines, null to only count
+   * @return		the ID of the pattern
+   */
+  public int addRegex(String regex, LineSink sink) {
+    return addRegex(Pattern.compile(regex), sink);
+  }
+
+  /**
+   * Adds a regular expression, matching lines that it can be found in.
+   *
+   * @param regex	the regular expression
+   * @param sink	the sink for the matching lines, null to only count
+   * @return		the ID of the pattern
+   */
+  public int addRegex(Pattern regex, LineSink sink) {
+    return add(regex, sink);
+  }
+
+  /**
+   * Returns the number of patterns.
+   *
+   * @return		the number of patterns
+   */
+  public synchronized int getNumPatterns() {
+    return m_Patterns.size();
+  }
+
+  /**
+   * Sets the sink for the lines that matched no pattern.
+   *
+   * @param value	the sink, null to discard the lines
+   */
+  public void setUnmatchedSink(LineSink value) {
+    m_UnmatchedSink = value;
+  }
+
+  /**
+   * Returns the sink for the lines that matched no pattern.
+   *
+   * @return		the sink, null if discarding the lines
+   */
+  public LineSink getUnmatchedSink() {
+    return m_UnmatchedSink;
+  }
+
+  /**
+   * Sets whether to only route a line to the first matching pattern (in the
+   * order the patterns were added) or to all of them.
+   *
+   * @param value	true if only the first
+   */
+  public void setFirstMatchOnly(boolean value) {
+    m_FirstMatchOnly = value;
+  }
+
+  /**
+   * Returns whether to only route a line to the first matching pattern (in
+   * the order the patterns were added) or to all of them.
+   *
+   * @return		true if only the first
+   */
+  public boolean getFirstMatchOnly() {
+    return m_FirstMatchOnly;
+  }
+
+  /**
+   * Returns the number of lines that matched the pattern (and got routed to
+   * its sink).
+   *
+   * @param id		the ID of the pattern
+   * @return		the number of lines
+   */
+  public synchronized long getCount(int id) {
+    return m_Counts.get(id).sum();
+  }
+
+  /**
+   * Returns the number of lines per pattern.
+   *
+   * @return		the number of lines, indexed by pattern ID
+   */
+  public synchronized long[] getCounts() {
+    long[]	result;
+    int		i;
+
+    result = new long[m_Counts.size()];
+    for (i = 0; i < result.length; i++)
+      result[i] = m_Counts.get(i).sum();
+
+    return result;
+  }
+
+  /**
+   * Returns the number of lines that matched no pattern.
+   *
+   * @return		the number of lines
+   */
+  public long getUnmatchedCount() {
+    return m_Unmatched.sum();
+  }
+
+  /**
+   * Resets all counters.
+   */
+  public synchronized void resetCounts() {
+    for (LongAdder count: m_Counts)
+      count.reset();
+    m_Unmatched.reset();
+  }
+
+  /**
+   * Returns the compiled routes, compiling them if necessary.
+   *
+   * @return		the routes
+   */
+  protected Routes getRoutes() {
+    Routes	result;
+
+    result = m_Routes;
+    if (result != null)
+      return result;
+
+    synchronized (this) {
+      if (m_Routes == null) {
+	result         = new Routes();
+	result.matcher = new MultiPatternMatcher();
+	for (Object pattern: m_Patterns) {
+	  if (pattern instanceof String)
+	    result.matcher.add((String) pattern);
+	  else
+	    result.matcher.add((Pattern) pattern);
+	}
+	result.matcher.compile();
+	result.sinks  = m_Sinks.toArray(new LineSink[0]);
+	result.counts = m_Counts.toArray(new LongAdder[0]);
+	m_Routes      = result;
+      }
+      return m_Routes;
+    }
+  }
+
+  /**
+   * Routes the line to the sinks of the matching patterns.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  @Override
+  public void processOutput(String line, boolean stdout) {
+    Routes	routes;
+    int[]	matches;
+    int		num;
+    int		i;
+
+    routes  = getRoutes();
+    matches = m_Matches.get();
+    if (matches.length < routes.sinks.length) {
+      matches = new int[routes.sinks.length];
+      m_Matches.set(matches);
+    }
+
+    num = routes.matcher.match(line, matches);
+    if (num == 0) {
+      m_Unmatched.increment();
+      if (m_UnmatchedSink != null)
+	m_UnmatchedSink.accept(line, stdout);
+      return;
+    }
+
+    if (m_FirstMatchOnly)
+      num = 1;
+    for (i = 0; i < num; i++) {
+      routes.counts[matches[i]].increment();
+      if (routes.sinks[matches[i]] != null)
+	routes.sinks[matches[i]].accept(line, stdout);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * StringStdinFeeder.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.core.impl;
+
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+/**
+ * Feeds a string into stdin, using the platform's default charset.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StringStdinFeeder
+  implements StdinFeeder {
+
+  /** the input. */
+  protected String m_Input;
+
+  /**
+   * Initializes the feeder.
+   *
+   * @param input	the input to feed
+   */
+  public StringStdinFeeder(String input) {
+    m_Input = input;
+  }
+
+  /**
+   * Writes the data to the stdin of the process.
+   *
+   * @param stdin	the stdin of the process
+   * @throws IOException	if writing to stdin fails
+   */
+  @Override
+  public void feed(OutputStream stdin) throws IOException {
+    BufferedWriter	writer;
+
+    writer = new BufferedWriter(new OutputStreamWriter(stdin));
+    writer.write(m_Input);
+    writer.flush();
+  }
+}
@@ -0,0 +1,362 @@
+/*
+ * LaunchedProcess.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.launcher;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A process that was launched by the helper process of a {@link Launcher}.
+ * Its stdin/stdout/stderr are relayed via the helper. Can be used like any
+ * other {@link Process}. The process is considered alive until the helper
+ * reports its exit, which is independent of stdout/stderr reaching EOF
+ * (e.g., a grandchild process might still hold the pipes open).
+ * <br>
+ * Writing to stdin blocks once {@link LauncherMain#WINDOW_SIZE} bytes are
+ * in flight, i.e., have not been written to the process by the helper yet.
+ * Data written after the process has exited gets discarded.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LaunchedProcess
+  extends Process {
+
+  /**
+   * Forwards the data written to stdin to the helper process.
+   */
+  protected class StdinStream
+    extends OutputStream {
+
+    /** whether the stream has been closed. */
+    protected boolean m_Closed;
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b		the byte to write
+     * @throws IOException	if writing fails
+     */
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    /**
+     * Writes the bytes, waiting for credit if necessary.
+     *
+     * @param b		the buffer
+     * @param off	the offset in the buffer
+     * @param len	the number of bytes to write
+     * @throws IOException	if writing fails or interrupted
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      int	n;
+
+      if (m_Closed)
+	throw new IOException("Stream closed");
+      while (len > 0) {
+	try {
+	  n = m_StdInWindow.acquire(len);
+	}
+	catch (InterruptedException e) {
+	  throw new InterruptedIOException();
+	}
+	// process has exited
+	if (!isAlive())
+	  return;
+	m_StdInWindow.consume(n);
+	m_Launcher.stdin(m_ID, Arrays.copyOfRange(b, off, off + n));
+	off += n;
+	len -= n;
+      }
+    }
+
+    /**
+     * Closes stdin of the process.
+     *
+     * @throws IOException	if writing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+      if (m_Closed)
+	return;
+      m_Closed = true;
+      if (isAlive())
+	m_Launcher.stdin(m_ID, new byte[0]);
+    }
+  }
+
+  /** the launcher. */
+  protected Launcher m_Launcher;
+
+  /** the ID of the process within the launcher. */
+  protected int m_ID;
+
+  /** gets completed with the PID once launched. */
+  protected CompletableFuture<Long> m_Started;
+
+  /** gets completed once the process has exited. */
+  protected CompletableFuture<Process> m_Exit;
+
+  /** the exit code. */
+  protected volatile int m_ExitCode;
+
+  /** the PID. */
+  protected long m_PID;
+
+  /** stdin. */
+  protected OutputStream m_StdIn;
+
+  /** the credit for writing to stdin. */
+  protected LauncherMain.Window m_StdInWindow;
+
+  /** stdout. */
+  protected RelayInputStream m_StdOut;
+
+  /** stderr. */
+  protected RelayInputStream m_StdErr;
+
+  /**
+   * Initializes the process.
+   *
+   * @param launcher	the launcher
+   * @param id		the ID of the process within the launcher
+   */
+  protected LaunchedProcess(Launcher launcher, int id) {
+    m_Launcher    = launcher;
+    m_ID          = id;
+    m_Started     = new CompletableFuture<>();
+    m_Exit        = new CompletableFuture<>();
+    m_StdIn       = new BufferedOutputStream(new StdinStream(), LauncherMain.BUFFER_SIZE);
+    m_StdInWindow = new LauncherMain.Window(LauncherMain.WINDOW_SIZE);
+    m_StdOut      = new RelayInputStream(launcher, id, LauncherMain.STDOUT);
+    m_StdErr      = new RelayInputStream(launcher, id, LauncherMain.STDERR);
+  }
+
+  /**
+   * Returns the ID of the process within the launcher.
+   *
+   * @return		the ID
+   */
+  public int getID() {
+    return m_ID;
+  }
+
+  /**
+   * Waits for the helper process to report the launch.
+   *
+   * @throws IOException	if launching failed
+   */
+  protected void awaitStart() throws IOException {
+    try {
+      m_PID = m_Started.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException)
+	throw (IOException) e.getCause();
+      throw new IOException(e.getCause());
+    }
+    catch (InterruptedException e) {
+      throw new IOException("Interrupted while launching process", e);
+    }
+  }
+
+  /**
+   * Gets called when the process has exited. Stdout/stderr might not have
+   * reached EOF yet.
+   *
+   * @param exitCode	the exit code
+   */
+  protected void exited(int exitCode) {
+    m_ExitCode = exitCode;
+    m_Exit.complete(this);
+    m_StdInWindow.open();
+  }
+
+  /**
+   * Returns whether the process has exited and stdout/stderr have reached
+   * EOF, i.e., whether the helper will not send any more events.
+   *
+   * @return		true if terminated
+   */
+  protected boolean isTerminated() {
+    return !isAlive() && m_StdOut.isFinished() && m_StdErr.isFinished();
+  }
+
+  /**
+   * Returns stdin of the process.
+   *
+   * @return		the stream
+   */
+  @Override
+  public OutputStream getOutputStream() {
+    return m_StdIn;
+  }
+
+  /**
+   * Returns stdout of the process.
+   *
+   * @return		the stream
+   */
+  @Override
+  public InputStream getInputStream() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns stderr of the process.
+   *
+   * @return		the stream
+   */
+  @Override
+  public InputStream getErrorStream() {
+    return m_StdErr;
+  }
+
+  /**
+   * Waits for the process to exit.
+   *
+   * @return		the exit code
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  @Override
+  public int waitFor() throws InterruptedException {
+    try {
+      m_Exit.get();
+    }
+    catch (ExecutionException e) {
+      // not completed exceptionally
+    }
+    return m_ExitCode;
+  }
+
+  /**
+   * Waits for the process to exit.
+   *
+   * @param timeout	the maximum time to wait
+   * @param unit	the unit of the timeout
+   * @return		true if exited
+   * @throws InterruptedException	if interrupted while waiting
+   */
+  @Override
+  public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+    try {
+      m_Exit.get(timeout, unit);
+    }
+    catch (ExecutionException e) {
+      // not completed exceptionally
+    }
+    catch (TimeoutException e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the exit code.
+   *
+   * @return		the exit code
+   * @throws IllegalThreadStateException	if the process hasn't exited yet
+   */
+  @Override
+  public int exitValue() {
+    if (!m_Exit.isDone())
+      throw new IllegalThreadStateException("process hasn't exited");
+    return m_ExitCode;
+  }
+
+  /**
+   * Asks the process to terminate.
+   */
+  @Override
+  public void destroy() {
+    if (isAlive())
+      m_Launcher.destroy(m_ID, false);
+  }
+
+  /**
+   * Destroys the process forcibly.
+   *
+   * @return		the process
+   */
+  @Override
+  public Process destroyForcibly() {
+    if (isAlive())
+      m_Launcher.destroy(m_ID, true);
+    return this;
+  }
+
+  /**
+   * Returns whether normal termination is supported.
+   *
+   * @return		true if supported
+   */
+  @Override
+  public boolean supportsNormalTermination() {
+    return toHandle().supportsNormalTermination();
+  }
+
+  /**
+   * Returns whether the process is still running.
+   *
+   * @return		true if running
+   */
+  @Override
+  public boolean isAlive() {
+    return !m_Exit.isDone();
+  }
+
+  /**
+   * Returns the PID of the process.
+   *
+   * @return		the PID
+   */
+  @Override
+  public long pid() {
+    return m_PID;
+  }
+
+  /**
+   * Returns the handle of the process.
+   *
+   * @return		the handle
+   * @throws UnsupportedOperationException	if the process is no longer available
+   */
+  @Override
+  public ProcessHandle toHandle() {
+    return ProcessHandle.of(m_PID).orElseThrow(() -> new UnsupportedOperationException("Process #" + m_PID + " is no longer available"));
+  }
+
+  /**
+   * Returns a future that gets completed once the process has exited.
+   * Does not occupy a thread while waiting.
+   *
+   * @return		the future
+   */
+  @Override
+  public CompletableFuture<Process> onExit() {
+    return m_Exit.copy();
+  }
+
+  /**
+   * Returns a short description of the process.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "pid=" + m_PID + ", launcher ID=" + m_ID + ", alive=" + isAlive();
+  }
+}
@@ -0,0 +1,414 @@
+/*
+ * Launcher.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.launcher;
+
+import com.github.fracpete.processoutput4j.core.EnvironmentSnapshot;
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.core.impl.StderrErrorLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Launches processes via a small helper process ({@link LauncherMain}) that
+ * gets started once, rather than from this JVM. Useful for JVMs with large
+ * heaps, where launching processes can be slow and stall under memory
+ * pressure. The launched processes ({@link LaunchedProcess}) can be used as
+ * drop-in with the output classes (see
+ * {@link com.github.fracpete.processoutput4j.output.AbstractProcessOutput#setLauncher(Launcher)}).
+ * <br>
+ * Requests and events are exchanged with the helper via its stdin/stdout,
+ * stdout/stderr of the launched processes get relayed. The helper inherits
+ * stderr of this JVM. Only pipes are supported for the processes'
+ * stdin/stdout/stderr (but stderr can be merged into stdout). Data output
+ * by the processes gets buffered in memory until read, up to
+ * {@link LauncherMain#WINDOW_SIZE} bytes per stream while the process is
+ * running. Beyond that, the helper stops relaying the output (i.e., a
+ * process that keeps writing blocks) until it has been read. Likewise,
+ * writing to stdin of a process blocks while the helper still has
+ * {@link LauncherMain#WINDOW_SIZE} bytes for it that have not been written
+ * to the process yet.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Launcher
+  implements Closeable {
+
+  /** the default maximum heap size of the helper process. */
+  public final static String DEFAULT_MAX_HEAP = "32m";
+
+  /** the default instance. */
+  protected static Launcher m_Default;
+
+  /** the helper process. */
+  protected Process m_Helper;
+
+  /** for sending the requests. */
+  protected DataOutputStream m_Requests;
+
+  /** the launched processes that are still running or outputting. */
+  protected Map<Integer,LaunchedProcess> m_Processes;
+
+  /** for generating the IDs. */
+  protected AtomicInteger m_NextID;
+
+  /** the error logger. */
+  protected ErrorLogger m_ErrorLogger;
+
+  /** whether the helper process has terminated. */
+  protected volatile boolean m_Terminated;
+
+  /**
+   * Starts the default helper process, using the JVM of this process.
+   *
+   * @throws IOException	if launching the helper process fails
+   */
+  public Launcher() throws IOException {
+    this(helper(DEFAULT_MAX_HEAP));
+  }
+
+  /**
+   * Starts the helper process.
+   *
+   * @param helper	the builder for the helper process, which must
+   * 			run {@link LauncherMain}
+   * @throws IOException	if launching the helper process fails
+   */
+  public Launcher(ProcessBuilder helper) throws IOException {
+    Thread	reader;
+
+    m_Processes   = new ConcurrentHashMap<>();
+    m_NextID      = new AtomicInteger();
+    m_ErrorLogger = new StderrErrorLogger();
+    m_Helper      = helper.redirectError(Redirect.INHERIT).start();
+    m_Requests    = new DataOutputStream(new BufferedOutputStream(m_Helper.getOutputStream(), LauncherMain.BUFFER_SIZE + 16));
+    reader        = ExecutorUtils.newThreadFactory(ExecutorUtils.THREAD_PREFIX + "launcher-").newThread(this::receive);
+    reader.start();
+  }
+
+  /**
+   * Creates the builder for the default helper process, using the JVM of
+   * this process.
+   *
+   * @param maxHeap	the maximum heap size of the helper process (eg "32m")
+   * @return		the builder
+   */
+  public static ProcessBuilder helper(String maxHeap) {
+    List<String>	cmd;
+    String		classpath;
+
+    try {
+      classpath = new File(LauncherMain.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+    catch (Exception e) {
+      classpath = System.getProperty("java.class.path");
+    }
+
+    cmd = new ArrayList<>();
+    cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    cmd.add("-Xmx" + maxHeap);
+    cmd.add("-XX:+UseSerialGC");
+    cmd.add("-XX:TieredStopAtLevel=1");
+    cmd.add("-Xshare:auto");
+    cmd.add("-cp");
+    cmd.add(classpath);
+    cmd.add(LauncherMain.class.getName());
+
+    return new ProcessBuilder(cmd);
+  }
+
+  /**
+   * Sets the error logger to use.
+   *
+   * @param value	the logger
+   */
+  public void setErrorLogger(ErrorLogger value) {
+    m_ErrorLogger = value;
+  }
+
+  /**
+   * Returns the error logger in use.
+   *
+   * @return		the logger
+   */
+  public ErrorLogger getErrorLogger() {
+    return m_ErrorLogger;
+  }
+
+  /**
+   * Returns whether the helper process is still running.
+   *
+   * @return		true if running
+   */
+  public boolean isAlive() {
+    return !m_Terminated && m_Helper.isAlive();
+  }
+
+  /**
+   * Returns the helper process.
+   *
+   * @return		the process
+   */
+  public Process getHelper() {
+    return m_Helper;
+  }
+
+  /**
+   * Returns the number of launched processes that are still running.
+   *
+   * @return		the number of processes
+   */
+  public int getNumProcesses() {
+    return m_Processes.size();
+  }
+
+  /**
+   * Launches the process described by the builder (command, environment,
+   * working directory, merging of stderr).
+   *
+   * @param builder	the builder to launch
+   * @return		the process
+   * @throws IOException	if launching fails
+   * @throws IllegalArgumentException	if the builder uses redirects other than pipes
+   */
+  public LaunchedProcess start(ProcessBuilder builder) throws IOException {
+    LaunchedProcess		result;
+    Map<String,String>		env;
+    ByteArrayOutputStream	frame;
+    DataOutputStream		out;
+    int				id;
+
+    if ((builder.redirectInput() != Redirect.PIPE) || (builder.redirectOutput() != Redirect.PIPE) || (builder.redirectError() != Redirect.PIPE))
+      throw new IllegalArgumentException("Only pipes are supported for stdin/stdout/stderr!");
+    if (builder.command().isEmpty())
+      throw new IndexOutOfBoundsException("No command provided!");
+    if (!isAlive())
+      throw new IOException("Launcher helper process has terminated!");
+
+    id     = m_NextID.incrementAndGet();
+    result = new LaunchedProcess(this, id);
+    m_Processes.put(id, result);
+
+    // the helper got launched with the environment of this JVM
+    env = builder.environment();
+    if (EnvironmentSnapshot.current().toMap().equals(env))
+      env = null;
+
+    try {
+      // assemble the complete request first, so a failure cannot leave a partial one behind
+      frame = new ByteArrayOutputStream();
+      out   = new DataOutputStream(frame);
+      out.writeByte(LauncherMain.LAUNCH);
+      out.writeInt(id);
+      out.writeInt(builder.command().size());
+      for (String arg: builder.command())
+	LauncherMain.writeString(out, arg);
+      if (env == null) {
+	out.writeInt(-1);
+      }
+      else {
+	out.writeInt(env.size());
+	for (Map.Entry<String,String> entry: env.entrySet())
+	  LauncherMain.writeString(out, entry.getKey() + "=" + entry.getValue());
+      }
+      LauncherMain.writeString(out, (builder.directory() == null) ? "" : builder.directory().getAbsolutePath());
+      out.writeBoolean(builder.redirectErrorStream());
+      out.flush();
+
+      synchronized (m_Requests) {
+	frame.writeTo(m_Requests);
+	m_Requests.flush();
+      }
+    }
+    catch (IOException e) {
+      m_Processes.remove(id);
+      throw e;
+    }
+
+    result.awaitStart();
+
+    return result;
+  }
+
+  /**
+   * Sends the data for stdin of the process.
+   *
+   * @param id		the ID of the process
+   * @param data	the data, empty to close stdin
+   * @throws IOException	if sending fails
+   */
+  protected void stdin(int id, byte[] data) throws IOException {
+    synchronized (m_Requests) {
+      m_Requests.writeByte(LauncherMain.STDIN);
+      m_Requests.writeInt(id);
+      m_Requests.writeInt(data.length);
+      m_Requests.write(data);
+      m_Requests.flush();
+    }
+  }
+
+  /**
+   * Asks the helper to destroy the process.
+   *
+   * @param id		the ID of the process
+   * @param force	whether to destroy it forcibly
+   */
+  protected void destroy(int id, boolean force) {
+    try {
+      synchronized (m_Requests) {
+	m_Requests.writeByte(LauncherMain.DESTROY);
+	m_Requests.writeInt(id);
+	m_Requests.writeBoolean(force);
+	m_Requests.flush();
+      }
+    }
+    catch (IOException e) {
+      m_ErrorLogger.logError("Failed to destroy process #" + id + "!", e);
+    }
+  }
+
+  /**
+   * Grants the helper credit for relaying more output of the process.
+   *
+   * @param id		the ID of the process
+   * @param type	the stream ({@link LauncherMain#STDOUT}/{@link LauncherMain#STDERR})
+   * @param count	the number of bytes that have been read
+   */
+  protected void credit(int id, byte type, int count) {
+    try {
+      synchronized (m_Requests) {
+	m_Requests.writeByte(LauncherMain.CREDIT);
+	m_Requests.writeInt(id);
+	m_Requests.writeByte(type);
+	m_Requests.writeInt(count);
+	m_Requests.flush();
+      }
+    }
+    catch (IOException e) {
+      if (!m_Terminated)
+	m_ErrorLogger.logError("Failed to grant credit to process #" + id + "!", e);
+    }
+  }
+
+  /**
+   * Receives the events from the helper process until it terminates.
+   */
+  protected void receive() {
+    DataInputStream	in;
+    LaunchedProcess	process;
+    RelayInputStream	stream;
+    byte[]		data;
+    byte		type;
+    int			id;
+    int			n;
+
+    in = new DataInputStream(new BufferedInputStream(m_Helper.getInputStream(), LauncherMain.BUFFER_SIZE + 16));
+    try {
+      while (true) {
+	type    = in.readByte();
+	id      = in.readInt();
+	process = m_Processes.get(id);
+	switch (type) {
+	  case LauncherMain.STARTED:
+	    process.m_Started.complete(in.readLong());
+	    break;
+
+	  case LauncherMain.FAILED:
+	    m_Processes.remove(id);
+	    process.m_Started.completeExceptionally(new IOException(LauncherMain.readString(in)));
+	    break;
+
+	  case LauncherMain.STDOUT:
+	  case LauncherMain.STDERR:
+	    data = new byte[in.readInt()];
+	    in.readFully(data);
+	    if (process != null) {
+	      stream = (type == LauncherMain.STDOUT) ? process.m_StdOut : process.m_StdErr;
+	      if (data.length == 0)
+		stream.finish();
+	      else
+		stream.append(data);
+	      if (process.isTerminated())
+		m_Processes.remove(id);
+	    }
+	    break;
+
+	  case LauncherMain.EXITED:
+	    process.exited(in.readInt());
+	    if (process.isTerminated())
+	      m_Processes.remove(id);
+	    break;
+
+	  case LauncherMain.STDIN_CREDIT:
+	    n = in.readInt();
+	    if (process != null)
+	      process.m_StdInWindow.release(n);
+	    break;
+
+	  default:
+	    throw new IOException("Unknown event type: " + type);
+	}
+      }
+    }
+    catch (Exception e) {
+      if (!m_Terminated)
+	m_ErrorLogger.logError("Launcher helper process terminated!", e);
+    }
+
+    // fail all remaining processes
+    m_Terminated = true;
+    for (LaunchedProcess p: m_Processes.values()) {
+      p.m_Started.completeExceptionally(new IOException("Launcher helper process terminated!"));
+      p.m_StdOut.finish();
+      p.m_StdErr.finish();
+      p.exited(-1);
+    }
+    m_Processes.clear();
+  }
+
+  /**
+   * Terminates the helper process, which destroys all processes that are
+   * still running.
+   */
+  @Override
+  public void close() {
+    m_Terminated = true;
+    try {
+      synchronized (m_Requests) {
+	m_Requests.close();
+      }
+    }
+    catch (IOException e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Returns the library-wide default launcher, (re)starting the helper
+   * process if necessary.
+   *
+   * @return		the launcher
+   * @throws IOException	if launching the helper process fails
+   */
+  public static synchronized Launcher getDefault() throws IOException {
+    if ((m_Default == null) || !m_Default.isAlive())
+      m_Default = new Launcher();
+    return m_Default;
+  }
+}
@@ -0,0 +1,571 @@
+/*
+ * LauncherMain.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The helper process of the {@link Launcher}: launches processes on behalf
+ * of the JVM that started it and relays their stdin/stdout/stderr and exit
+ * codes. Requests are read from stdin, the events are written to stdout,
+ * using the frames defined by the constants of this class. Exits once
+ * stdin gets closed.
+ * <br>
+ * Requests:
+ * <ul>
+ *   <li>{@link #LAUNCH}: id, number of arguments, arguments, number of
+ *   environment variables (-1 to inherit), key=value strings, working
+ *   directory (empty for current), whether to merge stderr into stdout</li>
+ *   <li>{@link #STDIN}: id, length, bytes (length 0 closes stdin)</li>
+ *   <li>{@link #DESTROY}: id, whether to destroy forcibly</li>
+ *   <li>{@link #CREDIT}: id, stream ({@link #STDOUT}/{@link #STDERR}),
+ *   number of bytes that have been read</li>
+ * </ul>
+ * Events:
+ * <ul>
+ *   <li>{@link #STARTED}: id, PID</li>
+ *   <li>{@link #FAILED}: id, error message</li>
+ *   <li>{@link #STDOUT}/{@link #STDERR}: id, length, bytes (length 0 for EOF)</li>
+ *   <li>{@link #EXITED}: id, exit code (as soon as the process has exited,
+ *   independent of stdout/stderr reaching EOF)</li>
+ *   <li>{@link #STDIN_CREDIT}: id, number of bytes of stdin data that have
+ *   been written to the process (or discarded)</li>
+ * </ul>
+ * Integers are written as 4 bytes, PIDs as 8 bytes, strings as length
+ * followed by the UTF-8 bytes (see {@link #writeString(DataOutputStream, String)}).
+ * <br>
+ * The output of a process gets relayed only as long as the JVM that started
+ * the helper has granted credit for it: each stream starts with
+ * {@link #WINDOW_SIZE} bytes of credit, which gets replenished via
+ * {@link #CREDIT} requests once the data has been read. While out of credit,
+ * the output is no longer read from the process, i.e., a process that keeps
+ * writing blocks. Once the process has exited, its remaining output gets
+ * relayed regardless. Likewise, the JVM that started the helper only sends
+ * up to {@link #WINDOW_SIZE} bytes of stdin data that the helper has not
+ * confirmed via {@link #STDIN_CREDIT} yet, so that the helper never queues
+ * more than that per process.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LauncherMain {
+
+  /** request: launch a process. */
+  public final static byte LAUNCH = 1;
+
+  /** request: data for stdin. */
+  public final static byte STDIN = 2;
+
+  /** request: destroy the process. */
+  public final static byte DESTROY = 3;
+
+  /** request: grant credit for relaying more output. */
+  public final static byte CREDIT = 4;
+
+  /** event: process launched. */
+  public final static byte STARTED = 11;
+
+  /** event: failed to launch process. */
+  public final static byte FAILED = 12;
+
+  /** event: data from stdout. */
+  public final static byte STDOUT = 13;
+
+  /** event: data from stderr. */
+  public final static byte STDERR = 14;
+
+  /** event: process exited. */
+  public final static byte EXITED = 15;
+
+  /** event: stdin data has been written. */
+  public final static byte STDIN_CREDIT = 16;
+
+  /** the buffer size for relaying the output. */
+  public final static int BUFFER_SIZE = 8192;
+
+  /** the maximum number of unread bytes per stream. */
+  public final static int WINDOW_SIZE = 256 * 1024;
+
+  /**
+   * The credit for relaying the output of a stream.
+   */
+  protected static class Window {
+
+    /** the number of bytes that can still be relayed. */
+    protected int m_Credit;
+
+    /** whether the credit is no longer enforced. */
+    protected boolean m_Open;
+
+    /**
+     * Initializes the window.
+     *
+     * @param size	the initial credit
+     */
+    public Window(int size) {
+      m_Credit = size;
+    }
+
+    /**
+     * Waits for credit to become available.
+     *
+     * @param max	the maximum number of bytes to relay
+     * @return		the number of bytes that can be relayed
+     * @throws InterruptedException	if interrupted while waiting
+     */
+    public synchronized int acquire(int max) throws InterruptedException {
+      while ((m_Credit <= 0) && !m_Open)
+	wait();
+      return m_Open ? max : Math.min(max, m_Credit);
+    }
+
+    /**
+     * Uses up credit.
+     *
+     * @param count	the number of bytes that got relayed
+     */
+    public synchronized void consume(int count) {
+      m_Credit -= count;
+    }
+
+    /**
+     * Grants credit.
+     *
+     * @param count	the number of bytes that got read
+     */
+    public synchronized void release(int count) {
+      m_Credit += count;
+      notifyAll();
+    }
+
+    /**
+     * Stops enforcing the credit.
+     */
+    public synchronized void open() {
+      m_Open = true;
+      notifyAll();
+    }
+  }
+
+  /** the marker for the stdin of processes that have exited. */
+  protected final static BlockingQueue<byte[]> EXITED_STDIN = new LinkedBlockingQueue<>();
+
+  /** the events. */
+  protected DataOutputStream m_Events;
+
+  /** the running processes. */
+  protected Map<Integer,Process> m_Processes;
+
+  /** the queued data for stdin of the processes. */
+  protected Map<Integer,BlockingQueue<byte[]>> m_StdIn;
+
+  /** the credit for stdout/stderr of the processes. */
+  protected Map<Integer,Window[]> m_Windows;
+
+  /** for relaying the output. */
+  protected ExecutorService m_Executor;
+
+  /**
+   * Initializes the launcher.
+   *
+   * @param events	the stream to write the events to
+   */
+  public LauncherMain(OutputStream events) {
+    m_Events    = new DataOutputStream(new BufferedOutputStream(events, BUFFER_SIZE + 16));
+    m_Processes = new ConcurrentHashMap<>();
+    m_StdIn     = new ConcurrentHashMap<>();
+    m_Windows   = new ConcurrentHashMap<>();
+    m_Executor  = Executors.newCachedThreadPool(r -> {
+      Thread result = new Thread(r);
+      result.setDaemon(true);
+      return result;
+    });
+  }
+
+  /**
+   * Writes the string as length followed by its UTF-8 bytes. Unlike
+   * {@link DataOutputStream#writeUTF(String)}, the length is not limited
+   * to 64KB.
+   *
+   * @param out		the stream to write to
+   * @param s		the string to write
+   * @throws IOException	if writing fails
+   */
+  public static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[]	data;
+
+    data = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(data.length);
+    out.write(data);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param in		the stream to read from
+   * @return		the string
+   * @throws IOException	if reading fails
+   */
+  public static String readString(DataInputStream in) throws IOException {
+    byte[]	data;
+
+    data = new byte[in.readInt()];
+    in.readFully(data);
+    return new String(data, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the event with an optional string.
+   *
+   * @param type	the type of event
+   * @param id		the ID of the process
+   * @param msg		the message, ignored if null
+   * @throws IOException	if writing fails
+   */
+  protected void event(byte type, int id, String msg) throws IOException {
+    synchronized (m_Events) {
+      m_Events.writeByte(type);
+      m_Events.writeInt(id);
+      if (msg != null)
+	writeString(m_Events, msg);
+      m_Events.flush();
+    }
+  }
+
+  /**
+   * Writes the event with a number.
+   *
+   * @param type	the type of event
+   * @param id		the ID of the process
+   * @param value	the value to write
+   * @param wide	whether to write a long or an int
+   * @throws IOException	if writing fails
+   */
+  protected void event(byte type, int id, long value, boolean wide) throws IOException {
+    synchronized (m_Events) {
+      m_Events.writeByte(type);
+      m_Events.writeInt(id);
+      if (wide)
+	m_Events.writeLong(value);
+      else
+	m_Events.writeInt((int) value);
+      m_Events.flush();
+    }
+  }
+
+  /**
+   * Writes the data as event.
+   *
+   * @param type	the type of event
+   * @param id		the ID of the process
+   * @param data	the buffer
+   * @param len		the number of bytes to write, 0 for EOF
+   * @throws IOException	if writing fails
+   */
+  protected void event(byte type, int id, byte[] data, int len) throws IOException {
+    synchronized (m_Events) {
+      m_Events.writeByte(type);
+      m_Events.writeInt(id);
+      m_Events.writeInt(len);
+      m_Events.write(data, 0, len);
+      m_Events.flush();
+    }
+  }
+
+  /**
+   * Relays the stream until EOF, as long as there is credit.
+   *
+   * @param type	the event type
+   * @param id		the ID of the process
+   * @param in		the stream to relay
+   * @param window	the credit for the stream
+   * @throws IOException	if reading/writing fails or interrupted
+   */
+  protected void relay(byte type, int id, InputStream in, Window window) throws IOException {
+    byte[]	buffer;
+    int		read;
+
+    buffer = new byte[BUFFER_SIZE];
+    try {
+      while (true) {
+	try {
+	  read = in.read(buffer, 0, window.acquire(BUFFER_SIZE));
+	}
+	catch (InterruptedException e) {
+	  throw new InterruptedIOException();
+	}
+	if (read == -1)
+	  break;
+	if (read > 0) {
+	  window.consume(read);
+	  event(type, id, buffer, read);
+	}
+      }
+    }
+    finally {
+      event(type, id, buffer, 0);
+    }
+  }
+
+  /**
+   * Queues the data for stdin of the process. The data gets written by a
+   * separate thread, in order to not block the processing of the requests.
+   * The queue is bounded by the credit, see {@link #STDIN_CREDIT}. Data for
+   * a process that has exited gets discarded.
+   *
+   * @param id		the ID of the process
+   * @param process	the process
+   * @param data	the data, empty to close stdin
+   */
+  protected void stdin(final int id, final Process process, byte[] data) {
+    BlockingQueue<byte[]>	queue;
+
+    queue = m_StdIn.computeIfAbsent(id, k -> {
+      final BlockingQueue<byte[]> q = new LinkedBlockingQueue<>();
+      m_Executor.submit(() -> feed(id, process, q));
+      return q;
+    });
+    if (queue != EXITED_STDIN)
+      queue.add(data);
+  }
+
+  /**
+   * Writes the queued data to stdin of the process until an empty chunk is
+   * encountered, then closes stdin. Confirms every chunk via
+   * {@link #STDIN_CREDIT}, also the ones that got discarded because stdin
+   * could no longer be written to.
+   *
+   * @param id		the ID of the process
+   * @param process	the process to feed
+   * @param queue	the data to write
+   */
+  protected void feed(int id, Process process, BlockingQueue<byte[]> queue) {
+    OutputStream	out;
+    byte[]		data;
+    boolean		failed;
+
+    out    = process.getOutputStream();
+    failed = false;
+    try {
+      while ((data = queue.take()).length > 0) {
+	if (!failed) {
+	  try {
+	    out.write(data);
+	    out.flush();
+	  }
+	  catch (IOException e) {
+	    // process has most likely closed stdin or exited
+	    failed = true;
+	  }
+	}
+	event(STDIN_CREDIT, id, data.length, false);
+      }
+    }
+    catch (Exception e) {
+      // interrupted or parent has gone away
+    }
+    finally {
+      try {
+	out.close();
+      }
+      catch (IOException e) {
+	// ignored
+      }
+    }
+  }
+
+  /**
+   * Launches the process and relays its output and exit code.
+   *
+   * @param id		the ID of the process
+   * @param builder	the builder to use
+   * @throws IOException	if writing the events fails
+   */
+  protected void launch(final int id, ProcessBuilder builder) throws IOException {
+    final Process	process;
+    final Future<?>	stderr;
+    final Future<?>	exited;
+    final Window[]	windows;
+
+    try {
+      process = builder.start();
+    }
+    catch (Exception e) {
+      event(FAILED, id, "" + e.getMessage());
+      return;
+    }
+    windows = new Window[]{new Window(WINDOW_SIZE), new Window(WINDOW_SIZE)};
+    m_Windows.put(id, windows);
+    m_Processes.put(id, process);
+    event(STARTED, id, process.pid(), true);
+
+    // report the exit right away (a grandchild might hold the pipes open),
+    // relay the remaining output regardless of credit and stop feeding stdin
+    exited = process.onExit().thenRunAsync(() -> {
+      BlockingQueue<byte[]>	queue;
+
+      windows[0].open();
+      windows[1].open();
+      queue = m_StdIn.put(id, EXITED_STDIN);
+      if (queue != null)
+	queue.add(new byte[0]);
+      try {
+	event(EXITED, id, process.exitValue(), false);
+      }
+      catch (IOException e) {
+	// parent has gone away
+      }
+    }, m_Executor);
+
+    if (builder.redirectErrorStream()) {
+      stderr = null;
+      event(STDERR, id, new byte[0], 0);
+    }
+    else {
+      stderr = m_Executor.submit(() -> {
+	relay(STDERR, id, process.getErrorStream(), windows[1]);
+	return null;
+      });
+    }
+    m_Executor.submit(() -> {
+      try {
+	relay(STDOUT, id, process.getInputStream(), windows[0]);
+	if (stderr != null)
+	  stderr.get();
+	exited.get();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+      m_Processes.remove(id);
+      m_Windows.remove(id);
+      m_StdIn.remove(id);
+      return null;
+    });
+  }
+
+  /**
+   * Processes the requests until EOF.
+   *
+   * @param requests	the stream to read the requests from
+   * @throws IOException	if reading/writing fails
+   */
+  public void execute(InputStream requests) throws IOException {
+    DataInputStream	in;
+    ProcessBuilder	builder;
+    Process		process;
+    String[]		array;
+    String		cwd;
+    Window[]		windows;
+    byte[]		data;
+    byte		type;
+    int			id;
+    int			n;
+    int			i;
+    boolean		force;
+
+    in = new DataInputStream(new BufferedInputStream(requests, BUFFER_SIZE + 16));
+    while (true) {
+      try {
+	type = in.readByte();
+      }
+      catch (EOFException e) {
+	break;
+      }
+      id = in.readInt();
+      switch (type) {
+	case LAUNCH:
+	  array = new String[in.readInt()];
+	  for (i = 0; i < array.length; i++)
+	    array[i] = readString(in);
+	  builder = new ProcessBuilder(array);
+	  n = in.readInt();
+	  if (n > -1) {
+	    builder.environment().clear();
+	    for (i = 0; i < n; i++) {
+	      array = readString(in).split("=", 2);
+	      builder.environment().put(array[0], (array.length > 1) ? array[1] : "");
+	    }
+	  }
+	  cwd = readString(in);
+	  if (!cwd.isEmpty())
+	    builder.directory(new File(cwd));
+	  builder.redirectErrorStream(in.readBoolean());
+	  launch(id, builder);
+	  break;
+
+	case STDIN:
+	  data = new byte[in.readInt()];
+	  in.readFully(data);
+	  process = m_Processes.get(id);
+	  if (process != null)
+	    stdin(id, process, data);
+	  break;
+
+	case DESTROY:
+	  force   = in.readBoolean();
+	  process = m_Processes.get(id);
+	  if (process != null) {
+	    if (force)
+	      process.destroyForcibly();
+	    else
+	      process.destroy();
+	  }
+	  break;
+
+	case CREDIT:
+	  windows = m_Windows.get(id);
+	  type    = in.readByte();
+	  n       = in.readInt();
+	  if (windows != null)
+	    windows[(type == STDOUT) ? 0 : 1].release(n);
+	  break;
+
+	default:
+	  throw new IOException("Unknown request type: " + type);
+      }
+    }
+
+    // parent has gone away
+    for (Process p: m_Processes.values())
+      p.destroyForcibly();
+  }
+
+  /**
+   * Runs the launcher, reading the requests from stdin and writing the
+   * events to stdout.
+   *
+   * @param args	ignored
+   * @throws Exception	if reading/writing fails
+   */
+  public static void main(String[] args) throws Exception {
+    LauncherMain	main;
+
+    // write the events directly to the file descriptor, as PrintStream swallows errors
+    main = new LauncherMain(new FileOutputStream(FileDescriptor.out));
+    System.setOut(System.err);
+    main.execute(System.in);
+    System.exit(0);
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * RelayInputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+/**
+ * Input stream that gets fed with the chunks of data relayed by the
+ * {@link Launcher}, i.e., stdout or stderr of a {@link LaunchedProcess}.
+ * Reading blocks until data is available or EOF has been reached.
+ * <br>
+ * The data that has been read (or discarded by closing the stream) gets
+ * reported back to the helper process in batches of
+ * {@link #CREDIT_THRESHOLD} bytes, which allows it to relay more output.
+ * The credit gets granted outside the stream's monitor, as sending it can
+ * block while the thread that appends the data needs the monitor.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class RelayInputStream
+  extends InputStream {
+
+  /** the number of read bytes after which to grant credit. */
+  public final static int CREDIT_THRESHOLD = LauncherMain.WINDOW_SIZE / 4;
+
+  /** the launcher to grant credit to. */
+  protected Launcher m_Launcher;
+
+  /** the ID of the process. */
+  protected int m_ID;
+
+  /** the stream ({@link LauncherMain#STDOUT}/{@link LauncherMain#STDERR}). */
+  protected byte m_Type;
+
+  /** the number of bytes read that no credit has been granted for yet. */
+  protected int m_Uncredited;
+
+  /** the chunks of data. */
+  protected ArrayDeque<byte[]> m_Chunks;
+
+  /** the position in the first chunk. */
+  protected int m_Pos;
+
+  /** the number of bytes available. */
+  protected int m_Available;
+
+  /** whether EOF has been reached. */
+  protected boolean m_EOF;
+
+  /** whether the stream has been closed. */
+  protected boolean m_Closed;
+
+  /**
+   * Initializes the stream.
+   *
+   * @param launcher	the launcher to grant credit to
+   * @param id		the ID of the process
+   * @param type	the stream ({@link LauncherMain#STDOUT}/{@link LauncherMain#STDERR})
+   */
+  public RelayInputStream(Launcher launcher, int id, byte type) {
+    m_Launcher = launcher;
+    m_ID       = id;
+    m_Type     = type;
+    m_Chunks   = new ArrayDeque<>();
+  }
+
+  /**
+   * Records the number of bytes that got read or discarded. Must be called
+   * while holding the monitor.
+   *
+   * @param count	the number of bytes
+   * @param force	whether to grant the credit regardless of the threshold
+   * @return		the credit to grant via {@link #grant(int)}, 0 if none
+   */
+  protected int consumed(int count, boolean force) {
+    int		result;
+
+    result = 0;
+    m_Uncredited += count;
+    if ((m_Uncredited > 0) && (force || (m_Uncredited >= CREDIT_THRESHOLD))) {
+      result       = m_Uncredited;
+      m_Uncredited = 0;
+    }
+
+    return result;
+  }
+
+  /**
+   * Grants the credit to the helper process. Must not be called while
+   * holding the monitor.
+   *
+   * @param credit	the credit to grant, ignored if 0
+   */
+  protected void grant(int credit) {
+    if (credit > 0)
+      m_Launcher.credit(m_ID, m_Type, credit);
+  }
+
+  /**
+   * Appends the chunk of data.
+   *
+   * @param data	the data, not copied
+   */
+  protected void append(byte[] data) {
+    int		credit;
+
+    if (data.length == 0)
+      return;
+    credit = 0;
+    synchronized (this) {
+      if (m_Closed) {
+	credit = consumed(data.length, true);
+      }
+      else {
+	m_Chunks.add(data);
+	m_Available += data.length;
+	notifyAll();
+      }
+    }
+    grant(credit);
+  }
+
+  /**
+   * Signals that EOF has been reached.
+   */
+  protected synchronized void finish() {
+    m_EOF = true;
+    notifyAll();
+  }
+
+  /**
+   * Returns whether EOF has been reached.
+   *
+   * @return		true if EOF
+   */
+  public synchronized boolean isFinished() {
+    return m_EOF;
+  }
+
+  /**
+   * Waits for data to become available.
+   *
+   * @return		true if data is available, false if EOF
+   * @throws IOException	if the stream was closed or waiting was interrupted
+   */
+  protected boolean await() throws IOException {
+    while ((m_Available == 0) && !m_EOF && !m_Closed) {
+      try {
+	wait();
+      }
+      catch (InterruptedException e) {
+	throw new InterruptedIOException();
+      }
+    }
+    if (m_Closed)
+      throw new IOException("Stream closed");
+
+    return (m_Available > 0);
+  }
+
+  /**
+   * Reads a single byte.
+   *
+   * @return		the byte, -1 if EOF
+   * @throws IOException	if the stream was closed or waiting was interrupted
+   */
+  @Override
+  public int read() throws IOException {
+    byte[]	chunk;
+    int		result;
+    int		credit;
+
+    synchronized (this) {
+      if (!await())
+	return -1;
+
+      chunk  = m_Chunks.peek();
+      result = chunk[m_Pos++] & 0xFF;
+      m_Available--;
+      if (m_Pos == chunk.length) {
+	m_Chunks.poll();
+	m_Pos = 0;
+      }
+      credit = consumed(1, false);
+    }
+    grant(credit);
+
+    return result;
+  }
+
+  /**
+   * Reads up to the specified number of bytes, blocking only until some
+   * data is available.
+   *
+   * @param b		the buffer to read into
+   * @param off		the offset in the buffer
+   * @param len		the maximum number of bytes to read
+   * @return		the number of bytes read, -1 if EOF
+   * @throws IOException	if the stream was closed or waiting was interrupted
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    byte[]	chunk;
+    int		result;
+    int		credit;
+    int		n;
+
+    if (len == 0)
+      return 0;
+
+    synchronized (this) {
+      if (!await())
+	return -1;
+
+      result = 0;
+      while ((result < len) && (m_Available > 0)) {
+	chunk = m_Chunks.peek();
+	n     = Math.min(len - result, chunk.length - m_Pos);
+	System.arraycopy(chunk, m_Pos, b, off + result, n);
+	result      += n;
+	m_Pos       += n;
+	m_Available -= n;
+	if (m_Pos == chunk.length) {
+	  m_Chunks.poll();
+	  m_Pos = 0;
+	}
+      }
+      credit = consumed(result, false);
+    }
+    grant(credit);
+
+    return result;
+  }
+
+  /**
+   * Returns the number of bytes that can be read without blocking.
+   *
+   * @return		the number of bytes
+   * @throws IOException	if the stream was closed
+   */
+  @Override
+  public synchronized int available() throws IOException {
+    if (m_Closed)
+      throw new IOException("Stream closed");
+    return m_Available;
+  }
+
+  /**
+   * Closes the stream, discarding any data.
+   */
+  @Override
+  public void close() {
+    int		credit;
+
+    synchronized (this) {
+      if (m_Closed)
+	return;
+      m_Closed = true;
+      m_Chunks.clear();
+      credit = consumed(m_Available, true);
+      m_Available = 0;
+      notifyAll();
+    }
+    grant(credit);
+  }
+}
@@ -1,18 +1,49 @@
 /*
  * AbstractProcessOutput.java
- * Copyright (C) 2017-2025 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package com.github.fracpete.processoutput4j.output;
 
 import com.github.fracpete.processoutput4j.core.AbstractProcessRunnable;
-import com.github.fracpete.processoutput4j.core.EnvironmentUtils;
+import com.github.fracpete.processoutput4j.core.EnvironmentSnapshot;
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.core.ProcessMetrics;
+import com.github.fracpete.processoutput4j.core.ProcessMetricsListener;
 import com.github.fracpete.processoutput4j.core.ProcessUtils;
-import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.TimeOutScheduler;
+import com.github.fracpete.processoutput4j.core.Trigger;
+import com.github.fracpete.processoutput4j.core.TriggerAction;
+import com.github.fracpete.processoutput4j.core.impl.ChannelStdinFeeder;
+import com.github.fracpete.processoutput4j.core.impl.InputStreamStdinFeeder;
+import com.github.fracpete.processoutput4j.core.impl.NullProcessMetricsListener;
+import com.github.fracpete.processoutput4j.core.impl.PathStdinFeeder;
+import com.github.fracpete.processoutput4j.core.impl.StderrErrorLogger;
+import com.github.fracpete.processoutput4j.core.impl.StringStdinFeeder;
+import com.github.fracpete.processoutput4j.launcher.Launcher;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.PipeDrainer;
 
-import java.io.BufferedWriter;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Ancestor for classes that give access to the output generated by a process.
@@ -31,6 +62,9 @@ public abstract class AbstractProcessOutput
   /** the environment variables. */
   protected String[] m_Environment;
 
+  /** the environment variables as shared snapshot. */
+  protected EnvironmentSnapshot m_EnvironmentSnapshot;
+
   /** the exit code. */
   protected int m_ExitCode;
 
@@ -40,18 +74,55 @@ public abstract class AbstractProcessOutput
   /** the timeout for the process in seconds (ignored if less than 1). */
   protected int m_TimeOut;
 
+  /** the grace period in msec before forcibly destroying the process (0 to only ask it to terminate, less than 0 to destroy it forcibly right away). */
+  protected int m_GracePeriod;
+
   /** whether the process has timed out. */
-  protected boolean m_TimedOut;
+  protected volatile boolean m_TimedOut;
 
   /** for monitoring stderr. */
-  protected transient AbstractProcessReader m_ReaderStdErr;
+  protected transient AbstractPipeReader m_ReaderStdErr;
 
   /** for monitoring stdout. */
-  protected transient AbstractProcessReader m_ReaderStdOut;
+  protected transient AbstractPipeReader m_ReaderStdOut;
+
+  /** the deadline of the timeout. */
+  protected transient Future<?> m_FutureTimeOut;
 
-  /** for monitoring timeouts. */
+  /**
+   * for monitoring timeouts (only used if configureTimeOutMonitor() got overridden).
+   * @deprecated	timeouts are handled by the {@link TimeOutScheduler}
+   */
+  @Deprecated
   protected transient AbstractProcessRunnable m_RunnableTimeout;
 
+  /** the error logger. */
+  protected transient ErrorLogger m_ErrorLogger;
+
+  /** the executor for the readers (null for library-wide default). */
+  protected transient ExecutorService m_Executor;
+
+  /** the drainer for the readers (null if using the executor). */
+  protected transient PipeDrainer m_PipeDrainer;
+
+  /** the launcher for the processes (null to launch them directly). */
+  protected transient Launcher m_Launcher;
+
+  /** the listener for the metrics. */
+  protected transient ProcessMetricsListener m_MetricsListener;
+
+  /** the metrics of the current/last process (null if not collecting any). */
+  protected transient ProcessMetrics m_Metrics;
+
+  /** the pending triggers (null if none registered yet). */
+  protected transient volatile List<Trigger> m_Triggers;
+
+  /** whether the output of the current process is no longer captured. */
+  protected transient volatile boolean m_CaptureStopped;
+
+  /** the monitoring of the current process. */
+  protected transient volatile CompletableFuture<AbstractProcessOutput> m_Monitoring;
+
   /**
    * Starts the monitoring process.
    */
@@ -65,10 +136,16 @@ public abstract class AbstractProcessOutput
   protected void initialize() {
     m_Command     = new String[0];
     m_Environment = null;
+    m_EnvironmentSnapshot = null;
     m_ExitCode    = 0;
     m_Process     = null;
     m_TimeOut     = -1;
+    m_GracePeriod = 0;
     m_TimedOut    = false;
+    m_Executor    = null;
+    m_PipeDrainer = null;
+    m_Launcher    = null;
+    m_Metrics     = null;
   }
 
   /**
@@ -91,6 +168,34 @@ public abstract class AbstractProcessOutput
     return m_TimeOut;
   }
 
+  /**
+   * Sets the grace period that a process gets for exiting after being asked
+   * to terminate (on timeout or when destroyed), before it gets destroyed
+   * forcibly. By default (0), the process only gets asked to terminate and
+   * is never destroyed forcibly, i.e., a process that ignores the request
+   * keeps running.
+   *
+   * @param value	the grace period in msec (0 to only ask the process
+   * 			to terminate, less than 0 to destroy it forcibly
+   * 			right away)
+   * @see		ProcessUtils#DEFAULT_GRACE_PERIOD
+   */
+  public void setGracePeriod(int value) {
+    m_GracePeriod = value;
+  }
+
+  /**
+   * Returns the grace period that a process gets for exiting after being
+   * asked to terminate, before it gets destroyed forcibly.
+   *
+   * @return		the grace period in msec (0 to only ask the process
+   * 			to terminate, less than 0 to destroy it forcibly
+   * 			right away)
+   */
+  public int getGracePeriod() {
+    return m_GracePeriod;
+  }
+
   /**
    * Performs the actual process monitoring.
    *
@@ -98,81 +203,65 @@ public abstract class AbstractProcessOutput
    * @throws Exception	if writing to stdin fails
    */
   public void monitor(ProcessBuilder builder) throws Exception {
-    monitor(null, builder);
+    monitorWithInput((StdinFeeder) null, builder);
   }
 
   /**
    * Performs the actual process monitoring.
    *
+   * @param input	the input to be written to the process via stdin, ignored if null
    * @param builder 	the process builder to monitor
    * @throws Exception	if writing to stdin fails
    */
   public void monitor(String input, ProcessBuilder builder) throws Exception {
-    try {
-      m_Command = builder.command().toArray(new String[0]);
-      m_Environment = EnvironmentUtils.envMapToArray(builder.environment());
-      m_TimedOut = false;
-
-      // stderr
-      m_ReaderStdErr = configureStdErr();
-      Thread threade = new Thread(m_ReaderStdErr);
-      threade.start();
-
-      // stdout
-      m_ReaderStdOut = configureStdOut();
-      Thread threado = new Thread(m_ReaderStdOut);
-      threado.start();
-
-      // time out check
-      m_RunnableTimeout = null;
-      if (m_TimeOut > 0) {
-	m_RunnableTimeout = configureTimeOutMonitor();
-	Thread threadt = new Thread(m_RunnableTimeout);
-	threadt.start();
-      }
-
-      m_Process = builder.start();
-      m_ReaderStdErr.setProcess(m_Process);
-      m_ReaderStdOut.setProcess(m_Process);
-      if (m_RunnableTimeout != null)
-	m_RunnableTimeout.setProcess(m_Process);
-
-      // writing the input to the standard input of the process
-      if (input != null) {
-	BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
-	  m_Process.getOutputStream()));
-	writer.write(input);
-	writer.close();
-      }
+    await(monitorAsync(input, builder));
+  }
 
-      m_ExitCode = m_Process.waitFor();
+  /**
+   * Performs the actual process monitoring.
+   *
+   * @param input	the stream to feed into stdin (does not get closed), ignored if null
+   * @param builder 	the process builder to monitor
+   * @throws Exception	if writing to stdin fails
+   */
+  public void monitorWithInput(InputStream input, ProcessBuilder builder) throws Exception {
+    monitorWithInput((input == null) ? null : new InputStreamStdinFeeder(input), builder);
+  }
 
-      // wait for threads to finish
-      while (threade.isAlive() || threado.isAlive()) {
-	try {
-	  synchronized (this) {
-	    wait(100);
-	  }
-	  if (m_TimedOut)
-	    break;
-	}
-	catch (Exception e) {
-	  // ignored
-	}
-      }
+  /**
+   * Performs the actual process monitoring. Unless launching via a
+   * {@link Launcher}, stdin of the process gets redirected from the file
+   * rather than being fed via this JVM.
+   *
+   * @param input	the file to use as stdin, ignored if null
+   * @param builder 	the process builder to monitor
+   * @throws Exception	if reading the file or writing to stdin fails
+   */
+  public void monitorWithInput(Path input, ProcessBuilder builder) throws Exception {
+    monitorWithInput((input == null) ? null : new PathStdinFeeder(input), builder);
+  }
 
-      if (m_TimedOut) {
-	if (threade.isAlive())
-	  threade.interrupt();
-	if (threado.isAlive())
-	  threado.interrupt();
-      }
-    }
-    finally {
-      flush();
+  /**
+   * Performs the actual process monitoring.
+   *
+   * @param input	the channel to feed into stdin (does not get closed), ignored if null
+   * @param builder 	the process builder to monitor
+   * @throws Exception	if writing to stdin fails
+   */
+  public void monitorWithInput(ReadableByteChannel input, ProcessBuilder builder) throws Exception {
+    monitorWithInput((input == null) ? null : new ChannelStdinFeeder(input), builder);
+  }
 
-      m_Process = null;
-    }
+  /**
+   * Performs the actual process monitoring.
+   *
+   * @param feeder	for feeding data into stdin, ignored if null
+   * @param builder 	the process builder to monitor
+   * @throws Exception	if writing to stdin fails
+   * @see		#monitorWithInputAsync(StdinFeeder, ProcessBuilder)
+   */
+  public void monitorWithInput(StdinFeeder feeder, ProcessBuilder builder) throws Exception {
+    await(monitorWithInputAsync(feeder, builder));
   }
 
   /**
@@ -210,119 +299,743 @@ public abstract class AbstractProcessOutput
    * @throws Exception	if writing to stdin fails
    */
   public void monitor(String[] cmd, String[] env, String input, Process process) throws Exception {
+    await(monitorAsync(cmd, env, input, process));
+  }
+
+  /**
+   * Starts the process and monitors it asynchronously.
+   *
+   * @param builder 	the process builder to monitor
+   * @return		the future that gets completed with this output once
+   * 			the process has finished and all output has been read;
+   * 			cancelling the future destroys the process
+   */
+  public CompletableFuture<AbstractProcessOutput> monitorAsync(ProcessBuilder builder) {
+    return monitorWithInputAsync(null, builder);
+  }
+
+  /**
+   * Starts the process and monitors it asynchronously.
+   *
+   * @param input	the input to be written to the process via stdin, ignored if null
+   * @param builder 	the process builder to monitor
+   * @return		the future that gets completed with this output once
+   * 			the process has finished and all output has been read;
+   * 			cancelling the future destroys the process
+   */
+  public CompletableFuture<AbstractProcessOutput> monitorAsync(String input, ProcessBuilder builder) {
+    return monitorWithInputAsync((input == null) ? null : new StringStdinFeeder(input), builder);
+  }
+
+  /**
+   * Starts the process and monitors it asynchronously. A
+   * {@link PathStdinFeeder} does not feed the file via this JVM, instead
+   * stdin of the process gets redirected from the file (unless launching
+   * via a {@link Launcher}, which only supports pipes).
+   *
+   * @param feeder	for feeding data into stdin, ignored if null
+   * @param builder 	the process builder to monitor
+   * @return		the future that gets completed with this output once
+   * 			the process has finished and all output has been read;
+   * 			cancelling the future destroys the process; fails with
+   * 			an {@link IllegalStateException} if still monitoring
+   * 			a process
+   * @see		#isMonitoring()
+   */
+  public CompletableFuture<AbstractProcessOutput> monitorWithInputAsync(StdinFeeder feeder, ProcessBuilder builder) {
+    CompletableFuture<AbstractProcessOutput>	result;
+    Redirect					redirect;
+    long					start;
+
+    if (isMonitoring())
+      return stillMonitoring();
+
+    m_Command = builder.command().toArray(new String[0]);
+    setEnvironment(EnvironmentSnapshot.of(builder.environment()));
+    m_TimedOut = false;
+
+    // let the OS feed the file
+    redirect = null;
+    if ((feeder instanceof PathStdinFeeder) && (m_Launcher == null)) {
+      redirect = builder.redirectInput();
+      builder.redirectInput(((PathStdinFeeder) feeder).getFile().toFile());
+      feeder = null;
+    }
+
     try {
-      m_Command = cmd;
-      m_Environment = env;
-      m_Process = process;
-      m_TimedOut = false;
-
-      // stderr
-      m_ReaderStdErr = configureStdErr();
-      Thread threade = new Thread(m_ReaderStdErr);
-      threade.start();
-      m_ReaderStdErr.setProcess(m_Process);
-
-      // stdout
-      m_ReaderStdOut = configureStdOut();
-      Thread threado = new Thread(m_ReaderStdOut);
-      threado.start();
-      m_ReaderStdOut.setProcess(m_Process);
-
-      // time out check
-      m_RunnableTimeout = null;
-      if (m_TimeOut > 0) {
-	m_RunnableTimeout = configureTimeOutMonitor();
-	Thread threadt = new Thread(m_RunnableTimeout);
-	threadt.start();
-	m_RunnableTimeout.setProcess(m_Process);
-      }
+      start = System.nanoTime();
+      m_Process = (m_Launcher != null) ? m_Launcher.start(builder) : builder.start();
+      m_Metrics = newMetrics(start);
+      if (m_Metrics != null)
+	m_Metrics.setSpawnDuration(System.nanoTime() - start);
+    }
+    catch (Exception e) {
+      m_Process = null;
+      result = new CompletableFuture<>();
+      result.completeExceptionally(e);
+      return result;
+    }
+    finally {
+      if (redirect != null)
+	builder.redirectInput(redirect);
+    }
+
+    return startMonitoring(feeder);
+  }
+
+  /**
+   * Monitors the process asynchronously.
+   *
+   * @param cmd		the command that was used
+   * @param env		the environment
+   * @param input	the input to be written to the process via stdin, ignored if null
+   * @param process 	the process to monitor
+   * @return		the future that gets completed with this output once
+   * 			the process has finished and all output has been read;
+   * 			cancelling the future destroys the process; fails with
+   * 			an {@link IllegalStateException} if still monitoring
+   * 			a process
+   * @see		#isMonitoring()
+   */
+  public CompletableFuture<AbstractProcessOutput> monitorAsync(String[] cmd, String[] env, String input, Process process) {
+    if (isMonitoring())
+      return stillMonitoring();
 
-      // writing the input to the standard input of the process
-      if (input != null) {
-	BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
-	  m_Process.getOutputStream()));
-	writer.write(input);
-	writer.close();
+    m_Command = cmd;
+    m_Environment = env;
+    m_EnvironmentSnapshot = EnvironmentSnapshot.of(env);
+    m_Process = process;
+    m_TimedOut = false;
+    m_Metrics = newMetrics(System.nanoTime());
+
+    return startMonitoring((input == null) ? null : new StringStdinFeeder(input));
+  }
+
+  /**
+   * Returns whether a process is being monitored. This includes a process
+   * that keeps running after a {@link TriggerAction#DETACH} trigger
+   * completed the monitoring early. No other process can be monitored
+   * until it has finished (or got destroyed).
+   *
+   * @return		true if monitoring
+   */
+  public boolean isMonitoring() {
+    return (m_Monitoring != null);
+  }
+
+  /**
+   * Returns a future that failed because a process is still being monitored.
+   *
+   * @return		the failed future
+   * @see		#isMonitoring()
+   */
+  protected CompletableFuture<AbstractProcessOutput> stillMonitoring() {
+    CompletableFuture<AbstractProcessOutput>	result;
+
+    result = new CompletableFuture<>();
+    result.completeExceptionally(new IllegalStateException("Still monitoring a process (e.g., a detached one), cannot monitor another one!"));
+    return result;
+  }
+
+  /**
+   * Starts the readers, the timeout and the feeder for the current
+   * process. The returned future gets completed once the process has exited
+   * and both readers have reached EOF. If the process timed out, the readers
+   * are not waited for (the pipes might be held open by child processes).
+   * The feeder is only waited for if it finished before the process exited.
+   *
+   * @param feeder	for feeding data into stdin, ignored if null
+   * @return		the future
+   */
+  protected CompletableFuture<AbstractProcessOutput> startMonitoring(final StdinFeeder feeder) {
+    final CompletableFuture<AbstractProcessOutput>	result;
+    final Process					process;
+    final CompletableFuture<Void>			readers;
+    final CompletableFuture<Void>			feeding;
+    final ProcessMetrics				metrics;
+    CompletableFuture<Void>				reading;
+
+    result  = new CompletableFuture<>();
+    process = m_Process;
+    metrics = m_Metrics;
+    m_Monitoring     = result;
+    m_CaptureStopped = false;
+
+    // stderr
+    m_ReaderStdErr = configureStdErr();
+    m_ReaderStdErr.setLineFilter(this::filterLine);
+    // stdout
+    m_ReaderStdOut = configureStdOut();
+    m_ReaderStdOut.setLineFilter(this::filterLine);
+    if (metrics != null) {
+      m_ReaderStdErr.setMetrics(metrics.getStdErr());
+      m_ReaderStdOut.setMetrics(metrics.getStdOut());
+    }
+    reading = CompletableFuture.allOf(startReader(m_ReaderStdErr), startReader(m_ReaderStdOut));
+    if (metrics != null) {
+      reading = reading.whenComplete((r, t) -> metrics.setEndOfFile(System.nanoTime()));
+      getMetricsListener().processStarted(metrics);
+    }
+    readers = reading;
+
+    // time out check
+    scheduleTimeOut();
+
+    // feeding the standard input of the process, concurrently to the readers
+    if (feeder != null)
+      feeding = submit(() -> feed(process, feeder));
+    else
+      feeding = CompletableFuture.completedFuture(null);
+
+    process.onExit()
+      .thenCompose((p) -> {
+	if (metrics != null)
+	  metrics.setExit(System.nanoTime());
+	return (m_TimedOut ? CompletableFuture.<Void>completedFuture(null) : readers)
+	  .thenCombine(stopFeeding(feeding), (r, f) -> r);
+      })
+      .whenComplete((r, t) -> finishMonitoring(result, process, metrics, t));
+
+    result.whenComplete((r, t) -> {
+      if (result.isCancelled() && process.isAlive())
+	destroy();
+    });
+
+    return result;
+  }
+
+  /**
+   * Wraps up monitoring once the process has exited and the readers are done:
+   * records the exit code, flushes, fails pending triggers and notifies the
+   * metrics listener. Every step gets executed even if a previous one failed,
+   * the future always gets completed, with the first error that occurred
+   * (if any).
+   *
+   * @param result	the future to complete
+   * @param process	the process that finished
+   * @param metrics	the metrics, can be null
+   * @param error	the error that occurred while reading/feeding, can be null
+   */
+  protected void finishMonitoring(CompletableFuture<AbstractProcessOutput> result, Process process, ProcessMetrics metrics, Throwable error) {
+    try {
+      try {
+	m_ExitCode = process.exitValue();
+	flush();
+      }
+      catch (Throwable t) {
+	if (error == null)
+	  error = t;
+      }
+      finally {
+	m_Process = null;
+	m_ReaderStdErr = null;
+	m_ReaderStdOut = null;
+	m_FutureTimeOut = null;
+	m_RunnableTimeout = null;
+	m_Monitoring = null;
       }
 
-      m_ExitCode = m_Process.waitFor();
+      try {
+	failTriggers();
+      }
+      catch (Throwable t) {
+	if (error == null)
+	  error = t;
+      }
 
-      // wait for threads to finish
-      while (threade.isAlive() || threado.isAlive()) {
+      if (metrics != null) {
 	try {
-	  synchronized (this) {
-	    wait(100);
-	  }
-	  if (m_TimedOut)
-	    break;
+	  metrics.setExitCode(m_ExitCode);
+	  getMetricsListener().processFinished(metrics);
 	}
-	catch (Exception e) {
-	  // ignored
+	catch (Throwable t) {
+	  if (error == null)
+	    error = t;
 	}
       }
-
-      if (m_TimedOut) {
-	if (threade.isAlive())
-	  threade.interrupt();
-	if (threado.isAlive())
-	  threado.interrupt();
-      }
     }
     finally {
-      flush();
+      if (error != null)
+	result.completeExceptionally(unwrap(error));
+      else
+	result.complete(this);
+    }
+  }
 
-      m_Process = null;
-      m_ReaderStdErr = null;
-      m_ReaderStdOut = null;
-      m_RunnableTimeout = null;
+  /**
+   * Creates the metrics for the current process, if the metrics listener
+   * is collecting any.
+   *
+   * @param start	the time the process got launched
+   * @return		the metrics, null if not collecting any
+   * @see		#getMetricsListener()
+   */
+  protected ProcessMetrics newMetrics(long start) {
+    if (getMetricsListener() instanceof NullProcessMetricsListener)
+      return null;
+    return new ProcessMetrics(m_Command, start);
+  }
+
+  /**
+   * Feeds the data into stdin of the process and closes stdin afterwards.
+   *
+   * @param process	the process to feed
+   * @param feeder	the feeder to use
+   */
+  protected void feed(Process process, StdinFeeder feeder) {
+    try (OutputStream stdin = process.getOutputStream()) {
+      feeder.feed(stdin);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
   }
 
+  /**
+   * Gets called once the process has exited (or got killed). A feeder that
+   * is still busy at this point, e.g., blocked reading its source or writing
+   * to a pipe that a grandchild process still holds open, gets cancelled
+   * rather than waited for (the JVM closes stdin of the exited process, its
+   * errors are ignored).
+   *
+   * @param feeding	the future of the feeder
+   * @return		the future to wait for, the feeder's one if it has
+   * 			finished already
+   */
+  protected CompletableFuture<Void> stopFeeding(CompletableFuture<Void> feeding) {
+    if (feeding.isDone())
+      return feeding;
+    feeding.cancel(true);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Removes any wrappers from the exception that got added by the
+   * asynchronous execution.
+   *
+   * @param t		the exception to unwrap
+   * @return		the unwrapped exception
+   */
+  protected Throwable unwrap(Throwable t) {
+    while (((t instanceof CompletionException) || (t instanceof UncheckedIOException)) && (t.getCause() != null))
+      t = t.getCause();
+    return t;
+  }
+
+  /**
+   * Waits for the future to complete and rethrows any exception that
+   * occurred.
+   *
+   * @param future	the future to wait for
+   * @throws Exception	the exception that occurred
+   */
+  protected void await(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get();
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception)
+	throw (Exception) e.getCause();
+      else if (e.getCause() instanceof Error)
+	throw (Error) e.getCause();
+      else
+	throw e;
+    }
+  }
+
+  /**
+   * Sets the executor to use for running the readers.
+   *
+   * @param value	the executor, null to use the library-wide default
+   * @see		ExecutorUtils#getDefaultExecutor()
+   */
+  public void setExecutor(ExecutorService value) {
+    m_Executor = value;
+  }
+
+  /**
+   * Returns the executor used for running the readers.
+   *
+   * @return		the executor, null if using the library-wide default
+   * @see		ExecutorUtils#getDefaultExecutor()
+   */
+  public ExecutorService getExecutor() {
+    return m_Executor;
+  }
+
+  /**
+   * Sets the drainer to use for reading stdout/stderr. Instead of occupying
+   * two threads per process, the drainer services the pipes of many processes
+   * with a small number of threads.
+   *
+   * @param value	the drainer, null to run the readers via the executor
+   * @see		PipeDrainer#getDefault()
+   */
+  public void setPipeDrainer(PipeDrainer value) {
+    m_PipeDrainer = value;
+  }
+
+  /**
+   * Returns the drainer to use for reading stdout/stderr.
+   *
+   * @return		the drainer, null if the readers are run via the executor
+   */
+  public PipeDrainer getPipeDrainer() {
+    return m_PipeDrainer;
+  }
+
+  /**
+   * Sets the launcher to use for launching the processes. Rather than
+   * launching the processes from this JVM, they get launched via a helper
+   * process.
+   *
+   * @param value	the launcher, null to launch the processes directly
+   * @see		Launcher#getDefault()
+   */
+  public void setLauncher(Launcher value) {
+    m_Launcher = value;
+  }
+
+  /**
+   * Returns the launcher to use for launching the processes.
+   *
+   * @return		the launcher, null if launching the processes directly
+   */
+  public Launcher getLauncher() {
+    return m_Launcher;
+  }
+
+  /**
+   * Starts the reader for the current process, either by registering it
+   * with the drainer or by submitting it to the executor. Readers that the
+   * drainer does not support get submitted to the executor as well.
+   *
+   * @param reader	the reader to start
+   * @return		the future for tracking the completion
+   * @see		#getPipeDrainer()
+   * @see		#getExecutor()
+   */
+  protected CompletableFuture<Void> startReader(AbstractPipeReader reader) {
+    if ((m_PipeDrainer != null) && PipeDrainer.isSupported(reader))
+      return m_PipeDrainer.register(reader, m_Process);
+
+    reader.setProcess(m_Process);
+    return submit(reader);
+  }
+
+  /**
+   * Submits the runnable to the executor.
+   *
+   * @param runnable	the runnable to execute
+   * @return		the future for tracking the completion
+   */
+  protected CompletableFuture<Void> submit(Runnable runnable) {
+    if (m_Executor != null)
+      return CompletableFuture.runAsync(runnable, m_Executor);
+    else
+      return CompletableFuture.runAsync(runnable, ExecutorUtils.getDefaultExecutor());
+  }
+
   /**
    * Configures the reader for stderr.
    *
    * @return		the configured reader
    */
-  protected abstract AbstractProcessReader configureStdErr();
+  protected abstract AbstractPipeReader configureStdErr();
 
   /**
    * Configures the reader for stdout.
    *
    * @return		the configured reader
    */
-  protected abstract AbstractProcessReader configureStdOut();
+  protected abstract AbstractPipeReader configureStdOut();
+
+  /**
+   * Runnable that registers the deadline of its process with the timeout
+   * scheduler, rather than polling the process.
+   *
+   * @see	#configureTimeOutMonitor()
+   */
+  protected class ScheduledTimeOutMonitor
+    extends AbstractProcessRunnable {
+
+    /**
+     * Registers the deadline, does not block.
+     */
+    @Override
+    protected void doRun() {
+      scheduleTimeOut(m_Process);
+    }
+  }
 
   /**
    * Configures the runnable for watching for timeouts.
    *
    * @return		the configured runnable
+   * @deprecated	timeouts get registered with the {@link TimeOutScheduler}
+   * 			by {@link #scheduleTimeOut()}, which this runnable
+   * 			delegates to. A runnable returned by an overriding
+   * 			method still gets run in a thread of its own.
    */
+  @Deprecated
   protected AbstractProcessRunnable configureTimeOutMonitor() {
-    return new AbstractProcessRunnable() {
-      @Override
-      protected void doRun() {
-	long start = System.currentTimeMillis();
-	while (m_Process.isAlive()) {
-	  try {
-	    synchronized (this) {
-	      wait(500);
-	    }
-	    // time out defined and reached?
-	    if (m_Process.isAlive()) {
-	      if (((System.currentTimeMillis() - start) / 1000) >= m_TimeOut) {
-		m_TimedOut = true;
-		logError("Timeout of " + m_TimeOut + " seconds reached, terminating process...");
-		ProcessUtils.destroy(m_Process);
-		break;
-	      }
-	    }
-	  }
-	  catch (Exception e) {
-	    // ignored
-	  }
-	}
+    return new ScheduledTimeOutMonitor();
+  }
+
+  /**
+   * Registers the deadline for the current process with the timeout
+   * scheduler, if a timeout has been set.
+   *
+   * @see		#getTimeOut()
+   * @see		TimeOutScheduler#getDefault()
+   */
+  @SuppressWarnings("deprecation")
+  protected void scheduleTimeOut() {
+    AbstractProcessRunnable	monitor;
+    Thread			thread;
+
+    m_FutureTimeOut   = null;
+    m_RunnableTimeout = null;
+    if (m_TimeOut < 1)
+      return;
+
+    monitor = configureTimeOutMonitor();
+    if ((monitor == null) || (monitor instanceof ScheduledTimeOutMonitor)) {
+      scheduleTimeOut(m_Process);
+    }
+    else {
+      // subclass with its own monitor
+      m_RunnableTimeout = monitor;
+      m_RunnableTimeout.setProcess(m_Process);
+      thread = ExecutorUtils.newThreadFactory(ExecutorUtils.THREAD_PREFIX + "timeout-").newThread(m_RunnableTimeout);
+      thread.start();
+    }
+  }
+
+  /**
+   * Registers the deadline for the process with the timeout scheduler.
+   *
+   * @param process	the process to register
+   */
+  protected void scheduleTimeOut(final Process process) {
+    m_FutureTimeOut = TimeOutScheduler.getDefault().schedule(
+      process, m_TimeOut, TimeUnit.SECONDS, () -> timeOutReached(process));
+  }
+
+  /**
+   * Gets called when the process has reached the timeout. Terminates the
+   * process and its descendants without blocking the timeout scheduler.
+   *
+   * @param process	the process that timed out
+   */
+  protected void timeOutReached(final Process process) {
+    m_TimedOut = true;
+    if (m_Metrics != null) {
+      m_Metrics.setTimedOut(true);
+      getMetricsListener().processTimedOut(m_Metrics);
+    }
+    getErrorLogger().logError("Timeout of " + m_TimeOut + " seconds reached, terminating process...");
+    terminate(process);
+  }
+
+  /**
+   * Terminates the process and its descendants according to the grace
+   * period, without blocking.
+   *
+   * @param process	the process to terminate
+   * @see		#getGracePeriod()
+   */
+  protected void terminate(Process process) {
+    if (m_GracePeriod == 0)
+      ProcessUtils.destroy(process);
+    else
+      ProcessUtils.terminate(process, m_GracePeriod);
+  }
+
+  /**
+   * Sets the error logger to use.
+   *
+   * @param value	the logger
+   */
+  public void setErrorLogger(ErrorLogger value) {
+    m_ErrorLogger = value;
+  }
+
+  /**
+   * Returns the error logger in use.
+   *
+   * @return		the logger
+   */
+  public ErrorLogger getErrorLogger() {
+    if (m_ErrorLogger == null)
+      m_ErrorLogger = new StderrErrorLogger();
+    return m_ErrorLogger;
+  }
+
+  /**
+   * Sets the listener to notify about the metrics of the processes.
+   *
+   * @param value	the listener, null to not collect any metrics
+   */
+  public void setMetricsListener(ProcessMetricsListener value) {
+    m_MetricsListener = value;
+  }
+
+  /**
+   * Returns the listener that gets notified about the metrics of the processes.
+   * By default, no metrics are collected.
+   *
+   * @return		the listener
+   * @see		NullProcessMetricsListener
+   */
+  public ProcessMetricsListener getMetricsListener() {
+    if (m_MetricsListener == null)
+      m_MetricsListener = NullProcessMetricsListener.INSTANCE;
+    return m_MetricsListener;
+  }
+
+  /**
+   * Returns the metrics of the current or last process.
+   *
+   * @return		the metrics, null if not collecting any
+   * @see		#setMetricsListener(ProcessMetricsListener)
+   */
+  public ProcessMetrics getMetrics() {
+    return m_Metrics;
+  }
+
+  /**
+   * Registers a trigger that fires once a line on stdout or stderr contains
+   * the literal.
+   *
+   * @param literal	the literal to look for
+   * @param action	what to do once fired
+   * @return		the future that gets completed with the matching line
+   * @see		#addTrigger(Trigger)
+   */
+  public CompletableFuture<String> addTrigger(String literal, TriggerAction action) {
+    return addTrigger(new Trigger(literal, StreamingProcessOutputType.BOTH, action));
+  }
+
+  /**
+   * Registers a trigger that fires once the regular expression can be found
+   * in a line on stdout or stderr.
+   *
+   * @param pattern	the regular expression to look for
+   * @param action	what to do once fired
+   * @return		the future that gets completed with the matching line
+   * @see		#addTrigger(Trigger)
+   */
+  public CompletableFuture<String> addTrigger(Pattern pattern, TriggerAction action) {
+    return addTrigger(new Trigger(pattern, StreamingProcessOutputType.BOTH, action));
+  }
+
+  /**
+   * Registers the trigger, which applies to the current process or, if none
+   * is running, to the next one. The future gets completed on the reader
+   * thread as soon as a matching line has been read and before the line gets
+   * processed. It fails with an {@link IllegalStateException} if the process
+   * finishes without any line matching. Cancelling the future removes the
+   * trigger.
+   * <br>
+   * Triggers only work with readers that process lines, not with ones that
+   * process chunks of bytes.
+   *
+   * @param trigger	the trigger
+   * @return		the future of the trigger
+   */
+  public CompletableFuture<String> addTrigger(Trigger trigger) {
+    synchronized (this) {
+      if (m_Triggers == null)
+	m_Triggers = new CopyOnWriteArrayList<>();
+    }
+    m_Triggers.add(trigger);
+    return trigger.getFuture();
+  }
+
+  /**
+   * Removes all pending triggers, cancelling their futures.
+   */
+  public void clearTriggers() {
+    List<Trigger>	triggers;
+
+    triggers = m_Triggers;
+    if (triggers == null)
+      return;
+    for (Trigger trigger: triggers) {
+      triggers.remove(trigger);
+      trigger.getFuture().cancel(false);
+    }
+  }
+
+  /**
+   * Checks the line against the pending triggers, firing the matching ones.
+   *
+   * @param line	the line to check
+   * @param stdout	whether stdout or stderr
+   * @return		true if to process the line, false if capturing has stopped
+   */
+  protected boolean filterLine(CharSequence line, boolean stdout) {
+    List<Trigger>	triggers;
+    boolean		result;
+
+    result   = !m_CaptureStopped;
+    triggers = m_Triggers;
+    if ((triggers == null) || triggers.isEmpty())
+      return result;
+
+    for (Trigger trigger: triggers) {
+      if (trigger.isDone()) {
+	triggers.remove(trigger);
+	continue;
       }
-    };
+      if (!trigger.matches(line, stdout))
+	continue;
+      triggers.remove(trigger);
+      if (trigger.fire(line))
+	triggerFired(trigger);
+    }
+
+    return result;
+  }
+
+  /**
+   * Performs the action of the trigger that just fired.
+   *
+   * @param trigger	the trigger
+   */
+  protected void triggerFired(Trigger trigger) {
+    CompletableFuture<AbstractProcessOutput>	monitoring;
+
+    switch (trigger.getAction()) {
+      case STOP_CAPTURE:
+	m_CaptureStopped = true;
+	break;
+      case DETACH:
+	m_CaptureStopped = true;
+	monitoring       = m_Monitoring;
+	if (monitoring != null)
+	  monitoring.complete(this);
+	break;
+      case DESTROY:
+	destroy();
+	break;
+    }
+  }
+
+  /**
+   * Fails the pending triggers, as the process has finished.
+   */
+  protected void failTriggers() {
+    List<Trigger>	triggers;
+
+    triggers = m_Triggers;
+    if (triggers == null)
+      return;
+    for (Trigger trigger: triggers) {
+      triggers.remove(trigger);
+      trigger.fail(new IllegalStateException("Process finished without output matching trigger: " + trigger));
+    }
   }
 
   /**
@@ -338,11 +1051,35 @@ public abstract class AbstractProcessOutput
    * Returns the environment.
    *
    * @return the environment, null if process inherited current one
+   * @see #getEnvironmentSnapshot()
    */
   public String[] getEnvironment() {
     return m_Environment;
   }
 
+  /**
+   * Sets the environment of the process. The key=value strings only get
+   * recreated if the snapshot differs from the one of the previous process.
+   *
+   * @param value	the snapshot, null if process inherited current one
+   */
+  protected void setEnvironment(EnvironmentSnapshot value) {
+    if ((value == null) || (value != m_EnvironmentSnapshot) || (m_Environment == null))
+      m_Environment = (value == null) ? null : value.toArray();
+    m_EnvironmentSnapshot = value;
+  }
+
+  /**
+   * Returns the environment as shared, immutable snapshot.
+   *
+   * @return the environment, null if process inherited current one
+   */
+  public EnvironmentSnapshot getEnvironmentSnapshot() {
+    if ((m_EnvironmentSnapshot == null) && (m_Environment != null))
+      m_EnvironmentSnapshot = EnvironmentSnapshot.of(m_Environment);
+    return m_EnvironmentSnapshot;
+  }
+
   /**
    * Returns whether the process has succeeded.
    *
@@ -383,25 +1120,36 @@ public abstract class AbstractProcessOutput
   }
 
   /**
-   * Flushes the readers.
+   * Gets called once the monitoring of a process has finished and when
+   * destroying it. The readers are not flushed here, as they flush
+   * themselves once they reached EOF (before the process is considered
+   * finished). Derived classes can override this method to finish up their
+   * own data structures.
+   *
+   * @see		AbstractPipeReader#finish()
    */
   public void flush() {
-    if (m_ReaderStdErr != null)
-      m_ReaderStdErr.flush();
-    if (m_ReaderStdOut != null)
-      m_ReaderStdOut.flush();
   }
 
   /**
-   * Destroys the process if possible.
+   * Destroys the process and its descendants if possible. If a grace period
+   * is set, they get destroyed forcibly if still alive after it.
+   *
+   * @see		#getGracePeriod()
    */
   public void destroy() {
+    if ((m_Process != null) && (m_Metrics != null)) {
+      m_Metrics.setDestroyed(true);
+      getMetricsListener().processDestroyed(m_Metrics);
+    }
     if (m_Process != null)
-      ProcessUtils.destroy(m_Process);
+      terminate(m_Process);
     if (m_ReaderStdErr != null)
       m_ReaderStdErr.stopExecution();
     if (m_ReaderStdOut != null)
       m_ReaderStdOut.stopExecution();
+    if (m_FutureTimeOut != null)
+      m_FutureTimeOut.cancel(false);
     if (m_RunnableTimeout != null)
       m_RunnableTimeout.stopExecution();
     flush();
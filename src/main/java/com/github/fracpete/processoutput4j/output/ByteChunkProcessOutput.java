@@ -0,0 +1,86 @@
+/*
+ * ByteChunkProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.ByteChunkOwner;
+import com.github.fracpete.processoutput4j.core.impl.OutputStreamByteChunkOwner;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.ByteChunkProcessReader;
+
+import java.util.Arrays;
+
+/**
+ * Streams the raw bytes (no charset decoding, no line splitting) into the
+ * owning {@link ByteChunkOwner} object. Useful for processes that output
+ * large amounts of binary or already encoded data.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ByteChunkProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = -4317795585834337510L;
+
+  /** the owner. */
+  protected ByteChunkOwner m_Owner;
+
+  /**
+   * Initializes the process output with the specified owning object.
+   *
+   * @param owner	the owning object
+   */
+  public ByteChunkProcessOutput(ByteChunkOwner owner) {
+    super();
+    m_Owner = owner;
+  }
+
+  /**
+   * Configures the thread for stderr.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdErr() {
+    return new ByteChunkProcessReader(m_Owner, false);
+  }
+
+  /**
+   * Configures the thread for stdout.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdOut() {
+    return new ByteChunkProcessReader(m_Owner, true);
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 		builder;
+    ByteChunkProcessOutput 	out;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    out = new ByteChunkProcessOutput(new OutputStreamByteChunkOwner());
+    out.monitor(builder);
+    System.out.flush();
+    System.out.println();
+    System.out.println("Command:");
+    System.out.println(Arrays.asList(args));
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+  }
+}
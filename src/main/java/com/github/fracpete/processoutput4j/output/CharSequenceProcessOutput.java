@@ -0,0 +1,91 @@
+/*
+ * CharSequenceProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.CharSequenceOwner;
+import com.github.fracpete.processoutput4j.core.impl.LineCountingCharSequenceOwner;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.CharSequenceProcessReader;
+
+import java.util.Arrays;
+
+/**
+ * Streams the lines as reusable {@link CharSequence} views into the owning
+ * {@link CharSequenceOwner} object, avoiding the creation of a string per
+ * line. Useful for filters that only inspect or count lines of processes
+ * with large amounts of output.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CharSequenceProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = 6059321884871604312L;
+
+  /** the owner. */
+  protected CharSequenceOwner m_Owner;
+
+  /**
+   * Initializes the process output with the specified owning object.
+   *
+   * @param owner	the owning object
+   */
+  public CharSequenceProcessOutput(CharSequenceOwner owner) {
+    super();
+    m_Owner = owner;
+  }
+
+  /**
+   * Configures the thread for stderr.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdErr() {
+    return new CharSequenceProcessReader(m_Owner, false);
+  }
+
+  /**
+   * Configures the thread for stdout.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdOut() {
+    return new CharSequenceProcessReader(m_Owner, true);
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 			builder;
+    CharSequenceProcessOutput 		out;
+    LineCountingCharSequenceOwner	owner;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    owner = new LineCountingCharSequenceOwner();
+    out = new CharSequenceProcessOutput(owner);
+    out.monitor(builder);
+    System.out.println("Command:");
+    System.out.println(Arrays.asList(args));
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+    System.out.println("Stdout (lines/chars):");
+    System.out.println(owner.getStdOutLines() + "/" + owner.getStdOutChars());
+    System.out.println("Stderr (lines/chars):");
+    System.out.println(owner.getStdErrLines() + "/" + owner.getStdErrChars());
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * CompressedCollectingProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.CompressedContent;
+import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
+import com.github.fracpete.processoutput4j.reader.CompressingProcessReader;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Collects the process output (stdout and stderr) and makes them available
+ * once the process finishes. As the lines arrive, they get compressed in
+ * independent blocks, which only get decompressed when requesting the
+ * output. Useful for retaining the output of many processes in memory.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ * @see CompressedContent
+ */
+public class CompressedCollectingProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = 5873204926112407384L;
+
+  /** the stdout content. */
+  protected CompressedContent m_StdOut;
+
+  /** the stderr content. */
+  protected CompressedContent m_StdErr;
+
+  /**
+   * Initializes the output with the default block size and compression
+   * level.
+   *
+   * @see CompressedContent#DEFAULT_BLOCK_SIZE
+   * @see CompressedContent#DEFAULT_LEVEL
+   */
+  public CompressedCollectingProcessOutput() {
+    this(CompressedContent.DEFAULT_BLOCK_SIZE, CompressedContent.DEFAULT_LEVEL);
+  }
+
+  /**
+   * Initializes the output.
+   *
+   * @param blockSize	the size of the blocks (uncompressed) in bytes
+   * @param level	the compression level (0-9, -1 for default)
+   */
+  public CompressedCollectingProcessOutput(int blockSize, int level) {
+    super();
+    m_StdOut = new CompressedContent(blockSize, level);
+    m_StdErr = new CompressedContent(blockSize, level);
+  }
+
+  /**
+   * Configures the reader for stderr.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdErr() {
+    return new CompressingProcessReader(false, m_StdErr);
+  }
+
+  /**
+   * Configures the reader for stdout.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdOut() {
+    return new CompressingProcessReader(true, m_StdOut);
+  }
+
+  /**
+   * Compresses any pending output of stdout and stderr.
+   */
+  @Override
+  public void flush() {
+    super.flush();
+    m_StdOut.finish();
+    m_StdErr.finish();
+  }
+
+  /**
+   * Returns the output on stdout, decompressing it.
+   *
+   * @return the output
+   */
+  public String getStdOut() {
+    return m_StdOut.toString();
+  }
+
+  /**
+   * Returns the output on stderr, decompressing it.
+   *
+   * @return the output
+   */
+  public String getStdErr() {
+    return m_StdErr.toString();
+  }
+
+  /**
+   * Returns a reader for the output on stdout, decompressing one block at
+   * a time.
+   *
+   * @return the reader
+   */
+  public Reader getStdOutReader() {
+    return m_StdOut.getReader();
+  }
+
+  /**
+   * Returns a reader for the output on stderr, decompressing one block at
+   * a time.
+   *
+   * @return the reader
+   */
+  public Reader getStdErrReader() {
+    return m_StdErr.getReader();
+  }
+
+  /**
+   * Returns the content for stdout, e.g., for its compression statistics.
+   *
+   * @return the content
+   */
+  public CompressedContent getStdOutContent() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns the content for stderr, e.g., for its compression statistics.
+   *
+   * @return the content
+   */
+  public CompressedContent getStdErrContent() {
+    return m_StdErr;
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 			builder;
+    CompressedCollectingProcessOutput 	out;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    out = new CompressedCollectingProcessOutput();
+    out.monitor(builder);
+    System.out.println();
+    System.out.println("Command:");
+    System.out.println(Arrays.asList(args));
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+    System.out.println("StdOut (ratio: " + out.getStdOutContent().getCompressionRatio() + "):");
+    System.out.println(out.getStdOut());
+    System.err.println("StdErr (ratio: " + out.getStdErrContent().getCompressionRatio() + "):");
+    System.err.println(out.getStdErr());
+  }
+}
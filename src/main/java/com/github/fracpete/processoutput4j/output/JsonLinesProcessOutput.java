@@ -0,0 +1,115 @@
+/*
+ * JsonLinesProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.JsonRecord;
+import com.github.fracpete.processoutput4j.core.JsonRecordOwner;
+import com.github.fracpete.processoutput4j.core.LineView;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.JsonLinesProcessReader;
+
+import java.util.Arrays;
+
+/**
+ * Parses the output of processes that output JSON lines (NDJSON), e.g.,
+ * "rg --json" or "cargo build --message-format=json", and streams the
+ * records into the owning {@link JsonRecordOwner} object. Only the values of
+ * the specified dot-separated paths are located in the lines, which get
+ * parsed straight from the reader's buffer without creating a string per
+ * line.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class JsonLinesProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = -3520713458105671466L;
+
+  /** the owner. */
+  protected JsonRecordOwner m_Owner;
+
+  /** the paths to project. */
+  protected String[] m_Paths;
+
+  /**
+   * Initializes the process output with the specified owning object.
+   *
+   * @param owner	the owning object
+   * @param paths	the dot-separated paths of the values to project
+   */
+  public JsonLinesProcessOutput(JsonRecordOwner owner, String... paths) {
+    super();
+    m_Owner = owner;
+    m_Paths = paths.clone();
+  }
+
+  /**
+   * Returns the paths that get projected.
+   *
+   * @return		the paths
+   */
+  public String[] getPaths() {
+    return m_Paths.clone();
+  }
+
+  /**
+   * Configures the thread for stderr.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdErr() {
+    return new JsonLinesProcessReader(m_Owner, false, m_Paths);
+  }
+
+  /**
+   * Configures the thread for stdout.
+   *
+   * @return		the configured thread, not yet started
+   */
+  @Override
+  protected AbstractPipeReader configureStdOut() {
+    return new JsonLinesProcessReader(m_Owner, true, m_Paths);
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme,
+   * outputting the projected values of the JSON lines on stdout.
+   *
+   * @param args	the comma-separated paths, followed by the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 		builder;
+    JsonLinesProcessOutput 	out;
+
+    if (args.length < 2) {
+      System.err.println("No paths and/or command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(Arrays.copyOfRange(args, 1, args.length));
+    out = new JsonLinesProcessOutput(new JsonRecordOwner() {
+      @Override
+      public StreamingProcessOutputType getOutputType() {
+	return StreamingProcessOutputType.STDOUT;
+      }
+      @Override
+      public void processRecord(JsonRecord record, boolean stdout) {
+	System.out.println(record);
+      }
+      @Override
+      public void processInvalid(LineView line, boolean stdout) {
+	System.err.println("Invalid: " + line);
+      }
+    }, args[0].split(","));
+    out.monitor(builder);
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * MergedCollectingProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.StampedLine;
+import com.github.fracpete.processoutput4j.core.StampedLineBuffer;
+import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
+import com.github.fracpete.processoutput4j.reader.StampingProcessReader;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the process output (stdout and stderr), stamping each line with
+ * a global sequence number and its arrival time. Offers a single view with
+ * the lines of both streams in order of arrival, which is merged from the two
+ * per-stream buffers on demand (also while the process is still running).
+ * <br>
+ * Note: the order reflects when the lines were read from the pipes, which
+ * can differ from the order in which the process wrote them if both
+ * streams are written to in quick succession.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class MergedCollectingProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = -2187459305571823644L;
+
+  /** the sequence shared by the readers. */
+  protected AtomicLong m_Sequence;
+
+  /** the stdout lines. */
+  protected StampedLineBuffer m_StdOut;
+
+  /** the stderr lines. */
+  protected StampedLineBuffer m_StdErr;
+
+  /**
+   * For initializing the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+    m_Sequence = new AtomicLong();
+    m_StdOut   = new StampedLineBuffer();
+    m_StdErr   = new StampedLineBuffer();
+  }
+
+  /**
+   * Configures the reader for stderr.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdErr() {
+    return new StampingProcessReader(false, m_Sequence, m_StdErr);
+  }
+
+  /**
+   * Configures the reader for stdout.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdOut() {
+    return new StampingProcessReader(true, m_Sequence, m_StdOut);
+  }
+
+  /**
+   * Returns the buffer with the stdout lines.
+   *
+   * @return		the buffer
+   */
+  public StampedLineBuffer getStdOutBuffer() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns the buffer with the stderr lines.
+   *
+   * @return		the buffer
+   */
+  public StampedLineBuffer getStdErrBuffer() {
+    return m_StdErr;
+  }
+
+  /**
+   * Returns the lines of stdout and stderr, ordered by sequence number.
+   *
+   * @return		the lines
+   */
+  public List<StampedLine> getMerged() {
+    return StampedLineBuffer.merge(m_StdOut, m_StdErr);
+  }
+
+  /**
+   * Turns the lines into a string.
+   *
+   * @param lines	the lines to convert
+   * @return		the generated string
+   */
+  protected String toString(StampedLine[] lines) {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    for (StampedLine line: lines) {
+      result.append(line.getLine());
+      result.append('\n');
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the output of both stdout and stderr, ordered by sequence number.
+   *
+   * @return		the output
+   */
+  public String getMergedOutput() {
+    return toString(getMerged().toArray(new StampedLine[0]));
+  }
+
+  /**
+   * Returns the output on stdout.
+   *
+   * @return		the output
+   */
+  public String getStdOut() {
+    return toString(m_StdOut.toArray());
+  }
+
+  /**
+   * Returns the output on stderr.
+   *
+   * @return		the output
+   */
+  public String getStdErr() {
+    return toString(m_StdErr.toArray());
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 			builder;
+    MergedCollectingProcessOutput 	out;
+    long				start;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    out = new MergedCollectingProcessOutput();
+    out.monitor(builder);
+    System.out.println();
+    System.out.println("Command:");
+    System.out.println(Arrays.asList(args));
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+    System.out.println("Output:");
+    start = -1;
+    for (StampedLine line: out.getMerged()) {
+      if (start == -1)
+	start = line.getTimestamp();
+      System.out.println(String.format("%10.3f ms ", (line.getTimestamp() - start) / 1000000.0) + line);
+    }
+  }
+}
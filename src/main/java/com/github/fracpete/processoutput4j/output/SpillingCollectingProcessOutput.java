@@ -0,0 +1,214 @@
+/*
+ * SpillingCollectingProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.SpillingContent;
+import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
+import com.github.fracpete.processoutput4j.reader.SpillingProcessReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Collects the process output (stdout and stderr) and makes them available
+ * once the process finishes. Output is kept in memory up to the specified
+ * threshold and then spilled to temporary files. Use {@link #close()} to
+ * remove the temporary files.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpillingCollectingProcessOutput
+  extends AbstractProcessOutput
+  implements Closeable {
+
+  private static final long serialVersionUID = -8164513536006470735L;
+
+  /** the default threshold in characters. */
+  public final static int DEFAULT_THRESHOLD = 1024 * 1024;
+
+  /** the stdout content. */
+  protected transient SpillingContent m_StdOut;
+
+  /** the stderr content. */
+  protected transient SpillingContent m_StdErr;
+
+  /**
+   * Initializes the output with the default threshold, using the system's
+   * temp directory.
+   *
+   * @see #DEFAULT_THRESHOLD
+   */
+  public SpillingCollectingProcessOutput() {
+    this(DEFAULT_THRESHOLD, null);
+  }
+
+  /**
+   * Initializes the output.
+   *
+   * @param threshold	the maximum number of characters per stream to keep in memory
+   * @param tempDir	the directory for the temporary files, null for the system's default
+   */
+  public SpillingCollectingProcessOutput(int threshold, Path tempDir) {
+    super();
+    m_StdOut = new SpillingContent(threshold, tempDir);
+    m_StdErr = new SpillingContent(threshold, tempDir);
+  }
+
+  /**
+   * Configures the reader for stderr.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdErr() {
+    return new SpillingProcessReader(false, m_StdErr);
+  }
+
+  /**
+   * Configures the reader for stdout.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractProcessReader configureStdOut() {
+    return new SpillingProcessReader(true, m_StdOut);
+  }
+
+  /**
+   * Finishes the output of stdout and stderr, flushing the temporary files.
+   */
+  @Override
+  public void flush() {
+    super.flush();
+    m_StdOut.finish();
+    m_StdErr.finish();
+  }
+
+  /**
+   * Returns the output on stdout. Reads the temporary file if spilled.
+   *
+   * @return the output
+   */
+  public String getStdOut() {
+    return m_StdOut.toString();
+  }
+
+  /**
+   * Returns the output on stderr. Reads the temporary file if spilled.
+   *
+   * @return the output
+   */
+  public String getStdErr() {
+    return m_StdErr.toString();
+  }
+
+  /**
+   * Returns a reader for the output on stdout.
+   *
+   * @return the reader
+   * @throws IOException	if opening the temporary file fails
+   */
+  public Reader getStdOutReader() throws IOException {
+    return m_StdOut.getReader();
+  }
+
+  /**
+   * Returns a reader for the output on stderr.
+   *
+   * @return the reader
+   * @throws IOException	if opening the temporary file fails
+   */
+  public Reader getStdErrReader() throws IOException {
+    return m_StdErr.getReader();
+  }
+
+  /**
+   * Returns the output on stdout as UTF-8 bytes, memory-mapped if spilled.
+   *
+   * @return the output
+   * @throws IOException	if mapping the temporary file fails
+   */
+  public ByteBuffer getStdOutBytes() throws IOException {
+    return m_StdOut.getBytes();
+  }
+
+  /**
+   * Returns the output on stderr as UTF-8 bytes, memory-mapped if spilled.
+   *
+   * @return the output
+   * @throws IOException	if mapping the temporary file fails
+   */
+  public ByteBuffer getStdErrBytes() throws IOException {
+    return m_StdErr.getBytes();
+  }
+
+  /**
+   * Returns the content for stdout.
+   *
+   * @return the content
+   */
+  public SpillingContent getStdOutContent() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns the content for stderr.
+   *
+   * @return the content
+   */
+  public SpillingContent getStdErrContent() {
+    return m_StdErr;
+  }
+
+  /**
+   * Removes the content and deletes the temporary files.
+   *
+   * @throws IOException	if deleting fails
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      m_StdOut.close();
+    }
+    finally {
+      m_StdErr.close();
+    }
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 	builder;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    try (SpillingCollectingProcessOutput out = new SpillingCollectingProcessOutput()) {
+      out.monitor(builder);
+      System.out.println();
+      System.out.println("Command:");
+      System.out.println(Arrays.asList(args));
+      System.out.println("Exit code:");
+      System.out.println(out.getExitCode());
+      System.out.println("StdOut (spilled: " + out.getStdOutContent().isSpilled() + "):");
+      System.out.println(out.getStdOut());
+      System.err.println("StdErr (spilled: " + out.getStdErrContent().isSpilled() + "):");
+      System.err.println(out.getStdErr());
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * StreamingProcessOutput.java
- * Copyright (C) 2017-2020 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package com.github.fracpete.processoutput4j.output;
@@ -10,6 +10,7 @@ import com.github.fracpete.processoutput4j.core.impl.PrefixedStreamingProcessOwn
 import com.github.fracpete.processoutput4j.reader.AbstractProcessReader;
 import com.github.fracpete.processoutput4j.reader.StreamingProcessReader;
 
+import java.io.Flushable;
 import java.util.Arrays;
 
 /**
@@ -25,6 +26,12 @@ public class StreamingProcessOutput
   /** the owner. */
   protected StreamingProcessOwner m_Owner;
 
+  /** the maximum number of lines per batch (no batching if less than 2). */
+  protected int m_BatchSize;
+
+  /** the maximum latency for a batch in milliseconds. */
+  protected int m_MaxBatchLatency;
+
   /**
    * Initializes the process output with the specified owning object.
    *
@@ -35,6 +42,55 @@ public class StreamingProcessOutput
     m_Owner = owner;
   }
 
+  /**
+   * For initializing the members.
+   */
+  @Override
+  protected void initialize() {
+    super.initialize();
+    m_BatchSize       = 1;
+    m_MaxBatchLatency = -1;
+  }
+
+  /**
+   * Sets the maximum number of lines to forward to the owner in a single
+   * batch.
+   *
+   * @param value	the number of lines, no batching if less than 2
+   * @see		StreamingProcessOwner#processOutputBatch(java.util.List, boolean)
+   */
+  public void setBatchSize(int value) {
+    m_BatchSize = value;
+  }
+
+  /**
+   * Returns the maximum number of lines to forward to the owner in a single
+   * batch.
+   *
+   * @return		the number of lines, no batching if less than 2
+   */
+  public int getBatchSize() {
+    return m_BatchSize;
+  }
+
+  /**
+   * Sets the maximum time that lines can be held back in a batch.
+   *
+   * @param value	the latency in milliseconds, no limit if less than 1
+   */
+  public void setMaxBatchLatency(int value) {
+    m_MaxBatchLatency = value;
+  }
+
+  /**
+   * Returns the maximum time that lines can be held back in a batch.
+   *
+   * @return		the latency in milliseconds, no limit if less than 1
+   */
+  public int getMaxBatchLatency() {
+    return m_MaxBatchLatency;
+  }
+
   /**
    * Configures the thread for stderr.
    *
@@ -42,7 +98,7 @@ public class StreamingProcessOutput
    */
   @Override
   protected AbstractProcessReader configureStdErr() {
-    return new StreamingProcessReader(m_Owner, false);
+    return new StreamingProcessReader(m_Owner, false, m_BatchSize, m_MaxBatchLatency);
   }
 
   /**
@@ -52,7 +108,25 @@ public class StreamingProcessOutput
    */
   @Override
   protected AbstractProcessReader configureStdOut() {
-    return new StreamingProcessReader(m_Owner, true);
+    return new StreamingProcessReader(m_Owner, true, m_BatchSize, m_MaxBatchLatency);
+  }
+
+  /**
+   * Flushes the owner (if it implements {@link Flushable}). The readers
+   * have already flushed any pending lines to the owner when they
+   * reached EOF.
+   */
+  @Override
+  public void flush() {
+    super.flush();
+    if (m_Owner instanceof Flushable) {
+      try {
+	((Flushable) m_Owner).flush();
+      }
+      catch (Exception e) {
+	getErrorLogger().logError("Failed to flush owner!", e);
+      }
+    }
   }
 
   /**
@@ -0,0 +1,147 @@
+/*
+ * TailCollectingProcessOutput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.output;
+
+import com.github.fracpete.processoutput4j.core.LineRingBuffer;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.TailCollectingProcessReader;
+
+import java.util.Arrays;
+
+/**
+ * Collects only the most recent process output (stdout and stderr),
+ * limited by number of lines and/or characters per stream, and makes them
+ * available once the process finishes. The memory usage stays constant,
+ * regardless of how much output the process generates.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TailCollectingProcessOutput
+  extends AbstractProcessOutput {
+
+  private static final long serialVersionUID = 6420394436357718453L;
+
+  /** the default number of lines to keep. */
+  public final static int DEFAULT_MAX_LINES = 1000;
+
+  /** the default number of characters to keep. */
+  public final static long DEFAULT_MAX_CHARS = 1024 * 1024;
+
+  /** the stdout content. */
+  protected LineRingBuffer m_StdOut;
+
+  /** the stderr content. */
+  protected LineRingBuffer m_StdErr;
+
+  /**
+   * Initializes the output, keeping the last {@link #DEFAULT_MAX_LINES}
+   * lines, but at most {@link #DEFAULT_MAX_CHARS} characters, per stream.
+   */
+  public TailCollectingProcessOutput() {
+    this(DEFAULT_MAX_LINES, DEFAULT_MAX_CHARS);
+  }
+
+  /**
+   * Initializes the output.
+   *
+   * @param maxLines	the maximum number of lines to keep per stream, less than 1 for unlimited
+   * @param maxChars	the maximum number of characters to keep per stream
+   * 			(including line breaks), less than 1 for unlimited;
+   * 			overlong lines only get truncated while reading if
+   * 			limited
+   */
+  public TailCollectingProcessOutput(int maxLines, long maxChars) {
+    super();
+    m_StdOut = new LineRingBuffer(maxLines, maxChars);
+    m_StdErr = new LineRingBuffer(maxLines, maxChars);
+  }
+
+  /**
+   * Configures the reader for stderr.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractPipeReader configureStdErr() {
+    return new TailCollectingProcessReader(false, m_StdErr);
+  }
+
+  /**
+   * Configures the reader for stdout.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractPipeReader configureStdOut() {
+    return new TailCollectingProcessReader(true, m_StdOut);
+  }
+
+  /**
+   * Returns the most recent output on stdout.
+   *
+   * @return the output
+   */
+  public String getStdOut() {
+    return m_StdOut.toString();
+  }
+
+  /**
+   * Returns the most recent output on stderr.
+   *
+   * @return the output
+   */
+  public String getStdErr() {
+    return m_StdErr.toString();
+  }
+
+  /**
+   * Returns the buffer for stdout, giving access to the lines and counters.
+   *
+   * @return the buffer
+   */
+  public LineRingBuffer getStdOutBuffer() {
+    return m_StdOut;
+  }
+
+  /**
+   * Returns the buffer for stderr, giving access to the lines and counters.
+   *
+   * @return the buffer
+   */
+  public LineRingBuffer getStdErrBuffer() {
+    return m_StdErr;
+  }
+
+  /**
+   * Allows the execution of a command through this process output scheme.
+   *
+   * @param args	the command to launch
+   * @throws Exception	if launching fails for some reason
+   */
+  public static void main(String[] args) throws Exception {
+    ProcessBuilder 			builder;
+    TailCollectingProcessOutput 	out;
+
+    if (args.length == 0) {
+      System.err.println("No command (+ options) provided!");
+      System.exit(1);
+    }
+
+    builder = new ProcessBuilder();
+    builder.command(args);
+    out = new TailCollectingProcessOutput();
+    out.monitor(builder);
+    System.out.println();
+    System.out.println("Command:");
+    System.out.println(Arrays.asList(args));
+    System.out.println("Exit code:");
+    System.out.println(out.getExitCode());
+    System.out.println("StdOut (discarded lines: " + out.getStdOutBuffer().getDiscardedLines() + "):");
+    System.out.println(out.getStdOut());
+    System.err.println("StdErr (discarded lines: " + out.getStdErrBuffer().getDiscardedLines() + "):");
+    System.err.println(out.getStdErr());
+  }
+}
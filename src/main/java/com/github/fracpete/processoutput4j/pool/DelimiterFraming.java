@@ -0,0 +1,111 @@
+/*
+ * DelimiterFraming.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.pool;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Responses consist of all the lines up to a delimiter line (which is not
+ * part of the response). Requests are written as is, followed by a line
+ * break, and optionally also terminated by the delimiter line (for
+ * multi-line requests).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class DelimiterFraming
+  implements Framing {
+
+  /** the default delimiter. */
+  public final static String DEFAULT_DELIMITER = "---END---";
+
+  /** the delimiter line. */
+  protected String m_Delimiter;
+
+  /** whether to terminate requests with the delimiter as well. */
+  protected boolean m_DelimitRequests;
+
+  /**
+   * Initializes the framing with the default delimiter, for single-line
+   * requests.
+   */
+  public DelimiterFraming() {
+    this(DEFAULT_DELIMITER, false);
+  }
+
+  /**
+   * Initializes the framing.
+   *
+   * @param delimiter		the delimiter line
+   * @param delimitRequests	whether to terminate requests with the delimiter line as well
+   */
+  public DelimiterFraming(String delimiter, boolean delimitRequests) {
+    m_Delimiter       = delimiter;
+    m_DelimitRequests = delimitRequests;
+  }
+
+  /**
+   * Returns the delimiter line.
+   *
+   * @return		the delimiter
+   */
+  public String getDelimiter() {
+    return m_Delimiter;
+  }
+
+  /**
+   * Returns whether requests get terminated by the delimiter line as well.
+   *
+   * @return		true if delimited
+   */
+  public boolean getDelimitRequests() {
+    return m_DelimitRequests;
+  }
+
+  /**
+   * Writes the request.
+   *
+   * @param out		the writer for stdin of the worker
+   * @param request	the request to write
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public void writeRequest(Writer out, String request) throws IOException {
+    out.write(request);
+    out.write('\n');
+    if (m_DelimitRequests) {
+      out.write(m_Delimiter);
+      out.write('\n');
+    }
+  }
+
+  /**
+   * Returns a new decoder for the responses of a worker.
+   *
+   * @return		the decoder
+   */
+  @Override
+  public Decoder newDecoder() {
+    return new Decoder() {
+      protected StringBuilder m_Response = new StringBuilder();
+      protected int m_Lines = 0;
+      @Override
+      public String decode(String line) {
+	String result;
+	if (line.equals(m_Delimiter)) {
+	  result = m_Response.toString();
+	  m_Response.setLength(0);
+	  m_Lines = 0;
+	  return result;
+	}
+	if (m_Lines++ > 0)
+	  m_Response.append('\n');
+	m_Response.append(line);
+	return null;
+      }
+    };
+  }
+}
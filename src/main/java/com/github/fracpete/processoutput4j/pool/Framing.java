@@ -0,0 +1,49 @@
+/*
+ * Framing.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.pool;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Defines how requests are written to the stdin of a worker and how the
+ * responses are delimited in its stdout.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public interface Framing {
+
+  /**
+   * Decodes the responses from the lines output by a worker on stdout.
+   * Each worker uses its own decoder.
+   */
+  public interface Decoder {
+
+    /**
+     * Processes the next line.
+     *
+     * @param line	the line output by the worker
+     * @return		the response if complete, otherwise null
+     */
+    public String decode(String line);
+  }
+
+  /**
+   * Writes the request.
+   *
+   * @param out		the writer for stdin of the worker
+   * @param request	the request to write
+   * @throws IOException	if writing fails
+   */
+  public void writeRequest(Writer out, String request) throws IOException;
+
+  /**
+   * Returns a new decoder for the responses of a worker.
+   *
+   * @return		the decoder
+   */
+  public Decoder newDecoder();
+}
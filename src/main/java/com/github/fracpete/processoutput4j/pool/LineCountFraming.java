@@ -0,0 +1,74 @@
+/*
+ * LineCountFraming.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.pool;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Requests and responses are prefixed by a line with the number of lines
+ * that follow.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class LineCountFraming
+  implements Framing {
+
+  /**
+   * Writes the request.
+   *
+   * @param out		the writer for stdin of the worker
+   * @param request	the request to write
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public void writeRequest(Writer out, String request) throws IOException {
+    String[]	lines;
+
+    lines = request.isEmpty() ? new String[0] : request.split("\r\n|\n|\r", -1);
+    out.write(Integer.toString(lines.length));
+    out.write('\n');
+    for (String line: lines) {
+      out.write(line);
+      out.write('\n');
+    }
+  }
+
+  /**
+   * Returns a new decoder for the responses of a worker.
+   *
+   * @return		the decoder
+   */
+  @Override
+  public Decoder newDecoder() {
+    return new Decoder() {
+      protected StringBuilder m_Response = new StringBuilder();
+      protected int m_Remaining = -1;
+      protected int m_Lines = 0;
+      @Override
+      public String decode(String line) {
+	String result;
+	if (m_Remaining == -1) {
+	  m_Remaining = Integer.parseInt(line.trim());
+	}
+	else {
+	  if (m_Lines++ > 0)
+	    m_Response.append('\n');
+	  m_Response.append(line);
+	  m_Remaining--;
+	}
+	if (m_Remaining == 0) {
+	  result = m_Response.toString();
+	  m_Response.setLength(0);
+	  m_Remaining = -1;
+	  m_Lines = 0;
+	  return result;
+	}
+	return null;
+      }
+    };
+  }
+}
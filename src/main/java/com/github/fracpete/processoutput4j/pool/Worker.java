@@ -0,0 +1,330 @@
+/*
+ * Worker.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.pool;
+
+import com.github.fracpete.processoutput4j.core.LineRingBuffer;
+import com.github.fracpete.processoutput4j.core.StdinFeeder;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+import com.github.fracpete.processoutput4j.reader.AbstractPipeReader;
+import com.github.fracpete.processoutput4j.reader.StreamingProcessReader;
+import com.github.fracpete.processoutput4j.reader.TailCollectingProcessReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A long-lived child process of a {@link WorkerPool}. Requests are written
+ * to its stdin, the responses are decoded from its stdout (in the order of
+ * the requests). The most recent lines of stderr are kept for diagnostics.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class Worker
+  extends AbstractProcessOutput
+  implements StreamingProcessOwner {
+
+  private static final long serialVersionUID = 5092750781964155302L;
+
+  /** the pool this worker belongs to. */
+  protected transient WorkerPool m_Pool;
+
+  /** the decoder for the responses. */
+  protected transient Framing.Decoder m_Decoder;
+
+  /** the most recent stderr output. */
+  protected LineRingBuffer m_StdErr;
+
+  /** the requests that were sent, but not answered yet. */
+  protected transient Deque<WorkerPool.Request> m_InFlight;
+
+  /** the writer for stdin. */
+  protected transient Writer m_Writer;
+
+  /** the requests that still need to be written to stdin. */
+  protected transient Deque<WorkerPool.Request> m_Outgoing;
+
+  /** whether a thread is currently writing the requests (guarded by m_Outgoing). */
+  protected boolean m_Writing;
+
+  /** the process of the worker. */
+  protected transient Process m_WorkerProcess;
+
+  /** the time the worker was started. */
+  protected long m_StartTime;
+
+  /** the number of answered requests. */
+  protected volatile int m_NumRequests;
+
+  /** the number of assigned requests (guarded by the pool). */
+  protected int m_Assigned;
+
+  /** whether the worker no longer accepts requests (guarded by the pool). */
+  protected boolean m_Retired;
+
+  /**
+   * Initializes the worker.
+   *
+   * @param pool	the pool this worker belongs to
+   * @param stdErrLines	the number of stderr lines to keep
+   */
+  protected Worker(WorkerPool pool, int stdErrLines) {
+    super();
+    m_Pool      = pool;
+    m_Decoder   = pool.getFraming().newDecoder();
+    m_StdErr    = new LineRingBuffer(stdErrLines, -1);
+    m_InFlight  = new ArrayDeque<>();
+    m_Outgoing  = new ArrayDeque<>();
+    m_StartTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Configures the reader for stderr, keeping the most recent lines.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractPipeReader configureStdErr() {
+    return new TailCollectingProcessReader(false, m_StdErr);
+  }
+
+  /**
+   * Configures the reader for stdout, forwarding the lines to the decoder.
+   *
+   * @return		the configured reader
+   */
+  @Override
+  protected AbstractPipeReader configureStdOut() {
+    return new StreamingProcessReader(this, true);
+  }
+
+  /**
+   * Keeps a reference to the process and opens stdin, before starting the
+   * readers.
+   *
+   * @param feeder	ignored, as the requests are written by the worker
+   * @return		the future
+   */
+  @Override
+  protected CompletableFuture<AbstractProcessOutput> startMonitoring(StdinFeeder feeder) {
+    m_WorkerProcess = m_Process;
+    m_Writer        = new BufferedWriter(new OutputStreamWriter(m_Process.getOutputStream()));
+    return super.startMonitoring(null);
+  }
+
+  /**
+   * Returns what output from the process to forward.
+   *
+   * @return		only stdout
+   */
+  @Override
+  public StreamingProcessOutputType getOutputType() {
+    return StreamingProcessOutputType.STDOUT;
+  }
+
+  /**
+   * Decodes the line output on stdout and passes on any complete response
+   * to the pool.
+   *
+   * @param line	the line
+   * @param stdout	always true
+   */
+  @Override
+  public void processOutput(String line, boolean stdout) {
+    String		response;
+    WorkerPool.Request	request;
+
+    try {
+      response = m_Decoder.decode(line);
+    }
+    catch (Exception e) {
+      getErrorLogger().logError("Failed to decode output of worker #" + getPid() + ": " + line, e);
+      m_Pool.recycle(this);
+      return;
+    }
+    if (response == null)
+      return;
+
+    synchronized (m_InFlight) {
+      request = m_InFlight.poll();
+    }
+    if (request != null)
+      m_NumRequests++;
+    m_Pool.responded(this, request, response);
+  }
+
+  /**
+   * Queues the request for writing to stdin of the process. The requests
+   * get written in order by a thread of {@link WorkerPool#getDefaultExecutor()},
+   * as the caller might be the thread that reads the output of the process.
+   *
+   * @param request	the request to send
+   */
+  protected void send(WorkerPool.Request request) {
+    boolean	start;
+
+    synchronized (m_InFlight) {
+      m_InFlight.add(request);
+    }
+    synchronized (m_Outgoing) {
+      m_Outgoing.add(request);
+      start     = !m_Writing;
+      m_Writing = true;
+    }
+    if (start)
+      WorkerPool.getDefaultExecutor().execute(this::write);
+  }
+
+  /**
+   * Writes the queued requests to stdin of the process, flushing once no
+   * more requests are queued. Recycles the worker if writing fails.
+   */
+  protected void write() {
+    WorkerPool.Request	request;
+    boolean		more;
+
+    try {
+      while (true) {
+	synchronized (m_Outgoing) {
+	  request = m_Outgoing.poll();
+	  if (request == null) {
+	    m_Writing = false;
+	    return;
+	  }
+	}
+	synchronized (m_Writer) {
+	  m_Pool.getFraming().writeRequest(m_Writer, request.request);
+	  synchronized (m_Outgoing) {
+	    more = !m_Outgoing.isEmpty();
+	  }
+	  if (!more)
+	    m_Writer.flush();
+	}
+      }
+    }
+    catch (IOException e) {
+      // the worker has most likely died, the requests get failed once it exited
+      synchronized (m_Outgoing) {
+	m_Outgoing.clear();
+	m_Writing = false;
+      }
+      m_Pool.recycle(this);
+    }
+  }
+
+  /**
+   * Closes stdin of the process, which signals the worker to exit.
+   */
+  protected void closeStdIn() {
+    synchronized (m_Writer) {
+      try {
+	m_Writer.close();
+      }
+      catch (IOException e) {
+	// ignored
+      }
+    }
+  }
+
+  /**
+   * Removes all the requests that were sent, but not answered.
+   *
+   * @return		the requests
+   */
+  protected List<WorkerPool.Request> drainInFlight() {
+    List<WorkerPool.Request>	result;
+
+    synchronized (m_InFlight) {
+      result = new ArrayList<>(m_InFlight);
+      m_InFlight.clear();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the process of the worker.
+   *
+   * @return		the process
+   */
+  public Process getWorkerProcess() {
+    return m_WorkerProcess;
+  }
+
+  /**
+   * Returns the process ID of the worker.
+   *
+   * @return		the PID, -1 if not available
+   */
+  public long getPid() {
+    return (m_WorkerProcess == null) ? -1 : m_WorkerProcess.pid();
+  }
+
+  /**
+   * Returns the time the worker was started.
+   *
+   * @return		the time in msec since 1970
+   */
+  public long getStartTime() {
+    return m_StartTime;
+  }
+
+  /**
+   * Returns the age of the worker.
+   *
+   * @return		the age in msec
+   */
+  public long getAge() {
+    return System.currentTimeMillis() - m_StartTime;
+  }
+
+  /**
+   * Returns the number of requests that the worker has answered.
+   *
+   * @return		the number of requests
+   */
+  public int getNumRequests() {
+    return m_NumRequests;
+  }
+
+  /**
+   * Returns the number of requests that were sent, but not answered yet.
+   *
+   * @return		the number of requests
+   */
+  public int getNumInFlight() {
+    synchronized (m_InFlight) {
+      return m_InFlight.size();
+    }
+  }
+
+  /**
+   * Returns the most recent lines output on stderr.
+   *
+   * @return		the lines
+   */
+  public LineRingBuffer getStdErrBuffer() {
+    return m_StdErr;
+  }
+
+  /**
+   * Returns a short description of the worker.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "pid=" + getPid() + ", requests=" + m_NumRequests + ", age=" + getAge() + ", " + super.toString();
+  }
+}
@@ -0,0 +1,641 @@
+/*
+ * WorkerPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.pool;
+
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.core.ProcessUtils;
+import com.github.fracpete.processoutput4j.core.TimeOutScheduler;
+import com.github.fracpete.processoutput4j.output.AbstractProcessOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool of long-lived child processes (workers) that answer requests sent
+ * via stdin with responses on stdout, avoiding the startup cost of launching
+ * a process per request. How requests and responses are delimited is
+ * defined by the {@link Framing}. A worker must answer its requests in the
+ * order it received them.
+ * <br>
+ * Several requests can be sent to a worker without waiting for the
+ * responses (see {@link #setMaxPipelined(int)}). Workers that die are
+ * replaced, workers whose request timed out get destroyed and replaced.
+ * Workers can be retired after a number of requests or a maximum age (also
+ * while idle); a retired worker gets its stdin closed once all its requests
+ * are answered and is destroyed if it doesn't exit within
+ * {@link #RETIRE_GRACE} msec.
+ * <br>
+ * The requests get written to the workers by the threads of
+ * {@link #getDefaultExecutor()}, never by the threads reading the
+ * responses: a worker that outputs while still reading a large request
+ * would otherwise block the write, with nobody reading its output.
+ * <br>
+ * The futures of the requests get completed on the reader thread of the
+ * worker, i.e., dependent actions should not block.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class WorkerPool
+  implements Closeable {
+
+  /** the time in msec that retired workers get for exiting after their stdin got closed. */
+  public final static int RETIRE_GRACE = 5000;
+
+  /** the default number of stderr lines to keep per worker. */
+  public final static int DEFAULT_STDERR_LINES = 100;
+
+  /**
+   * A request.
+   */
+  protected static class Request {
+
+    /** the request. */
+    public final String request;
+
+    /** the future for the response. */
+    public final CompletableFuture<String> future;
+
+    /** the deadline of the timeout. */
+    public volatile Future<?> timeout;
+
+    /**
+     * Initializes the request.
+     *
+     * @param request	the request
+     */
+    public Request(String request) {
+      this.request = request;
+      this.future  = new CompletableFuture<>();
+    }
+  }
+
+  /** the builder for the workers. */
+  protected ProcessBuilder m_Builder;
+
+  /** the number of workers. */
+  protected int m_Size;
+
+  /** the framing of requests/responses. */
+  protected Framing m_Framing;
+
+  /** the maximum number of requests sent to a worker without waiting for the responses. */
+  protected int m_MaxPipelined;
+
+  /** the maximum number of requests per worker (less than 1 for unlimited). */
+  protected int m_MaxRequests;
+
+  /** the maximum age of a worker in msec (less than 1 for unlimited). */
+  protected long m_MaxAge;
+
+  /** the timeout for a request in msec (less than 1 for none). */
+  protected long m_RequestTimeOut;
+
+  /** the number of stderr lines to keep per worker. */
+  protected int m_StdErrLines;
+
+  /** the active workers. */
+  protected List<Worker> m_Workers;
+
+  /** the requests waiting for a worker. */
+  protected Deque<Request> m_Queue;
+
+  /** whether the pool got closed. */
+  protected boolean m_Closed;
+
+  /** the number of workers that were launched. */
+  protected int m_NumSpawned;
+
+  /** the number of workers that were retired or died. */
+  protected int m_NumRecycled;
+
+  /** the executor for writing the requests, shared by all pools. */
+  protected static ExecutorService m_DefaultExecutor;
+
+  /**
+   * Initializes the pool.
+   *
+   * @param builder	the builder for launching the workers
+   * @param size	the number of workers
+   * @param framing	the framing of the requests/responses
+   */
+  public WorkerPool(ProcessBuilder builder, int size, Framing framing) {
+    if (size < 1)
+      throw new IllegalArgumentException("At least one worker required, provided: " + size);
+
+    m_Builder        = builder;
+    m_Size           = size;
+    m_Framing        = framing;
+    m_MaxPipelined   = 1;
+    m_MaxRequests    = -1;
+    m_MaxAge         = -1;
+    m_RequestTimeOut = -1;
+    m_StdErrLines    = DEFAULT_STDERR_LINES;
+    m_Workers        = new ArrayList<>();
+    m_Queue          = new ArrayDeque<>();
+  }
+
+  /**
+   * Returns the executor that writes the requests and retires expired
+   * workers, shared by all pools.
+   *
+   * @return		the executor
+   */
+  public static synchronized ExecutorService getDefaultExecutor() {
+    if (m_DefaultExecutor == null)
+      m_DefaultExecutor = ExecutorUtils.newExecutor(0);
+    return m_DefaultExecutor;
+  }
+
+  /**
+   * Returns the framing of requests/responses.
+   *
+   * @return		the framing
+   */
+  public Framing getFraming() {
+    return m_Framing;
+  }
+
+  /**
+   * Returns the number of workers.
+   *
+   * @return		the number
+   */
+  public int getSize() {
+    return m_Size;
+  }
+
+  /**
+   * Sets the maximum number of requests that get sent to a worker without
+   * waiting for the responses.
+   *
+   * @param value	the maximum (at least 1)
+   */
+  public synchronized void setMaxPipelined(int value) {
+    m_MaxPipelined = Math.max(1, value);
+  }
+
+  /**
+   * Returns the maximum number of requests that get sent to a worker without
+   * waiting for the responses.
+   *
+   * @return		the maximum
+   */
+  public synchronized int getMaxPipelined() {
+    return m_MaxPipelined;
+  }
+
+  /**
+   * Sets the number of requests after which a worker gets retired.
+   *
+   * @param value	the maximum, less than 1 for unlimited
+   */
+  public synchronized void setMaxRequests(int value) {
+    m_MaxRequests = value;
+  }
+
+  /**
+   * Returns the number of requests after which a worker gets retired.
+   *
+   * @return		the maximum, less than 1 for unlimited
+   */
+  public synchronized int getMaxRequests() {
+    return m_MaxRequests;
+  }
+
+  /**
+   * Sets the age after which a worker gets retired. Only affects workers
+   * launched after the change.
+   *
+   * @param value	the age in msec, less than 1 for unlimited
+   */
+  public synchronized void setMaxAge(long value) {
+    m_MaxAge = value;
+  }
+
+  /**
+   * Returns the age after which a worker gets retired.
+   *
+   * @return		the age in msec, less than 1 for unlimited
+   */
+  public synchronized long getMaxAge() {
+    return m_MaxAge;
+  }
+
+  /**
+   * Sets the timeout for requests, measured from sending the request to the
+   * worker. Workers that time out get destroyed.
+   *
+   * @param value	the timeout in msec, less than 1 for none
+   */
+  public synchronized void setRequestTimeOut(long value) {
+    m_RequestTimeOut = value;
+  }
+
+  /**
+   * Returns the timeout for requests.
+   *
+   * @return		the timeout in msec, less than 1 for none
+   */
+  public synchronized long getRequestTimeOut() {
+    return m_RequestTimeOut;
+  }
+
+  /**
+   * Sets the number of stderr lines to keep per worker.
+   *
+   * @param value	the number of lines
+   */
+  public synchronized void setStdErrLines(int value) {
+    m_StdErrLines = value;
+  }
+
+  /**
+   * Returns the number of stderr lines to keep per worker.
+   *
+   * @return		the number of lines
+   */
+  public synchronized int getStdErrLines() {
+    return m_StdErrLines;
+  }
+
+  /**
+   * Launches the workers, if not already running.
+   */
+  public synchronized void start() {
+    fill();
+  }
+
+  /**
+   * Launches workers until the pool is full again. Must be called while
+   * holding the lock.
+   */
+  protected void fill() {
+    while (!m_Closed && (m_Workers.size() < m_Size)) {
+      if (!spawn())
+	return;
+    }
+  }
+
+  /**
+   * Launches a new worker. Must be called while holding the lock.
+   *
+   * @return		true if successfully launched
+   */
+  protected boolean spawn() {
+    final Worker				worker;
+    CompletableFuture<AbstractProcessOutput>	future;
+
+    worker = new Worker(this, m_StdErrLines);
+    future = worker.monitorAsync(m_Builder);
+    m_NumSpawned++;
+    if (future.isCompletedExceptionally()) {
+      failQueued(future);
+      return false;
+    }
+    m_Workers.add(worker);
+    future.whenComplete((r, t) -> exited(worker));
+    if (m_MaxAge > 0) {
+      TimeOutScheduler.getDefault().schedule(
+	worker.getWorkerProcess(), m_MaxAge, TimeUnit.MILLISECONDS, () -> getDefaultExecutor().execute(() -> expired(worker)));
+    }
+
+    return true;
+  }
+
+  /**
+   * Gets called when the worker has reached the maximum age. Retires it
+   * and shuts it down if it is idle.
+   *
+   * @param worker	the worker
+   */
+  protected void expired(Worker worker) {
+    boolean	close;
+
+    synchronized (this) {
+      close = !worker.m_Retired && (worker.m_Assigned == 0);
+      retire(worker);
+    }
+
+    if (close)
+      shutdown(worker);
+    dispatch();
+  }
+
+  /**
+   * Fails all queued requests, as no worker could be launched. Must be
+   * called while holding the lock.
+   *
+   * @param failed	the failed launch of the worker
+   */
+  protected void failQueued(CompletableFuture<?> failed) {
+    Throwable	cause;
+    Request	request;
+
+    if (!m_Workers.isEmpty())
+      return;
+    try {
+      failed.join();
+      cause = new IOException("Failed to launch worker");
+    }
+    catch (Exception e) {
+      cause = (e.getCause() != null) ? e.getCause() : e;
+    }
+    while ((request = m_Queue.poll()) != null)
+      request.future.completeExceptionally(cause);
+  }
+
+  /**
+   * Submits the request.
+   *
+   * @param request	the request
+   * @return		the future for the response
+   */
+  public CompletableFuture<String> submit(String request) {
+    Request	req;
+
+    req = new Request(request);
+    synchronized (this) {
+      if (m_Closed) {
+	req.future.completeExceptionally(new IllegalStateException("Pool has been closed!"));
+	return req.future;
+      }
+      m_Queue.add(req);
+    }
+    dispatch();
+
+    return req.future;
+  }
+
+  /**
+   * Returns the worker with the least requests that can accept another
+   * request. Must be called while holding the lock.
+   *
+   * @return		the worker, null if none available
+   */
+  protected Worker select() {
+    Worker	result;
+
+    result = null;
+    for (Worker worker: m_Workers) {
+      if (worker.m_Assigned >= m_MaxPipelined)
+	continue;
+      if ((result == null) || (worker.m_Assigned < result.m_Assigned))
+	result = worker;
+    }
+
+    return result;
+  }
+
+  /**
+   * Sends queued requests to workers that can accept them.
+   */
+  protected void dispatch() {
+    List<Worker>	workers;
+    List<Request>	requests;
+    List<Worker>	idle;
+    Worker		worker;
+    int			i;
+
+    workers  = new ArrayList<>();
+    requests = new ArrayList<>();
+    idle     = new ArrayList<>();
+    synchronized (this) {
+      if (m_MaxAge > 0) {
+	for (Worker w: new ArrayList<>(m_Workers)) {
+	  if (w.getAge() > m_MaxAge) {
+	    retire(w);
+	    if (w.m_Assigned == 0)
+	      idle.add(w);
+	  }
+	}
+      }
+      if (!m_Queue.isEmpty())
+	fill();
+      while (!m_Queue.isEmpty()) {
+	worker = select();
+	if (worker == null)
+	  break;
+	worker.m_Assigned++;
+	workers.add(worker);
+	requests.add(m_Queue.poll());
+      }
+    }
+
+    for (Worker w: idle)
+      shutdown(w);
+    for (i = 0; i < workers.size(); i++)
+      send(workers.get(i), requests.get(i));
+  }
+
+  /**
+   * Sends the request to the worker. The request gets written
+   * asynchronously.
+   *
+   * @param worker	the worker
+   * @param request	the request
+   */
+  protected void send(final Worker worker, final Request request) {
+    long	timeout;
+
+    synchronized (this) {
+      timeout = m_RequestTimeOut;
+    }
+    if (timeout > 0) {
+      request.timeout = TimeOutScheduler.getDefault().schedule(
+	timeout, TimeUnit.MILLISECONDS, () -> timedOut(worker, request));
+    }
+
+    worker.send(request);
+  }
+
+  /**
+   * Gets called when a worker has output a response.
+   *
+   * @param worker	the worker
+   * @param request	the request that was answered, null if none was sent
+   * @param response	the response
+   */
+  protected void responded(Worker worker, Request request, String response) {
+    boolean	close;
+
+    if (request == null) {
+      worker.getErrorLogger().logError("Worker #" + worker.getPid() + " sent a response without a request, recycling: " + response);
+      recycle(worker);
+      return;
+    }
+
+    if (request.timeout != null)
+      request.timeout.cancel(false);
+
+    synchronized (this) {
+      worker.m_Assigned--;
+      if ((m_MaxRequests > 0) && (worker.getNumRequests() >= m_MaxRequests))
+	retire(worker);
+      close = worker.m_Retired && (worker.m_Assigned == 0);
+    }
+
+    if (close)
+      shutdown(worker);
+    request.future.complete(response);
+    dispatch();
+  }
+
+  /**
+   * Gets called when a request timed out. Destroys the worker.
+   *
+   * @param worker	the worker
+   * @param request	the request that timed out
+   */
+  protected void timedOut(Worker worker, Request request) {
+    if (request.future.completeExceptionally(new TimeoutException("Request timed out on worker #" + worker.getPid())))
+      recycle(worker);
+  }
+
+  /**
+   * Retires the worker, i.e., it no longer receives any requests, and
+   * launches a replacement. Must be called while holding the lock.
+   *
+   * @param worker	the worker to retire
+   */
+  protected void retire(final Worker worker) {
+    if (worker.m_Retired)
+      return;
+    worker.m_Retired = true;
+    if (m_Workers.remove(worker))
+      m_NumRecycled++;
+    fill();
+  }
+
+  /**
+   * Closes stdin of the retired worker, which has answered all its requests,
+   * and destroys it if it doesn't exit within {@link #RETIRE_GRACE} msec.
+   *
+   * @param worker	the worker to shut down
+   */
+  protected void shutdown(final Worker worker) {
+    worker.closeStdIn();
+    TimeOutScheduler.getDefault().schedule(
+      worker.getWorkerProcess(), RETIRE_GRACE, TimeUnit.MILLISECONDS, () -> ProcessUtils.terminate(worker.getWorkerProcess(), 0));
+  }
+
+  /**
+   * Retires and destroys the worker, including any processes it launched.
+   *
+   * @param worker	the worker to recycle
+   */
+  protected void recycle(Worker worker) {
+    synchronized (this) {
+      retire(worker);
+    }
+    ProcessUtils.terminate(worker.getWorkerProcess(), 0);
+  }
+
+  /**
+   * Gets called when the process of a worker has exited. Fails all its
+   * unanswered requests. A worker that died unexpectedly only gets replaced
+   * right away if it had answered requests, otherwise only once there are
+   * requests waiting (avoids relaunching broken workers in a loop).
+   *
+   * @param worker	the worker that exited
+   */
+  protected void exited(Worker worker) {
+    IOException	error;
+
+    synchronized (this) {
+      if (m_Workers.remove(worker)) {
+	m_NumRecycled++;
+	if (worker.getNumRequests() > 0)
+	  fill();
+      }
+      worker.m_Retired = true;
+    }
+
+    error = null;
+    for (Request request: worker.drainInFlight()) {
+      if (error == null)
+	error = new IOException("Worker #" + worker.getPid() + " exited with code " + worker.getExitCode() + ", stderr:\n" + worker.getStdErrBuffer());
+      if (request.timeout != null)
+	request.timeout.cancel(false);
+      request.future.completeExceptionally(error);
+    }
+
+    dispatch();
+  }
+
+  /**
+   * Returns the active workers.
+   *
+   * @return		the workers
+   */
+  public synchronized List<Worker> getWorkers() {
+    return new ArrayList<>(m_Workers);
+  }
+
+  /**
+   * Returns the number of requests waiting for a worker.
+   *
+   * @return		the number of requests
+   */
+  public synchronized int getNumQueued() {
+    return m_Queue.size();
+  }
+
+  /**
+   * Returns the number of workers that were launched.
+   *
+   * @return		the number of workers
+   */
+  public synchronized int getNumSpawned() {
+    return m_NumSpawned;
+  }
+
+  /**
+   * Returns the number of workers that were retired or died.
+   *
+   * @return		the number of workers
+   */
+  public synchronized int getNumRecycled() {
+    return m_NumRecycled;
+  }
+
+  /**
+   * Closes the pool. Queued requests get failed, the workers get their stdin
+   * closed once they have answered their requests.
+   */
+  @Override
+  public void close() {
+    List<Request>	queued;
+    List<Worker>	idle;
+    Request		request;
+
+    queued = new ArrayList<>();
+    idle   = new ArrayList<>();
+    synchronized (this) {
+      m_Closed = true;
+      while ((request = m_Queue.poll()) != null)
+	queued.add(request);
+      for (Worker worker: new ArrayList<>(m_Workers)) {
+	retire(worker);
+	if (worker.m_Assigned == 0)
+	  idle.add(worker);
+      }
+    }
+
+    for (Request r: queued)
+      r.future.completeExceptionally(new IllegalStateException("Pool has been closed!"));
+    for (Worker worker: idle)
+      shutdown(worker);
+  }
+}
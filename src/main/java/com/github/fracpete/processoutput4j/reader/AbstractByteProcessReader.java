@@ -0,0 +1,133 @@
+/*
+ * AbstractByteProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Ancestor for readers that read raw bytes from stdout/stderr of the provided
+ * {@link Process} object, without any charset decoding or line splitting.
+ * The chunks are read into a reusable buffer, i.e., no objects get created
+ * per chunk.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractByteProcessReader
+  extends AbstractPipeReader {
+
+  /** the default buffer size in bytes. */
+  public final static int DEFAULT_BUFFER_SIZE = 65536;
+
+  /** the buffer to read into. */
+  protected ByteBuffer m_Buffer;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout	whether to read stdout or stderr
+   */
+  public AbstractByteProcessReader(boolean stdout) {
+    this(stdout, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout	whether to read stdout or stderr
+   * @param bufferSize	the size of the buffer in bytes
+   */
+  public AbstractByteProcessReader(boolean stdout, int bufferSize) {
+    super(stdout);
+    m_Buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param pollInterval 	the timeout interval in milliseconds to use when polling for new output
+   * @param errorLogger 	the error logger to use
+   * @param stdout		whether to read stdout or stderr
+   * @param bufferSize		the size of the buffer in bytes
+   */
+  public AbstractByteProcessReader(int pollInterval, ErrorLogger errorLogger, boolean stdout, int bufferSize) {
+    super(pollInterval, errorLogger, stdout);
+    m_Buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * For processing the chunk read from stdout/stderr. The buffer is only
+   * valid for the duration of the call, its content has to be copied if it
+   * needs to be retained.
+   *
+   * @param chunk	the chunk, from position to limit
+   */
+  protected abstract void process(ByteBuffer chunk);
+
+  /**
+   * Passes the chunk on to {@link #process(ByteBuffer)}, recording the time
+   * spent in the callback if collecting metrics.
+   *
+   * @param chunk	the chunk
+   */
+  protected void dispatch(ByteBuffer chunk) {
+    long	start;
+
+    if (m_Metrics == null) {
+      process(chunk);
+      return;
+    }
+
+    start = System.nanoTime();
+    process(chunk);
+    m_Metrics.chunkProcessed(System.nanoTime() - start);
+  }
+
+  /**
+   * Flushes the data. Does nothing, as the data gets read till EOF.
+   */
+  @Override
+  public void flush() {
+  }
+
+  /**
+   * The actual processing loop, reads till EOF.
+   */
+  @Override
+  protected void doRun() {
+    InputStream	in;
+    byte[]	buffer;
+    int		read;
+
+    try {
+      in     = getStream();
+      buffer = m_Buffer.array();
+      while (!isStopped()) {
+	try {
+	  read = in.read(buffer);
+	}
+	catch (IOException ioe) {
+	  // has process stopped?
+	  if ((ioe.getMessage() != null) && ioe.getMessage().toLowerCase().contains("stream closed"))
+	    return;
+	  else
+	    throw ioe;
+	}
+	if (read == -1)
+	  break;
+	m_Buffer.clear();
+	m_Buffer.limit(read);
+	dispatch(m_Buffer);
+      }
+    }
+    catch (Exception e) {
+      logError("Failed to read from " + (m_Stdout ? "stdout" : "stderr") + " for process #" + m_Process.hashCode() + ":", e);
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * AbstractCharSequenceProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.LineFilter;
+import com.github.fracpete.processoutput4j.core.LineView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Ancestor for readers that process the lines from stdout/stderr as
+ * {@link CharSequence} views on a reusable character buffer rather than as
+ * strings. Once the buffers are large enough for the longest line, the read
+ * loop does not allocate any objects.
+ * <br>
+ * The view handed to {@link #process(LineView)} is only valid for the
+ * duration of the call; use {@link LineView#toString()} to retain a line.
+ * <br>
+ * With a maximum line length set, only the end of overlong lines gets kept
+ * while reading, which keeps the buffers bounded even for a single huge
+ * line (the lines handed over can still be up to twice as long). The number
+ * of characters discarded from the start of the current line is available
+ * from {@link #m_Truncated}.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractCharSequenceProcessReader
+  extends AbstractPipeReader {
+
+  /** the default buffer size. */
+  public final static int DEFAULT_BUFFER_SIZE = 8192;
+
+  /** the buffer for the raw bytes. */
+  protected ByteBuffer m_Bytes;
+
+  /** the buffer for the decoded characters. */
+  protected char[] m_Chars;
+
+  /** the char buffer wrapping the characters. */
+  protected CharBuffer m_CharBuffer;
+
+  /** the start of the current line in the buffer. */
+  protected int m_Start;
+
+  /** whether to skip the next line feed (after carriage return). */
+  protected boolean m_SkipLF;
+
+  /** the view handed to the subclass. */
+  protected LineView m_View;
+
+  /** the maximum line length (less than 1 for unlimited). */
+  protected int m_MaxLineLength;
+
+  /** the number of characters discarded from the start of the current line. */
+  protected long m_Truncated;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout	whether to read stdout or stderr
+   */
+  public AbstractCharSequenceProcessReader(boolean stdout) {
+    this(stdout, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout	whether to read stdout or stderr
+   * @param bufferSize	the initial size of the buffers, the character buffer grows for longer lines
+   */
+  public AbstractCharSequenceProcessReader(boolean stdout, int bufferSize) {
+    super(stdout);
+    m_Bytes      = ByteBuffer.allocate(bufferSize);
+    m_Chars      = new char[bufferSize];
+    m_CharBuffer    = CharBuffer.wrap(m_Chars);
+    m_View          = new LineView();
+    m_MaxLineLength = -1;
+  }
+
+  /**
+   * Sets the maximum line length. Of longer lines, only the end gets kept
+   * (at least the specified number of characters).
+   *
+   * @param value	the maximum, less than 1 for unlimited
+   */
+  public void setMaxLineLength(int value) {
+    m_MaxLineLength = (value < 1) ? -1 : value;
+  }
+
+  /**
+   * Returns the maximum line length.
+   *
+   * @return		the maximum, -1 if unlimited
+   */
+  public int getMaxLineLength() {
+    return m_MaxLineLength;
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the view on the line, only valid for the duration of the call
+   */
+  protected abstract void process(LineView line);
+
+  /**
+   * Passes the line on to {@link #process(LineView)}, recording the line
+   * and the time spent in the callback if collecting metrics. Lines that
+   * the line filter rejects are discarded. Resets the number of truncated
+   * characters afterwards.
+   *
+   * @param line	the view on the line
+   * @see		#getLineFilter()
+   */
+  protected void dispatch(LineView line) {
+    LineFilter	filter;
+    long	start;
+
+    try {
+      filter = m_LineFilter;
+      if ((filter != null) && !filter.accept(line, m_Stdout))
+	return;
+
+      if (m_Metrics == null) {
+	process(line);
+	return;
+      }
+
+      start = System.nanoTime();
+      process(line);
+      m_Metrics.lineProcessed(line.length(), System.nanoTime() - start);
+    }
+    finally {
+      m_Truncated = 0;
+    }
+  }
+
+  /**
+   * Flushes the data. Does nothing, as the data gets read till EOF.
+   */
+  @Override
+  public void flush() {
+  }
+
+  /**
+   * Makes room in the character buffer, by moving the incomplete line to
+   * the start and, if necessary, growing the buffer. Of an overlong line,
+   * only the last {@link #m_MaxLineLength} characters get kept.
+   */
+  protected void makeRoom() {
+    int		len;
+    int		drop;
+    char[]	chars;
+
+    len  = m_CharBuffer.position() - m_Start;
+    drop = 0;
+    if ((m_MaxLineLength > 0) && (len > m_MaxLineLength))
+      drop = len - m_MaxLineLength;
+    if (m_Start + drop > 0) {
+      len -= drop;
+      System.arraycopy(m_Chars, m_Start + drop, m_Chars, 0, len);
+      m_Start      = 0;
+      m_Truncated += drop;
+    }
+    if (len == m_Chars.length) {
+      chars = new char[m_Chars.length * 2];
+      System.arraycopy(m_Chars, 0, chars, 0, len);
+      m_Chars      = chars;
+      m_CharBuffer = CharBuffer.wrap(m_Chars);
+    }
+    m_CharBuffer.limit(m_Chars.length);
+    m_CharBuffer.position(len);
+  }
+
+  /**
+   * Splits off all the complete lines from the decoded characters.
+   *
+   * @param from	the position to start scanning from
+   */
+  protected void scan(int from) {
+    int		i;
+    int		end;
+    char	c;
+
+    end = m_CharBuffer.position();
+    for (i = from; i < end; i++) {
+      c = m_Chars[i];
+      if (m_SkipLF) {
+	m_SkipLF = false;
+	if (c == '\n') {
+	  m_Start = i + 1;
+	  continue;
+	}
+      }
+      if ((c == '\n') || (c == '\r')) {
+	m_SkipLF = (c == '\r');
+	m_View.set(m_Chars, m_Start, i - m_Start);
+	dispatch(m_View);
+	m_Start = i + 1;
+      }
+    }
+  }
+
+  /**
+   * The actual processing loop, reads till EOF.
+   */
+  @Override
+  protected void doRun() {
+    InputStream		in;
+    CharsetDecoder	decoder;
+    CoderResult		result;
+    int			read;
+    int			from;
+
+    try {
+      in      = getStream();
+      decoder = Charset.defaultCharset().newDecoder()
+		  .onMalformedInput(CodingErrorAction.REPLACE)
+		  .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      m_Start = 0;
+      while (!isStopped()) {
+	try {
+	  read = in.read(m_Bytes.array(), m_Bytes.position(), m_Bytes.remaining());
+	}
+	catch (IOException ioe) {
+	  // has process stopped?
+	  if ((ioe.getMessage() != null) && ioe.getMessage().toLowerCase().contains("stream closed"))
+	    return;
+	  else
+	    throw ioe;
+	}
+	if (read > 0)
+	  m_Bytes.position(m_Bytes.position() + read);
+	m_Bytes.flip();
+	do {
+	  if (!m_CharBuffer.hasRemaining())
+	    makeRoom();
+	  from   = m_CharBuffer.position();
+	  result = decoder.decode(m_Bytes, m_CharBuffer, read == -1);
+	  scan(from);
+	}
+	while (result.isOverflow());
+	// the decoder can only be flushed once all the input has been decoded
+	if (read == -1) {
+	  do {
+	    if (!m_CharBuffer.hasRemaining())
+	      makeRoom();
+	    from   = m_CharBuffer.position();
+	    result = decoder.flush(m_CharBuffer);
+	    scan(from);
+	  }
+	  while (result.isOverflow());
+	}
+	m_Bytes.compact();
+	if (read == -1)
+	  break;
+	if (m_Start == m_CharBuffer.position()) {
+	  m_Start = 0;
+	  m_CharBuffer.clear();
+	}
+      }
+
+      // incomplete last line
+      if (m_CharBuffer.position() > m_Start) {
+	m_View.set(m_Chars, m_Start, m_CharBuffer.position() - m_Start);
+	dispatch(m_View);
+      }
+    }
+    catch (Exception e) {
+      logError("Failed to read from " + (m_Stdout ? "stdout" : "stderr") + " for process #" + m_Process.hashCode() + ":", e);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * AbstractPipeReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.AbstractProcessRunnable;
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.LineFilter;
+import com.github.fracpete.processoutput4j.core.StreamMetrics;
+
+import java.io.InputStream;
+
+/**
+ * Ancestor for readers that read from stdout/stderr of the provided
+ * {@link Process} object.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public abstract class AbstractPipeReader
+  extends AbstractProcessRunnable {
+
+  /** whether to use stdout or stderr. */
+  protected boolean m_Stdout;
+
+  /** the metrics to update (null if not collecting any). */
+  protected StreamMetrics m_Metrics;
+
+  /** the filter to apply to the lines (null if none). */
+  protected volatile LineFilter m_LineFilter;
+
+  /** whether the reader has reached EOF and got flushed. */
+  protected volatile boolean m_Finished;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout	whether to read stdout or stderr
+   */
+  public AbstractPipeReader(boolean stdout) {
+    super();
+    m_Stdout = stdout;
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param pollInterval 	the timeout interval in milliseconds to use when polling for new output
+   * @param errorLogger 	the error logger to use
+   * @param stdout		whether to read stdout or stderr
+   */
+  public AbstractPipeReader(int pollInterval, ErrorLogger errorLogger, boolean stdout) {
+    super(pollInterval, errorLogger);
+    m_Stdout = stdout;
+  }
+
+  /**
+   * Returns whether the reader is for stdout or stderr.
+   *
+   * @return		true if for stdout
+   */
+  public boolean isStdout() {
+    return m_Stdout;
+  }
+
+  /**
+   * Sets the metrics to update.
+   *
+   * @param value	the metrics, null to not collect any
+   */
+  public void setMetrics(StreamMetrics value) {
+    m_Metrics = value;
+  }
+
+  /**
+   * Returns the metrics that get updated.
+   *
+   * @return		the metrics, null if not collecting any
+   */
+  public StreamMetrics getMetrics() {
+    return m_Metrics;
+  }
+
+  /**
+   * Sets the filter that gets to inspect the lines before they are
+   * processed. Only applies to readers that process lines.
+   *
+   * @param value	the filter, null for none
+   */
+  public void setLineFilter(LineFilter value) {
+    m_LineFilter = value;
+  }
+
+  /**
+   * Returns the filter that gets to inspect the lines before they are
+   * processed.
+   *
+   * @return		the filter, null if none
+   */
+  public LineFilter getLineFilter() {
+    return m_LineFilter;
+  }
+
+  /**
+   * Returns the stream to read from, i.e., stdout or stderr of the process.
+   *
+   * @return		the stream
+   */
+  protected InputStream getStream() {
+    return getStream(m_Process);
+  }
+
+  /**
+   * Returns the stream to read from, i.e., stdout or stderr of the process.
+   * If collecting metrics, the stream records the bytes that get read.
+   *
+   * @param process	the process to get the stream from
+   * @return		the stream
+   */
+  protected InputStream getStream(Process process) {
+    InputStream		result;
+
+    if (m_Stdout)
+      result = process.getInputStream();
+    else
+      result = process.getErrorStream();
+    if (m_Metrics != null)
+      result = new MeteredInputStream(result, m_Metrics);
+
+    return result;
+  }
+
+  /**
+   * Passes on any data that the reader still buffers. Gets called exactly
+   * once, by the thread that read from the pipe, after EOF has been reached
+   * (or reading got stopped). Must not read from the stream.
+   *
+   * @see		#finish()
+   */
+  public abstract void flush();
+
+  /**
+   * Finishes the reader, once EOF has been reached or reading got stopped,
+   * by flushing it. This is the only point at which readers get flushed.
+   */
+  public void finish() {
+    if (m_Finished)
+      return;
+    try {
+      flush();
+    }
+    finally {
+      m_Finished = true;
+    }
+  }
+
+  /**
+   * Returns whether the reader has reached EOF (or got stopped) and got
+   * flushed.
+   *
+   * @return		true if finished
+   */
+  public boolean isFinished() {
+    return m_Finished;
+  }
+
+  /**
+   * Reads from the process till EOF and then finishes the reader.
+   *
+   * @see		#finish()
+   */
+  @Override
+  public void run() {
+    try {
+      super.run();
+    }
+    finally {
+      finish();
+    }
+  }
+}
@@ -1,12 +1,12 @@
 /*
  * AbstractProcessReader.java
- * Copyright (C) 2017-2025 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package com.github.fracpete.processoutput4j.reader;
 
-import com.github.fracpete.processoutput4j.core.AbstractProcessRunnable;
 import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.LineFilter;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -19,10 +19,7 @@ import java.io.InputStreamReader;
  * @author fracpete (fracpete at waikato dot ac dot nz)
  */
 public abstract class AbstractProcessReader
-  extends AbstractProcessRunnable {
-
-  /** whether to use stdout or stderr. */
-  protected boolean m_Stdout;
+  extends AbstractPipeReader {
 
   /** the reader use internally. */
   protected BufferedReader m_Reader;
@@ -33,8 +30,7 @@ public abstract class AbstractProcessReader
    * @param stdout	whether to read stdout or stderr
    */
   public AbstractProcessReader(boolean stdout) {
-    super();
-    m_Stdout = stdout;
+    super(stdout);
   }
 
   /**
@@ -45,83 +41,88 @@ public abstract class AbstractProcessReader
    * @param stdout		whether to read stdout or stderr
    */
   public AbstractProcessReader(int pollInterval, ErrorLogger errorLogger, boolean stdout) {
-    super(pollInterval, errorLogger);
-    m_Stdout = stdout;
+    super(pollInterval, errorLogger, stdout);
   }
 
   /**
-   * Returns whether the reader is for stdout or stderr.
+   * For processing the line read from stdout/stderr.
    *
-   * @return		true if for stdout
+   * @param line	the output line
    */
-  public boolean isStdout() {
-    return m_Stdout;
-  }
+  protected abstract void process(String line);
 
   /**
-   * For processing the line read from stdout/stderr.
+   * Passes the line on to {@link #process(String)}, recording the line
+   * and the time spent in the callback if collecting metrics. Lines that
+   * the line filter rejects are discarded.
    *
    * @param line	the output line
+   * @see		#getLineFilter()
    */
-  protected abstract void process(String line);
+  protected void dispatch(String line) {
+    LineFilter	filter;
+    long	start;
+
+    filter = m_LineFilter;
+    if ((filter != null) && !filter.accept(line, m_Stdout))
+      return;
+
+    if (m_Metrics == null) {
+      process(line);
+      return;
+    }
+
+    start = System.nanoTime();
+    process(line);
+    m_Metrics.lineProcessed(line.length(), System.nanoTime() - start);
+  }
 
   /**
-   * Flushes the data.
+   * Gets called when all the output that is currently available has been
+   * processed, i.e., before the reader waits for more output.
+   * <br>
+   * Default implementation does nothing.
    */
-  public void flush() {
-    String	line;
+  protected void idle() {
+  }
 
-    while (m_Reader != null) {
-      try {
-	line = m_Reader.readLine();
-	if (line == null)
-	  break;
-	else
-	  process(line);
-      }
-      catch (IOException e) {
-        // probably "stream closed"
-        break;
-      }
-      catch (Exception e) {
-        logError("Failed to flush!", e);
-	break;
-      }
-    }
+  /**
+   * Flushes the data. Does nothing, as the data gets read till EOF.
+   */
+  @Override
+  public void flush() {
   }
 
   /**
-   * The actual processing loop.
+   * The actual processing loop, reads till EOF. The stream can reach EOF
+   * before the process exits, e.g., if the process closes its stdout.
    */
   protected void doRun() {
     String 		line;
 
     try {
-      if (m_Stdout)
-	m_Reader = new BufferedReader(new InputStreamReader(m_Process.getInputStream()));
-      else
-	m_Reader = new BufferedReader(new InputStreamReader(m_Process.getErrorStream()));
+      m_Reader = new BufferedReader(new InputStreamReader(getStream()));
 
-      while (m_Process.isAlive()) {
+      while (!isStopped()) {
         try {
           line = m_Reader.readLine();
         }
         catch (IOException ioe) {
           // has process stopped?
-          if (ioe.getMessage().toLowerCase().contains("stream closed"))
+	  if ((ioe.getMessage() != null) && ioe.getMessage().toLowerCase().contains("stream closed"))
             return;
           else
             throw ioe;
         }
-        if (line != null)
-          process(line);
+	if (line == null)
+	  break;
+	dispatch(line);
+	if (!m_Reader.ready())
+	  idle();
       }
     }
     catch (Exception e) {
       logError("Failed to read from " + (m_Stdout ? "stdout" : "stderr") + " for process #" + m_Process.hashCode() + ":", e);
     }
-
-    // make sure all data has been read
-    flush();
   }
 }
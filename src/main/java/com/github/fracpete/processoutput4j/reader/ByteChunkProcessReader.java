@@ -0,0 +1,63 @@
+/*
+ * ByteChunkProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.ByteChunkOwner;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Forwards the raw bytes from the process to the owning {@link ByteChunkOwner}
+ * object, if appropriate.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class ByteChunkProcessReader
+  extends AbstractByteProcessReader {
+
+  /** the owner. */
+  protected ByteChunkOwner m_Owner;
+
+  /** whether to forward the output to the owner. */
+  protected boolean m_Forward;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   */
+  public ByteChunkProcessReader(ByteChunkOwner owner, boolean stdout) {
+    this(owner, stdout, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   * @param bufferSize	the size of the buffer in bytes
+   */
+  public ByteChunkProcessReader(ByteChunkOwner owner, boolean stdout, int bufferSize) {
+    super(stdout, bufferSize);
+    m_Owner = owner;
+    m_Forward = (stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDOUT))
+	|| (!stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDERR))
+	|| (m_Owner.getOutputType() == StreamingProcessOutputType.BOTH);
+  }
+
+  /**
+   * For processing the chunk read from stdout/stderr.
+   *
+   * @param chunk	the chunk
+   */
+  @Override
+  protected void process(ByteBuffer chunk) {
+    if (m_Forward)
+      m_Owner.processChunk(chunk, isStdout());
+  }
+}
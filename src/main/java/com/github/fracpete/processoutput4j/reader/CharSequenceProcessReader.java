@@ -0,0 +1,62 @@
+/*
+ * CharSequenceProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.CharSequenceOwner;
+import com.github.fracpete.processoutput4j.core.LineView;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+
+/**
+ * Forwards the line views from the process to the owning
+ * {@link CharSequenceOwner} object, if appropriate.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CharSequenceProcessReader
+  extends AbstractCharSequenceProcessReader {
+
+  /** the owner. */
+  protected CharSequenceOwner m_Owner;
+
+  /** whether to forward the output to the owner. */
+  protected boolean m_Forward;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   */
+  public CharSequenceProcessReader(CharSequenceOwner owner, boolean stdout) {
+    this(owner, stdout, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   * @param bufferSize	the initial size of the buffers
+   */
+  public CharSequenceProcessReader(CharSequenceOwner owner, boolean stdout, int bufferSize) {
+    super(stdout, bufferSize);
+    m_Owner = owner;
+    m_Forward = (stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDOUT))
+	|| (!stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDERR))
+	|| (m_Owner.getOutputType() == StreamingProcessOutputType.BOTH);
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the view on the line
+   */
+  @Override
+  protected void process(LineView line) {
+    if (m_Forward)
+      m_Owner.processLine(line, isStdout());
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * CompressingProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.CompressedContent;
+
+/**
+ * Reader for storing all content in compressed blocks.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class CompressingProcessReader
+  extends AbstractProcessReader {
+
+  /** the content. */
+  protected CompressedContent m_Content;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout  	whether to read stdout or stderr
+   * @param content	for storing the content
+   */
+  public CompressingProcessReader(boolean stdout, CompressedContent content) {
+    super(stdout);
+    m_Content = content;
+  }
+
+  /**
+   * Returns the content.
+   *
+   * @return		the content
+   */
+  public CompressedContent getContent() {
+    return m_Content;
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the output line
+   */
+  @Override
+  protected void process(String line) {
+    m_Content.appendLine(line);
+  }
+}
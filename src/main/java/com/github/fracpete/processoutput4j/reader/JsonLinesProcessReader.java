@@ -0,0 +1,75 @@
+/*
+ * JsonLinesProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.JsonLineParser;
+import com.github.fracpete.processoutput4j.core.JsonRecord;
+import com.github.fracpete.processoutput4j.core.JsonRecordOwner;
+import com.github.fracpete.processoutput4j.core.LineView;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+
+/**
+ * Parses the lines from the process as JSON, straight from the reader's
+ * buffer, and forwards the projected records to the owning
+ * {@link JsonRecordOwner} object, if appropriate.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class JsonLinesProcessReader
+  extends AbstractCharSequenceProcessReader {
+
+  /** the owner. */
+  protected JsonRecordOwner m_Owner;
+
+  /** the parser. */
+  protected JsonLineParser m_Parser;
+
+  /** whether to forward the output to the owner. */
+  protected boolean m_Forward;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   * @param paths	the paths of the values to project
+   */
+  public JsonLinesProcessReader(JsonRecordOwner owner, boolean stdout, String... paths) {
+    super(stdout);
+    m_Owner  = owner;
+    m_Parser = new JsonLineParser(paths);
+    m_Forward = (stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDOUT))
+	|| (!stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDERR))
+	|| (m_Owner.getOutputType() == StreamingProcessOutputType.BOTH);
+  }
+
+  /**
+   * Parses the line and forwards the record.
+   *
+   * @param line	the view on the line
+   */
+  @Override
+  protected void process(LineView line) {
+    JsonRecord	record;
+    int		i;
+
+    if (!m_Forward)
+      return;
+
+    record = m_Parser.parse(line);
+    if (record != null) {
+      m_Owner.processRecord(record, isStdout());
+      return;
+    }
+
+    for (i = 0; i < line.length(); i++) {
+      if (!Character.isWhitespace(line.charAt(i))) {
+	m_Owner.processInvalid(line, isStdout());
+	return;
+      }
+    }
+  }
+}
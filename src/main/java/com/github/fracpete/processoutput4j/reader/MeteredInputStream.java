@@ -0,0 +1,71 @@
+/*
+ * MeteredInputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.StreamMetrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Records the bytes read from the underlying stream in the metrics.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class MeteredInputStream
+  extends FilterInputStream {
+
+  /** the metrics to update. */
+  protected StreamMetrics m_Metrics;
+
+  /**
+   * Initializes the stream.
+   *
+   * @param in		the stream to read from
+   * @param metrics	the metrics to update
+   */
+  public MeteredInputStream(InputStream in, StreamMetrics metrics) {
+    super(in);
+    m_Metrics = metrics;
+  }
+
+  /**
+   * Reads a single byte.
+   *
+   * @return		the byte, -1 if EOF
+   * @throws IOException	if reading fails
+   */
+  @Override
+  public int read() throws IOException {
+    int		result;
+
+    result = super.read();
+    if (result != -1)
+      m_Metrics.bytesRead(1);
+
+    return result;
+  }
+
+  /**
+   * Reads up to the specified number of bytes.
+   *
+   * @param b		the buffer to read into
+   * @param off		the offset in the buffer
+   * @param len		the maximum number of bytes to read
+   * @return		the number of bytes read, -1 if EOF
+   * @throws IOException	if reading fails
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int		result;
+
+    result = super.read(b, off, len);
+    m_Metrics.bytesRead(result);
+
+    return result;
+  }
+}
@@ -0,0 +1,579 @@
+/*
+ * PipeDrainer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.ErrorLogger;
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
+import com.github.fracpete.processoutput4j.core.LineView;
+import com.github.fracpete.processoutput4j.core.impl.StderrErrorLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the stdout/stderr pipes of many processes using a small, fixed
+ * number of threads. Instead of blocking in a read, each drainer thread
+ * polls its pipes via {@link InputStream#available()} and only reads the data
+ * that is available. When none of its pipes had any data, the thread backs
+ * off exponentially (from {@link #MIN_BACKOFF} up to {@link #MAX_BACKOFF}
+ * milliseconds).
+ * <br>
+ * The lines are dispatched to the {@link AbstractProcessReader#process(String)}
+ * method of the registered readers (via {@link AbstractProcessReader#dispatch(String)}). Readers derived from
+ * {@link AbstractCharSequenceProcessReader} receive views on the lines
+ * instead, readers derived from {@link AbstractByteProcessReader} the raw
+ * bytes.
+ * <br>
+ * As {@link InputStream#available()} cannot tell EOF from a pipe without
+ * data, the drainer threads never read from a pipe without available data.
+ * Instead, such a pipe gets handed to a separate thread that reads from it
+ * in a blocking fashion till EOF:
+ * <ul>
+ *   <li>once the process has exited (e.g., if a grandchild process still
+ *   holds the pipe open, this only occupies that separate thread)</li>
+ *   <li>once the pipe had no data for {@link #QUIET_PERIOD} milliseconds
+ *   while the process is alive, in order to detect EOF early (e.g., a daemon
+ *   closing its stdout/stderr). At most {@link #BLOCKING_PER_THREAD} such
+ *   pipes per drainer thread get handed over, further quiet pipes remain
+ *   with the drainer threads.</li>
+ * </ul>
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class PipeDrainer {
+
+  /** the minimum back-off in milliseconds. */
+  public final static int MIN_BACKOFF = 1;
+
+  /** the maximum back-off in milliseconds. */
+  public final static int MAX_BACKOFF = 50;
+
+  /** the buffer size in bytes. */
+  public final static int BUFFER_SIZE = 8192;
+
+  /** the time in milliseconds without data after which a pipe of a live process gets read in a blocking fashion. */
+  public final static int QUIET_PERIOD = 100;
+
+  /** the number of pipes of live processes per drainer thread that can be read in a blocking fashion. */
+  public final static int BLOCKING_PER_THREAD = 4;
+
+  /** the default instance. */
+  protected static PipeDrainer m_Default;
+
+  /** the worker threads. */
+  protected Worker[] m_Workers;
+
+  /** for distributing the pipes among the workers. */
+  protected AtomicInteger m_Next;
+
+  /** the error logger. */
+  protected ErrorLogger m_ErrorLogger;
+
+  /** the executor for reading pipes in a blocking fashion. */
+  protected ExecutorService m_Blocking;
+
+  /** the permits for reading pipes of live processes in a blocking fashion. */
+  protected Semaphore m_BlockingPermits;
+
+  /**
+   * Keeps track of a single pipe.
+   */
+  protected static class Pipe {
+
+    /** the reader to forward the data to. */
+    public AbstractPipeReader reader;
+
+    /** the process. */
+    public Process process;
+
+    /** the stream to read from. */
+    public InputStream stream;
+
+    /** the decoder (null if forwarding raw bytes). */
+    public CharsetDecoder decoder;
+
+    /** the buffer for the raw bytes. */
+    public ByteBuffer bytes;
+
+    /** the buffer for the decoded characters. */
+    public CharBuffer chars;
+
+    /** the current line. */
+    public StringBuilder line;
+
+    /** the buffer for the view on the line (char sequence readers only). */
+    public char[] viewChars;
+
+    /** the view on the line (char sequence readers only). */
+    public LineView view;
+
+    /** the maximum line length (char sequence readers only, less than 1 for unlimited). */
+    public int maxLineLength;
+
+    /** whether to skip the next line feed (after carriage return). */
+    public boolean skipLF;
+
+    /** since when the pipe has had no data (msec), 0 if it had data. */
+    public long quietSince;
+
+    /** whether the pipe got handed over for blocking reads. */
+    public boolean blocking;
+
+    /** gets completed once EOF has been reached. */
+    public CompletableFuture<Void> future;
+  }
+
+  /**
+   * Thread that services a set of pipes.
+   */
+  protected class Worker
+    implements Runnable {
+
+    /** the newly registered pipes. */
+    protected ConcurrentLinkedQueue<Pipe> m_Added;
+
+    /** the pipes being serviced. */
+    protected List<Pipe> m_Pipes;
+
+    /** the thread. */
+    protected Thread m_Thread;
+
+    /**
+     * Initializes the worker.
+     */
+    public Worker() {
+      m_Added = new ConcurrentLinkedQueue<>();
+      m_Pipes = new ArrayList<>();
+    }
+
+    /**
+     * Adds the pipe.
+     *
+     * @param pipe	the pipe to add
+     */
+    public void add(Pipe pipe) {
+      m_Added.add(pipe);
+      synchronized (this) {
+	notifyAll();
+      }
+    }
+
+    /**
+     * Services the pipes.
+     */
+    @Override
+    public void run() {
+      Iterator<Pipe>	iter;
+      Pipe		pipe;
+      boolean		progress;
+      int		backoff;
+
+      backoff = MIN_BACKOFF;
+      while (true) {
+	while ((pipe = m_Added.poll()) != null)
+	  m_Pipes.add(pipe);
+
+	if (m_Pipes.isEmpty()) {
+	  try {
+	    synchronized (this) {
+	      if (m_Added.isEmpty())
+		wait();
+	    }
+	  }
+	  catch (InterruptedException e) {
+	    // ignored
+	  }
+	  continue;
+	}
+
+	progress = false;
+	iter     = m_Pipes.iterator();
+	while (iter.hasNext()) {
+	  pipe = iter.next();
+	  try {
+	    if (drain(pipe))
+	      progress = true;
+	  }
+	  catch (Exception e) {
+	    m_ErrorLogger.logError("Failed to read from " + (pipe.reader.isStdout() ? "stdout" : "stderr") + " for process #" + pipe.process.hashCode() + ":", e);
+	    finish(pipe);
+	  }
+	  if (pipe.blocking || pipe.future.isDone())
+	    iter.remove();
+	}
+
+	if (progress) {
+	  backoff = MIN_BACKOFF;
+	}
+	else {
+	  try {
+	    Thread.sleep(backoff);
+	  }
+	  catch (InterruptedException e) {
+	    // ignored
+	  }
+	  backoff = Math.min(backoff * 2, MAX_BACKOFF);
+	}
+      }
+    }
+  }
+
+  /**
+   * Initializes the drainer with the specified number of threads.
+   *
+   * @param numThreads	the number of threads to use
+   */
+  public PipeDrainer(int numThreads) {
+    ThreadFactory	factory;
+    int			i;
+
+    if (numThreads < 1)
+      throw new IllegalArgumentException("At least one thread required, provided: " + numThreads);
+
+    m_Next            = new AtomicInteger();
+    m_ErrorLogger     = new StderrErrorLogger();
+    m_Blocking        = ExecutorUtils.newExecutor(0);
+    m_BlockingPermits = new Semaphore(numThreads * BLOCKING_PER_THREAD);
+    m_Workers         = new Worker[numThreads];
+    factory       = ExecutorUtils.newThreadFactory(ExecutorUtils.THREAD_PREFIX + "drainer-");
+    for (i = 0; i < numThreads; i++) {
+      m_Workers[i] = new Worker();
+      m_Workers[i].m_Thread = factory.newThread(m_Workers[i]);
+      m_Workers[i].m_Thread.start();
+    }
+  }
+
+  /**
+   * Returns the number of threads in use.
+   *
+   * @return		the number of threads
+   */
+  public int getNumThreads() {
+    return m_Workers.length;
+  }
+
+  /**
+   * Sets the error logger to use.
+   *
+   * @param value	the logger
+   */
+  public void setErrorLogger(ErrorLogger value) {
+    m_ErrorLogger = value;
+  }
+
+  /**
+   * Returns the error logger in use.
+   *
+   * @return		the logger
+   */
+  public ErrorLogger getErrorLogger() {
+    return m_ErrorLogger;
+  }
+
+  /**
+   * Returns whether the reader can be serviced by a drainer.
+   *
+   * @param reader	the reader to check
+   * @return		true if derived from {@link AbstractProcessReader},
+   * 			{@link AbstractCharSequenceProcessReader} or
+   * 			{@link AbstractByteProcessReader}
+   */
+  public static boolean isSupported(AbstractPipeReader reader) {
+    return (reader instanceof AbstractProcessReader)
+	|| (reader instanceof AbstractCharSequenceProcessReader)
+	|| (reader instanceof AbstractByteProcessReader);
+  }
+
+  /**
+   * Registers the reader for draining the process' stdout or stderr,
+   * depending on the reader's configuration.
+   *
+   * @param reader	the reader to forward the data to
+   * @param process	the process to drain
+   * @return		the future that gets completed once EOF was reached
+   * @throws IllegalArgumentException	if the reader is not supported
+   * @see		#isSupported(AbstractPipeReader)
+   */
+  public CompletableFuture<Void> register(AbstractPipeReader reader, Process process) {
+    Pipe	pipe;
+
+    if (!isSupported(reader))
+      throw new IllegalArgumentException("Unsupported reader: " + reader.getClass().getName());
+
+    pipe         = new Pipe();
+    pipe.reader  = reader;
+    pipe.process = process;
+    pipe.stream  = reader.getStream(process);
+    pipe.bytes   = ByteBuffer.allocate(BUFFER_SIZE);
+    pipe.future  = new CompletableFuture<>();
+    if (!(reader instanceof AbstractByteProcessReader)) {
+      pipe.decoder = Charset.defaultCharset().newDecoder()
+		       .onMalformedInput(CodingErrorAction.REPLACE)
+		       .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      pipe.chars   = CharBuffer.allocate(BUFFER_SIZE);
+      pipe.line    = new StringBuilder();
+    }
+    if (reader instanceof AbstractCharSequenceProcessReader) {
+      pipe.viewChars     = new char[BUFFER_SIZE];
+      pipe.view          = new LineView();
+      pipe.maxLineLength = ((AbstractCharSequenceProcessReader) reader).getMaxLineLength();
+    }
+
+    m_Workers[Math.floorMod(m_Next.getAndIncrement(), m_Workers.length)].add(pipe);
+
+    return pipe.future;
+  }
+
+  /**
+   * Reads the available data from the pipe. Never blocks: a pipe without
+   * data gets handed over for blocking reads once its process has exited or
+   * it has been quiet for {@link #QUIET_PERIOD} milliseconds.
+   *
+   * @param pipe	the pipe to read from
+   * @return		true if any data was read or the pipe has been finished
+   * 			or handed over
+   * @throws IOException	if reading fails
+   */
+  protected boolean drain(Pipe pipe) throws IOException {
+    int		avail;
+    int		read;
+    boolean	alive;
+    long	now;
+
+    if (pipe.reader.isStopped()) {
+      finish(pipe);
+      return true;
+    }
+
+    // check before testing for available data, so no data gets lost when the process exits in between
+    alive = pipe.process.isAlive();
+    try {
+      avail = pipe.stream.available();
+    }
+    catch (IOException e) {
+      // stream closed
+      finish(pipe);
+      return true;
+    }
+    if (avail == 0) {
+      if (!alive) {
+	handOver(pipe, false);
+	return true;
+      }
+      now = System.currentTimeMillis();
+      if (pipe.quietSince == 0)
+	pipe.quietSince = now;
+      else if ((now - pipe.quietSince >= QUIET_PERIOD) && m_BlockingPermits.tryAcquire())
+	handOver(pipe, true);
+      return pipe.blocking;
+    }
+    pipe.quietSince = 0;
+
+    // only read what is available, so the read does not block
+    read = pipe.stream.read(pipe.bytes.array(), pipe.bytes.position(), Math.min(avail, pipe.bytes.remaining()));
+    if (read == -1) {
+      finish(pipe);
+      return true;
+    }
+    pipe.bytes.position(pipe.bytes.position() + read);
+    decode(pipe, false);
+    if ((pipe.reader instanceof AbstractProcessReader) && (pipe.stream.available() == 0))
+      ((AbstractProcessReader) pipe.reader).idle();
+
+    return true;
+  }
+
+  /**
+   * Hands the pipe over to a separate thread, which reads from it in a
+   * blocking fashion till EOF and then finishes it.
+   *
+   * @param pipe	the pipe to hand over
+   * @param permit	whether a permit got acquired, which gets released
+   * 			once the pipe is finished
+   */
+  protected void handOver(final Pipe pipe, final boolean permit) {
+    pipe.blocking = true;
+    m_Blocking.execute(() -> {
+      try {
+	drainBlocking(pipe);
+      }
+      finally {
+	if (permit)
+	  m_BlockingPermits.release();
+      }
+    });
+  }
+
+  /**
+   * Reads from the pipe in a blocking fashion till EOF (or the reader gets
+   * stopped) and then finishes the pipe.
+   *
+   * @param pipe	the pipe to read from
+   */
+  protected void drainBlocking(Pipe pipe) {
+    int		read;
+
+    try {
+      while (!pipe.reader.isStopped()) {
+	read = pipe.stream.read(pipe.bytes.array(), pipe.bytes.position(), pipe.bytes.remaining());
+	if (read == -1)
+	  break;
+	pipe.bytes.position(pipe.bytes.position() + read);
+	decode(pipe, false);
+	if ((pipe.reader instanceof AbstractProcessReader) && (pipe.stream.available() == 0))
+	  ((AbstractProcessReader) pipe.reader).idle();
+      }
+    }
+    catch (IOException e) {
+      // has process stopped?
+      if ((e.getMessage() == null) || !e.getMessage().toLowerCase().contains("stream closed"))
+	m_ErrorLogger.logError("Failed to read from " + (pipe.reader.isStdout() ? "stdout" : "stderr") + " for process #" + pipe.process.hashCode() + ":", e);
+    }
+    catch (Exception e) {
+      m_ErrorLogger.logError("Failed to read from " + (pipe.reader.isStdout() ? "stdout" : "stderr") + " for process #" + pipe.process.hashCode() + ":", e);
+    }
+    finally {
+      finish(pipe);
+    }
+  }
+
+  /**
+   * Decodes the buffered bytes and dispatches complete lines.
+   *
+   * @param pipe	the pipe to decode
+   * @param eof		whether EOF has been reached
+   */
+  protected void decode(Pipe pipe, boolean eof) {
+    CoderResult	result;
+
+    pipe.bytes.flip();
+    if (pipe.decoder == null) {
+      if (pipe.bytes.hasRemaining())
+	((AbstractByteProcessReader) pipe.reader).dispatch(pipe.bytes);
+      pipe.bytes.clear();
+      return;
+    }
+
+    do {
+      result = pipe.decoder.decode(pipe.bytes, pipe.chars, eof);
+      dispatch(pipe);
+    }
+    while (result.isOverflow());
+    if (eof) {
+      while (pipe.decoder.flush(pipe.chars).isOverflow())
+	dispatch(pipe);
+      dispatch(pipe);
+    }
+    pipe.bytes.compact();
+  }
+
+  /**
+   * Splits the decoded characters into lines and forwards them to the reader.
+   *
+   * @param pipe	the pipe to process
+   */
+  protected void dispatch(Pipe pipe) {
+    char	c;
+
+    pipe.chars.flip();
+    while (pipe.chars.hasRemaining()) {
+      c = pipe.chars.get();
+      if (pipe.skipLF) {
+	pipe.skipLF = false;
+	if (c == '\n')
+	  continue;
+      }
+      if ((c == '\n') || (c == '\r')) {
+	pipe.skipLF = (c == '\r');
+	dispatchLine(pipe);
+	pipe.line.setLength(0);
+      }
+      else {
+	pipe.line.append(c);
+	// overlong line: only keep its end
+	if ((pipe.maxLineLength > 0) && (pipe.line.length() >= 2 * pipe.maxLineLength)) {
+	  pipe.line.delete(0, pipe.maxLineLength);
+	  ((AbstractCharSequenceProcessReader) pipe.reader).m_Truncated += pipe.maxLineLength;
+	}
+      }
+    }
+    pipe.chars.clear();
+  }
+
+  /**
+   * Forwards the current line to the reader, either as string or as view.
+   *
+   * @param pipe	the pipe to forward the line for
+   */
+  protected void dispatchLine(Pipe pipe) {
+    int		len;
+
+    if (pipe.view == null) {
+      ((AbstractProcessReader) pipe.reader).dispatch(pipe.line.toString());
+      return;
+    }
+
+    len = pipe.line.length();
+    if (pipe.viewChars.length < len)
+      pipe.viewChars = new char[Math.max(len, pipe.viewChars.length * 2)];
+    pipe.line.getChars(0, len, pipe.viewChars, 0);
+    pipe.view.set(pipe.viewChars, 0, len);
+    ((AbstractCharSequenceProcessReader) pipe.reader).dispatch(pipe.view);
+  }
+
+  /**
+   * Finishes the pipe, forwarding any incomplete line and finishing the
+   * reader.
+   *
+   * @param pipe	the pipe to finish
+   */
+  protected void finish(Pipe pipe) {
+    if (pipe.future.isDone())
+      return;
+
+    try {
+      if (!pipe.reader.isStopped()) {
+	decode(pipe, true);
+	if ((pipe.line != null) && (pipe.line.length() > 0))
+	  dispatchLine(pipe);
+      }
+      pipe.reader.finish();
+    }
+    catch (Exception e) {
+      m_ErrorLogger.logError("Failed to flush " + (pipe.reader.isStdout() ? "stdout" : "stderr") + " for process #" + pipe.process.hashCode() + ":", e);
+    }
+    finally {
+      pipe.future.complete(null);
+    }
+  }
+
+  /**
+   * Returns the library-wide default drainer, which uses up to four threads
+   * (depending on the number of available cores).
+   *
+   * @return		the drainer
+   */
+  public static synchronized PipeDrainer getDefault() {
+    if (m_Default == null)
+      m_Default = new PipeDrainer(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    return m_Default;
+  }
+}
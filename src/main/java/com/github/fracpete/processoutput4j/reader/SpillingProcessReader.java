@@ -0,0 +1,54 @@
+/*
+ * SpillingProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.SpillingContent;
+
+/**
+ * Reader for storing all content, spilling it to disk once the in-memory
+ * threshold is exceeded.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class SpillingProcessReader
+  extends CollectingProcessReader {
+
+  /** the content. */
+  protected SpillingContent m_Spilling;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout  	whether to read stdout or stderr
+   * @param content	for storing the content
+   */
+  public SpillingProcessReader(boolean stdout, SpillingContent content) {
+    super(stdout, content.getMemory());
+    m_Spilling = content;
+  }
+
+  /**
+   * Returns the content.
+   *
+   * @return		the content
+   */
+  public SpillingContent getSpillingContent() {
+    return m_Spilling;
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the output line
+   */
+  @Override
+  protected void process(String line) {
+    synchronized (m_Spilling) {
+      super.process(line);
+      m_Spilling.check();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * StampingProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.StampedLine;
+import com.github.fracpete.processoutput4j.core.StampedLineBuffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reader that stamps each line with a sequence number (shared between
+ * stdout and stderr) and its arrival time, storing it in a buffer.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class StampingProcessReader
+  extends AbstractProcessReader {
+
+  /** the sequence shared between the readers. */
+  protected AtomicLong m_Sequence;
+
+  /** the buffer to store the lines in. */
+  protected StampedLineBuffer m_Buffer;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout  	whether to read stdout or stderr
+   * @param sequence	the sequence shared between the readers
+   * @param buffer	for storing the lines
+   */
+  public StampingProcessReader(boolean stdout, AtomicLong sequence, StampedLineBuffer buffer) {
+    super(stdout);
+    m_Sequence = sequence;
+    m_Buffer   = buffer;
+  }
+
+  /**
+   * Returns the buffer for storing the lines.
+   *
+   * @return		the buffer
+   */
+  public StampedLineBuffer getBuffer() {
+    return m_Buffer;
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the output line
+   */
+  @Override
+  protected void process(String line) {
+    m_Buffer.append(new StampedLine(m_Sequence.getAndIncrement(), System.nanoTime(), isStdout(), line));
+  }
+}
@@ -1,16 +1,32 @@
 /*
  * StreamingProcessReader.java
- * Copyright (C) 2017-2020 University of Waikato, Hamilton, NZ
+ * Copyright (C) 2017-2026 University of Waikato, Hamilton, NZ
  */
 
 package com.github.fracpete.processoutput4j.reader;
 
+import com.github.fracpete.processoutput4j.core.ExecutorUtils;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+import com.github.fracpete.processoutput4j.core.TimeOutScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Forwards the output from the process to the owning {@link StreamingProcessOwner}
- * object, if appropriate.
+ * object, if appropriate. With batching enabled, lines are forwarded via
+ * {@link StreamingProcessOwner#processOutputBatch(List, boolean)} once the
+ * batch is full, the maximum latency has been reached or no more output is
+ * currently available.
+ * <br>
+ * The maximum latency is enforced via a deadline on the
+ * {@link TimeOutScheduler}, as the reading thread might be blocked, e.g.,
+ * on a partial line. In that case, the batch gets forwarded from a thread
+ * of {@link ExecutorUtils#getDefaultExecutor()}. Batches are never
+ * forwarded concurrently.
  *
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
@@ -23,6 +39,21 @@ public class StreamingProcessReader
   /** whether to forward the output to the owner. */
   protected boolean m_Forward;
 
+  /** the maximum number of lines per batch (no batching if less than 2). */
+  protected int m_BatchSize;
+
+  /** the maximum latency for a batch in nanoseconds (no limit if less than 1). */
+  protected long m_MaxLatency;
+
+  /** the current batch. */
+  protected List<String> m_Batch;
+
+  /** the time the first line of the current batch arrived. */
+  protected long m_BatchStart;
+
+  /** the deadline for forwarding the current batch. */
+  protected ScheduledFuture<?> m_Deadline;
+
   /**
    * Initializes the reader.
    *
@@ -30,7 +61,23 @@ public class StreamingProcessReader
    * @param stdout  whether to read stdout or stderr
    */
   public StreamingProcessReader(StreamingProcessOwner owner, boolean stdout) {
+    this(owner, stdout, 1, -1);
+  }
+
+  /**
+   * Initializes the reader.
+   *
+   * @param owner 	the owning object
+   * @param stdout  	whether to read stdout or stderr
+   * @param batchSize	the maximum number of lines per batch, no batching if less than 2
+   * @param maxLatency	the maximum time in milliseconds that a line can be held
+   * 			back in a batch, no limit if less than 1
+   */
+  public StreamingProcessReader(StreamingProcessOwner owner, boolean stdout, int batchSize, int maxLatency) {
     super(stdout);
+    m_BatchSize  = batchSize;
+    m_MaxLatency = (maxLatency < 1) ? -1 : maxLatency * 1000000L;
+    m_Batch      = (batchSize > 1) ? new ArrayList<>(batchSize) : null;
     m_Owner = owner;
     m_Forward = (stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDOUT))
 	|| (!stdout && (m_Owner.getOutputType() == StreamingProcessOutputType.STDERR))
@@ -44,7 +91,76 @@ public class StreamingProcessReader
    */
   @Override
   protected void process(String line) {
-    if (m_Forward)
+    if (!m_Forward)
+      return;
+
+    if (m_Batch == null) {
       m_Owner.processOutput(line, isStdout());
+      return;
+    }
+
+    synchronized (m_Batch) {
+      if (m_Batch.isEmpty() && (m_MaxLatency > 0)) {
+	m_BatchStart = System.nanoTime();
+	m_Deadline   = TimeOutScheduler.getDefault().schedule(m_MaxLatency, TimeUnit.NANOSECONDS, this::expired);
+      }
+      m_Batch.add(line);
+      if ((m_Batch.size() >= m_BatchSize) || ((m_MaxLatency > 0) && (System.nanoTime() - m_BatchStart >= m_MaxLatency)))
+	deliver();
+    }
+  }
+
+  /**
+   * Gets called by the scheduler once the maximum latency of a batch has
+   * been reached. Forwards the batch from a separate thread, as the
+   * scheduler's thread must not block.
+   */
+  protected void expired() {
+    ExecutorUtils.getDefaultExecutor().execute(() -> {
+      synchronized (m_Batch) {
+	// batch might have been forwarded and a new one started already
+	if (!m_Batch.isEmpty() && (System.nanoTime() - m_BatchStart >= m_MaxLatency))
+	  deliver();
+      }
+    });
+  }
+
+  /**
+   * Forwards the current batch to the owner.
+   */
+  protected void deliver() {
+    if (m_Batch == null)
+      return;
+    synchronized (m_Batch) {
+      if (m_Deadline != null) {
+	m_Deadline.cancel(false);
+	m_Deadline = null;
+      }
+      if (m_Batch.isEmpty())
+	return;
+      try {
+	m_Owner.processOutputBatch(m_Batch, isStdout());
+      }
+      finally {
+	m_Batch.clear();
+      }
+    }
+  }
+
+  /**
+   * Forwards the current batch, as no more output is currently available.
+   */
+  @Override
+  protected void idle() {
+    deliver();
+  }
+
+  /**
+   * Flushes the data and forwards any remaining lines.
+   */
+  @Override
+  public void flush() {
+    super.flush();
+    deliver();
   }
 }
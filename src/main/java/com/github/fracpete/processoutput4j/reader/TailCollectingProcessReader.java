@@ -0,0 +1,55 @@
+/*
+ * TailCollectingProcessReader.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.processoutput4j.reader;
+
+import com.github.fracpete.processoutput4j.core.LineRingBuffer;
+import com.github.fracpete.processoutput4j.core.LineView;
+
+/**
+ * Reader that only keeps the most recent lines. If the buffer limits the
+ * number of characters, overlong lines already get truncated while reading,
+ * i.e., a single huge line does not get materialized.
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class TailCollectingProcessReader
+  extends AbstractCharSequenceProcessReader {
+
+  /** the buffer to store the data in. */
+  protected LineRingBuffer m_Content;
+
+  /**
+   * Initializes the reader.
+   *
+   * @param stdout  	whether to read stdout or stderr
+   * @param content	for storing the content
+   */
+  public TailCollectingProcessReader(boolean stdout, LineRingBuffer content) {
+    super(stdout);
+    m_Content = content;
+    if (content.getMaxChars() > 0)
+      setMaxLineLength((int) Math.min(content.getMaxChars(), Integer.MAX_VALUE / 4));
+  }
+
+  /**
+   * Returns the buffer for storing the content.
+   *
+   * @return		the buffer
+   */
+  public LineRingBuffer getContent() {
+    return m_Content;
+  }
+
+  /**
+   * For processing the line read from stdout/stderr.
+   *
+   * @param line	the view on the output line
+   */
+  @Override
+  protected void process(LineView line) {
+    m_Content.add(line, m_Truncated);
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * VirtualThreads.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package com.github.fracpete.processoutput4j.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Helper class for virtual threads (Java 21 version).
+ *
+ * @author fracpete (fracpete at waikato dot ac dot nz)
+ */
+public class VirtualThreads {
+
+  /**
+   * Returns whether virtual threads are supported by the runtime.
+   *
+   * @return		always true
+   */
+  public static boolean isSupported() {
+    return true;
+  }
+
+  /**
+   * Creates a new executor that starts a virtual thread per task.
+   *
+   * @param prefix	the prefix for the thread names
+   * @return		the executor
+   */
+  public static ExecutorService newExecutor(String prefix) {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory());
+  }
+}